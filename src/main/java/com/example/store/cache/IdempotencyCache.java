@@ -0,0 +1,139 @@
+package com.example.store.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Кэш результатов запросов по ключу идемпотентности ({@code Idempotency-Key}).
+ *
+ * <p>Первый запрос с ключом выполняется, а его результат хранится ограниченное время;
+ * повторы с тем же ключом получают сохраненный результат без повторного выполнения.
+ * Повтор, пришедший пока первый запрос еще выполняется, ждет его завершения.
+ * Ошибки не сохраняются, поэтому запрос можно повторить после сбоя. Вместе с
+ * результатом хранится отпечаток запроса: повтор ключа с другими данными отклоняется.
+ */
+@Slf4j
+@Component
+public class IdempotencyCache {
+
+  private record Entry(String fingerprint, CompletableFuture<Object> result) {
+  }
+
+  private final Cache<String, Entry> entries;
+  private final long waitTimeoutMillis;
+  private final AtomicLong executedCount = new AtomicLong();
+  private final AtomicLong replayedCount = new AtomicLong();
+  private final AtomicLong mismatchCount = new AtomicLong();
+
+  /**
+   * Создает кэш ключей идемпотентности.
+   *
+   * @param maximumSize максимальное количество хранимых ключей
+   * @param expireAfterWrite время хранения результата
+   * @param waitTimeout максимальное ожидание повтором выполняющегося запроса
+   */
+  public IdempotencyCache(
+          @Value("${store.idempotency.maximum-size:100000}") long maximumSize,
+          @Value("${store.idempotency.expire-after-write:1h}") Duration expireAfterWrite,
+          @Value("${store.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+    this.entries = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+    this.waitTimeoutMillis = waitTimeout.toMillis();
+  }
+
+  /**
+   * Выполняет действие один раз для ключа или возвращает сохраненный результат.
+   *
+   * @param key ключ идемпотентности
+   * @param fingerprint отпечаток данных запроса
+   * @param action выполняемое действие
+   * @param cacheable сохранять ли полученный результат для последующих повторов
+   * @param <T> тип результата
+   * @return результат первого выполнения действия с этим ключом
+   * @throws ResponseStatusException 422, если ключ уже использован с другими данными,
+   *         или 409, если первый запрос не завершился за время ожидания
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(
+          String key, String fingerprint, Supplier<T> action, Predicate<T> cacheable) {
+    Entry created = new Entry(fingerprint, new CompletableFuture<>());
+    Entry existing = entries.asMap().putIfAbsent(key, created);
+    if (existing != null) {
+      if (!existing.fingerprint().equals(fingerprint)) {
+        mismatchCount.incrementAndGet();
+        throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used with a different request");
+      }
+      replayedCount.incrementAndGet();
+      return (T) await(key, existing);
+    }
+
+    executedCount.incrementAndGet();
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException | Error e) {
+      entries.asMap().remove(key, created);
+      created.result().completeExceptionally(e);
+      throw e;
+    }
+    if (!cacheable.test(result)) {
+      entries.asMap().remove(key, created);
+    }
+    created.result().complete(result);
+    return result;
+  }
+
+  /**
+   * Возвращает показатели кэша.
+   *
+   * @return Map с количеством ключей, выполненных и повторных запросов
+   */
+  public Map<String, Number> stats() {
+    Map<String, Number> result = new LinkedHashMap<>();
+    result.put("size", entries.estimatedSize());
+    result.put("executed", executedCount.get());
+    result.put("replayed", replayedCount.get());
+    result.put("mismatched", mismatchCount.get());
+    return result;
+  }
+
+  private Object await(String key, Entry entry) {
+    try {
+      return entry.result().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      log.warn("Request with Idempotency-Key {} is still in progress", key);
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+              "Request with this Idempotency-Key is still in progress");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+              "Request with this Idempotency-Key is still in progress");
+    }
+  }
+}
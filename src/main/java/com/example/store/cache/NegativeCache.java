@@ -0,0 +1,86 @@
+package com.example.store.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш отсутствующих идентификаторов (negative cache).
+ *
+ * <p>Запоминает на короткое время идентификаторы, по которым сущность не найдена в БД,
+ * чтобы повторные запросы несуществующих ID отвечались из памяти без обращения к базе.
+ * Запись удаляется при сохранении сущности с таким идентификатором.
+ */
+@Slf4j
+@Component
+public class NegativeCache {
+
+  /**
+   * Тип сущности, для которой хранятся отсутствующие идентификаторы.
+   */
+  public enum Kind {
+    PRODUCT,
+    ACCOUNT,
+    ORDER
+  }
+
+  private final Map<Kind, Cache<Long, Boolean>> missingIds = new EnumMap<>(Kind.class);
+
+  /**
+   * Создает кэш отсутствующих идентификаторов.
+   *
+   * @param maximumSize максимальное количество идентификаторов каждого типа
+   * @param expireAfterWrite время, в течение которого идентификатор считается отсутствующим
+   */
+  public NegativeCache(
+          @Value("${store.cache.negative.maximum-size:100000}") long maximumSize,
+          @Value("${store.cache.negative.expire-after-write:30s}") Duration expireAfterWrite) {
+    for (Kind kind : Kind.values()) {
+      missingIds.put(kind, Caffeine.newBuilder()
+              .maximumSize(maximumSize)
+              .expireAfterWrite(expireAfterWrite)
+              .build());
+    }
+  }
+
+  /**
+   * Проверить, известно ли, что сущность с указанным ID отсутствует.
+   *
+   * @param kind тип сущности
+   * @param id идентификатор
+   * @return true, если ID недавно не был найден в БД
+   */
+  public boolean isKnownMissing(Kind kind, Long id) {
+    return id != null && missingIds.get(kind).getIfPresent(id) != null;
+  }
+
+  /**
+   * Запомнить, что сущность с указанным ID отсутствует.
+   *
+   * @param kind тип сущности
+   * @param id идентификатор
+   */
+  public void markMissing(Kind kind, Long id) {
+    if (id != null) {
+      log.debug("Mark missing {}: {}", kind, id);
+      missingIds.get(kind).put(id, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Удалить идентификатор из списка отсутствующих (после сохранения сущности).
+   *
+   * @param kind тип сущности
+   * @param id идентификатор
+   */
+  public void invalidate(Kind kind, Long id) {
+    if (id != null) {
+      missingIds.get(kind).invalidate(id);
+    }
+  }
+}
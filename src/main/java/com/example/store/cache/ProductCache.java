@@ -1,31 +1,152 @@
 package com.example.store.cache;
 
 import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Кэш для хранения продуктов в памяти.
  *
- * <p>Реализует thread-safe хранение продуктов с базовыми операциями кэширования.
+ * <p>Построен на Caffeine: ограничен по оценочному объему памяти, вытесняет записи
+ * по политике W-TinyLFU (учитывает частоту обращений, а не только давность),
+ * поддерживает опциональные TTL и фоновое обновление после записи и ведет статистику
+ * попаданий, промахов, вытеснений и времени загрузки.
+ *
+ * <p>Одновременные промахи по одному идентификатору объединяются в одну загрузку
+ * из базы данных, результат которой получают все ожидающие потоки.
+ *
+ * <p>Записи, восстановленные из снимка на диске, считаются непроверенными: в снимке
+ * нет версии и данных аккаунта, поэтому при первом обращении такая запись сначала
+ * перечитывается из базы данных и только потом отдается.
  */
 @Slf4j
 @Component
 public class ProductCache {
 
-  private final Map<Long, Product> cacheProduct = new ConcurrentHashMap<>();
+  /** Примерный размер пустого объекта продукта со ссылками и заголовками, в байтах. */
+  private static final int BASE_PRODUCT_WEIGHT = 96;
+
+  private final LoadingCache<Long, Product> cacheProduct;
+  private final Set<Long> unverifiedIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Создает кэш продуктов с заданными ограничениями.
+   *
+   * @param productRepository репозиторий для фонового обновления записей
+   * @param maximumWeight максимальный оценочный объем кэша в байтах
+   * @param expireAfterWrite время жизни записи после записи (0 — без ограничения)
+   * @param refreshAfterWrite период фонового обновления записи (0 — отключено)
+   */
+  public ProductCache(
+          ProductRepository productRepository,
+          @Value("${store.cache.product.maximum-weight:67108864}") long maximumWeight,
+          @Value("${store.cache.product.expire-after-write:0s}") Duration expireAfterWrite,
+          @Value("${store.cache.product.refresh-after-write:0s}") Duration refreshAfterWrite) {
+    Caffeine<Long, Product> builder = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((Long id, Product product) -> estimateWeight(product))
+            .recordStats();
+    if (!expireAfterWrite.isZero()) {
+      builder.expireAfterWrite(expireAfterWrite);
+    }
+    if (!refreshAfterWrite.isZero()) {
+      builder.refreshAfterWrite(refreshAfterWrite);
+    }
+    // Фоновое обновление идет вне сессии запроса, поэтому связи загружаются сразу
+    this.cacheProduct = builder.build(
+            id -> productRepository.findWithAssociationsById(id).orElse(null));
+  }
 
   /**
    * Получить продукт из кэша по идентификатору.
    *
+   * <p>Непроверенная запись из снимка перед выдачей синхронно перечитывается из базы
+   * данных; если продукт удален, возвращается null.
+   *
    * @param id идентификатор продукта
    * @return продукт или null, если не найден
    */
   public Product get(Long id) {
     log.info("Get product by id: {}", id);
-    return cacheProduct.get(id);
+    Product product = cacheProduct.getIfPresent(id);
+    if (product != null && unverifiedIds.contains(id)) {
+      product = reload(id);
+    }
+    return product;
+  }
+
+  // Одновременные обращения к одной записи ждут одно обновление
+  private Product reload(Long id) {
+    try {
+      Product product = cacheProduct.refresh(id).join();
+      unverifiedIds.remove(id);
+      return product;
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Получить из кэша все имеющиеся продукты с указанными идентификаторами.
+   *
+   * <p>Непроверенные записи, восстановленные из снимка, не возвращаются: вызывающий
+   * код догружает их из базы данных как промахи и кладет в кэш уже проверенными.
+   *
+   * @param ids идентификаторы продуктов
+   * @return Map найденных в кэше проверенных продуктов по идентификатору
+   */
+  public Map<Long, Product> getAllPresent(Collection<Long> ids) {
+    Map<Long, Product> present = cacheProduct.getAllPresent(ids);
+    if (unverifiedIds.isEmpty()) {
+      return present;
+    }
+    Map<Long, Product> verified = new HashMap<>(present);
+    verified.keySet().removeAll(unverifiedIds);
+    return verified;
+  }
+
+  /**
+   * Загрузить продукт, отсутствующий в кэше, объединяя одновременные загрузки.
+   *
+   * <p>Загрузку выполняет сам Caffeine: одновременные промахи по одному идентификатору
+   * ждут одну загрузку, ее время и результат попадают в статистику кэша. Мягко удаленный
+   * продукт возвращается вызывающему потоку, но в кэш не кладется.
+   *
+   * @param id идентификатор продукта
+   * @param loader функция загрузки продукта из источника данных
+   * @return Optional с продуктом, если найден
+   */
+  public Optional<Product> load(Long id, Function<Long, Optional<Product>> loader) {
+    AtomicReference<Product> uncacheable = new AtomicReference<>();
+    Product product = cacheProduct.get(id, key -> {
+      Product loaded = loader.apply(key).orElse(null);
+      if (loaded != null && !isCacheable(loaded)) {
+        uncacheable.set(loaded);
+        return null;
+      }
+      return loaded;
+    });
+    return Optional.ofNullable(product != null ? product : uncacheable.get());
   }
 
   /**
@@ -34,12 +155,58 @@ public class ProductCache {
    * @param product продукт для кэширования
    */
   public void put(Product product) {
-    if (product != null && product.getId() != null) {
+    if (isCacheable(product)) {
       log.info("Put product: {}", product);
       cacheProduct.put(product.getId(), product);
+      unverifiedIds.remove(product.getId());
     }
   }
 
+  /**
+   * Добавить в кэш несколько продуктов за одну операцию.
+   *
+   * @param products продукты для кэширования
+   */
+  public void putAll(Collection<Product> products) {
+    Map<Long, Product> entries = new HashMap<>();
+    for (Product product : products) {
+      if (isCacheable(product)) {
+        entries.put(product.getId(), product);
+      }
+    }
+    log.debug("Put {} products", entries.size());
+    cacheProduct.putAll(entries);
+    unverifiedIds.removeAll(entries.keySet());
+  }
+
+  /**
+   * Добавить в кэш продукты, восстановленные из снимка, пометив их как непроверенные.
+   *
+   * <p>Уже закэшированные продукты не перезаписываются.
+   *
+   * @param products продукты из снимка
+   */
+  public void putUnverified(Collection<Product> products) {
+    for (Product product : products) {
+      if (isCacheable(product)
+              && cacheProduct.asMap().putIfAbsent(product.getId(), product) == null) {
+        unverifiedIds.add(product.getId());
+      }
+    }
+  }
+
+  /**
+   * Получить наиболее востребованные продукты по оценке политики вытеснения.
+   *
+   * @param limit максимальное количество продуктов
+   * @return продукты, упорядоченные от самых востребованных
+   */
+  public List<Product> hottest(int limit) {
+    return cacheProduct.policy().eviction()
+            .map(eviction -> List.copyOf(eviction.hottest(limit).values()))
+            .orElseGet(List::of);
+  }
+
   /**
    * Удалить продукт из кэша по идентификатору.
    *
@@ -47,7 +214,8 @@ public class ProductCache {
    */
   public void remove(Long id) {
     log.info("Remove product: {}", id);
-    cacheProduct.remove(id);
+    cacheProduct.invalidate(id);
+    unverifiedIds.remove(id);
   }
 
   /**
@@ -56,6 +224,50 @@ public class ProductCache {
    * @return количество элементов в кэше
    */
   public int size() {
-    return cacheProduct.size();
+    return (int) cacheProduct.estimatedSize();
+  }
+
+  /**
+   * Получить статистику работы кэша.
+   *
+   * @return Map с количеством попаданий, промахов, вытеснений и временем загрузки
+   */
+  public Map<String, Number> stats() {
+    CacheStats stats = cacheProduct.stats();
+    Map<String, Number> result = new LinkedHashMap<>();
+    result.put("size", cacheProduct.estimatedSize());
+    result.put("hitCount", stats.hitCount());
+    result.put("missCount", stats.missCount());
+    result.put("hitRate", stats.hitRate());
+    result.put("evictionCount", stats.evictionCount());
+    result.put("evictionWeight", stats.evictionWeight());
+    result.put("loadSuccessCount", stats.loadSuccessCount());
+    result.put("loadFailureCount", stats.loadFailureCount());
+    result.put("totalLoadTimeNanos", stats.totalLoadTime());
+    result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+    result.put("unverifiedCount", unverifiedIds.size());
+    return result;
+  }
+
+  // Мягко удаленные продукты никогда не попадают в кэш
+  private static boolean isCacheable(Product product) {
+    return product != null && product.getId() != null && !product.isDeleted();
+  }
+
+  /**
+   * Оценивает объем памяти, занимаемый продуктом.
+   *
+   * @param product продукт
+   * @return примерный размер в байтах
+   */
+  static int estimateWeight(Product product) {
+    int weight = BASE_PRODUCT_WEIGHT;
+    if (product.getName() != null) {
+      weight += product.getName().length() * 2;
+    }
+    if (product.getCategory() != null) {
+      weight += product.getCategory().length() * 2;
+    }
+    return weight;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.example.store.cache;
+
+import com.example.store.model.Account;
+import com.example.store.model.Product;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Снимок кэша продуктов на локальном диске.
+ *
+ * <p>Сохраняет наиболее востребованные записи {@link ProductCache} в компактный
+ * бинарный файл через memory-mapped {@link FileChannel} при остановке приложения
+ * и по таймеру. При старте снимок загружается в кэш до прогрева из БД, а записи
+ * перепроверяются лениво при первом обращении.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductCacheSnapshot implements ApplicationRunner {
+
+  private static final int MAGIC = 0x50524443;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = Integer.BYTES * 3;
+
+  private final ProductCache productCache;
+  private final boolean enabled;
+  private final Path snapshotPath;
+  private final int maxEntries;
+
+  /**
+   * Создает компонент снимка кэша.
+   *
+   * @param productCache кэш продуктов
+   * @param enabled включено ли сохранение и загрузка снимка
+   * @param snapshotPath путь к файлу снимка
+   * @param maxEntries максимальное количество записей в снимке
+   */
+  public ProductCacheSnapshot(
+          ProductCache productCache,
+          @Value("${store.cache.product.snapshot.enabled:false}") boolean enabled,
+          @Value("${store.cache.product.snapshot.path:./cache/products.snapshot}") String snapshotPath,
+          @Value("${store.cache.product.snapshot.max-entries:50000}") int maxEntries) {
+    this.productCache = productCache;
+    this.enabled = enabled;
+    this.snapshotPath = Paths.get(snapshotPath);
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (enabled) {
+      restore();
+    }
+  }
+
+  /**
+   * Периодически сохраняет снимок кэша.
+   */
+  @Scheduled(
+          initialDelayString = "${store.cache.product.snapshot.interval-ms:300000}",
+          fixedDelayString = "${store.cache.product.snapshot.interval-ms:300000}")
+  public void scheduledSave() {
+    if (enabled) {
+      save();
+    }
+  }
+
+  /**
+   * Сохраняет снимок кэша при остановке приложения.
+   */
+  @PreDestroy
+  public void saveOnShutdown() {
+    if (enabled) {
+      save();
+    }
+  }
+
+  /**
+   * Записывает наиболее востребованные продукты из кэша в файл снимка.
+   *
+   * @return количество записанных продуктов
+   */
+  public int save() {
+    long start = System.nanoTime();
+    List<byte[]> entries = new ArrayList<>();
+    int size = HEADER_SIZE;
+    for (Product product : productCache.hottest(maxEntries)) {
+      byte[] entry = encode(product);
+      entries.add(entry);
+      size += entry.length;
+    }
+
+    try {
+      Path parent = snapshotPath.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+      try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+        entries.forEach(buffer::put);
+        buffer.force();
+      }
+      Files.move(tempPath, snapshotPath,
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Failed to save product cache snapshot: {}", e.getMessage());
+      return 0;
+    }
+
+    log.info("Saved {} products to cache snapshot in {} ms",
+            entries.size(), (System.nanoTime() - start) / 1_000_000);
+    return entries.size();
+  }
+
+  /**
+   * Загружает продукты из файла снимка в кэш как непроверенные записи.
+   *
+   * @return количество загруженных продуктов
+   */
+  public int restore() {
+    if (!Files.exists(snapshotPath)) {
+      return 0;
+    }
+
+    long start = System.nanoTime();
+    List<Product> products = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < HEADER_SIZE
+              || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        log.warn("Ignoring product cache snapshot {}: unknown format", snapshotPath);
+        return 0;
+      }
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+        products.add(decode(buffer));
+      }
+    } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+      log.warn("Failed to read product cache snapshot: {}", e.getMessage());
+      return 0;
+    }
+
+    productCache.putUnverified(products);
+    log.info("Restored {} products from cache snapshot in {} ms",
+            products.size(), (System.nanoTime() - start) / 1_000_000);
+    return products.size();
+  }
+
+  // Персональные данные аккаунта на диск не пишутся: сохраняется только ссылка по id,
+  // остальное подгружается при перепроверке записи
+  private static byte[] encode(Product product) {
+    byte[] name = bytes(product.getName());
+    byte[] category = bytes(product.getCategory());
+    Account account = product.getAccount();
+
+    int size = Long.BYTES + Integer.BYTES + stringSize(name) + stringSize(category) + 1;
+    if (account != null) {
+      size += Long.BYTES;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putLong(product.getId()).putInt(product.getPrice());
+    putString(buffer, name);
+    putString(buffer, category);
+    buffer.put((byte) (account == null ? 0 : 1));
+    if (account != null) {
+      buffer.putLong(account.getId() == null ? -1 : account.getId());
+    }
+    return buffer.array();
+  }
+
+  private static Product decode(ByteBuffer buffer) {
+    Product product = Product.builder()
+            .id(buffer.getLong())
+            .price(buffer.getInt())
+            .name(getString(buffer))
+            .category(getString(buffer))
+            .build();
+    if (buffer.get() == 1) {
+      long accountId = buffer.getLong();
+      product.setAccount(Account.builder().id(accountId < 0 ? null : accountId).build());
+    }
+    return product;
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int stringSize(byte[] value) {
+    return Integer.BYTES + (value == null ? 0 : value.length);
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] value) {
+    if (value == null) {
+      buffer.putInt(-1);
+    } else {
+      buffer.putInt(value.length).put(value);
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] value = new byte[length];
+    buffer.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.store.cache;
+
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Прогрев кэша продуктов при старте приложения.
+ *
+ * <p>Если прогрев включен, до перехода приложения в состояние готовности загружает
+ * из БД страницами до заданного количества самых новых продуктов и параллельно
+ * заполняет ими {@link ProductCache}. Страницы выбираются по ключу (ID меньше
+ * последнего прочитанного), без OFFSET и подсчета строк. Длительность и число загруженных записей
+ * логируются и доступны через {@link #stats()}.
+ */
+@Slf4j
+@Component
+public class ProductCacheWarmer implements ApplicationRunner {
+
+  private final ProductRepository productRepository;
+  private final ProductCache productCache;
+  private final boolean enabled;
+  private final int hotSetSize;
+  private final int pageSize;
+  private final int parallelism;
+
+  private volatile long loadedCount;
+  private volatile long durationMillis;
+
+  /**
+   * Создает компонент прогрева кэша.
+   *
+   * @param productRepository репозиторий продуктов
+   * @param productCache кэш продуктов
+   * @param enabled включен ли прогрев
+   * @param hotSetSize максимальное количество продуктов для загрузки
+   * @param pageSize размер страницы при чтении из БД
+   * @param parallelism количество потоков загрузки
+   */
+  public ProductCacheWarmer(
+          ProductRepository productRepository,
+          ProductCache productCache,
+          @Value("${store.cache.product.warmup.enabled:false}") boolean enabled,
+          @Value("${store.cache.product.warmup.size:10000}") int hotSetSize,
+          @Value("${store.cache.product.warmup.page-size:500}") int pageSize,
+          @Value("${store.cache.product.warmup.parallelism:4}") int parallelism) {
+    this.productRepository = productRepository;
+    this.productCache = productCache;
+    this.enabled = enabled;
+    this.hotSetSize = hotSetSize;
+    this.pageSize = pageSize;
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    if (enabled) {
+      warmUp();
+    }
+  }
+
+  /**
+   * Загружает горячий набор продуктов в кэш.
+   *
+   * @return количество загруженных продуктов
+   * @throws InterruptedException если поток был прерван во время ожидания загрузки
+   */
+  public long warmUp() throws InterruptedException {
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    long loaded = 0;
+    try {
+      // Идентификаторы читаются по ключу последовательно, сами продукты — параллельно
+      List<Future<Integer>> results = new ArrayList<>();
+      long lastId = Long.MAX_VALUE;
+      int remaining = hotSetSize;
+      while (remaining > 0) {
+        int limit = Math.min(pageSize, remaining);
+        List<Long> ids = productRepository.findIdsBefore(lastId, Limit.of(limit));
+        if (ids.isEmpty()) {
+          break;
+        }
+        results.add(executor.submit(() -> loadPage(ids)));
+        lastId = ids.get(ids.size() - 1);
+        remaining -= ids.size();
+        if (ids.size() < limit) {
+          break;
+        }
+      }
+      for (Future<Integer> result : results) {
+        loaded += getPageResult(result);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    loadedCount = loaded;
+    durationMillis = (System.nanoTime() - start) / 1_000_000;
+    log.info("Product cache warm-up loaded {} products in {} ms", loadedCount, durationMillis);
+    return loaded;
+  }
+
+  // Продукты загружаются со всеми сериализуемыми связями: кэш отдает их вне сессии
+  private int loadPage(List<Long> ids) {
+    List<Product> products = productRepository.findWithAssociationsByIdIn(ids);
+    productCache.putAll(products);
+    return products.size();
+  }
+
+  private static int getPageResult(Future<Integer> result) throws InterruptedException {
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      log.warn("Product cache warm-up page failed: {}", e.getCause().getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Получить результаты последнего прогрева.
+   *
+   * @return Map с количеством загруженных продуктов и длительностью прогрева
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", enabled);
+    result.put("loadedCount", loadedCount);
+    result.put("durationMillis", durationMillis);
+    return result;
+  }
+}
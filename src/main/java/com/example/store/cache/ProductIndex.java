@@ -0,0 +1,302 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Вторичные индексы продуктов в памяти.
+ *
+ * <p>Хранит соответствие категории множеству идентификаторов продуктов и
+ * отсортированный примитивный массив цен для точного поиска и поиска по диапазону.
+ * Строится при старте приложения по легковесной выборке (id, категория, цена)
+ * и поддерживается в согласованном состоянии при сохранении и удалении продуктов.
+ * Пока индекс не построен, {@link #isReady()} возвращает false и запросы
+ * обслуживаются базой данных.
+ */
+@Slf4j
+@Component
+public class ProductIndex implements ApplicationRunner {
+
+  private final ProductRepository productRepository;
+  private final boolean enabled;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, ProductIndexEntry> entries = new HashMap<>();
+  private final Map<String, Set<Long>> idsByCategory = new HashMap<>();
+  private final Set<Long> removedWhileBuilding = new HashSet<>();
+  private int[] sortedPrices = new int[0];
+  private long[] idsBySortedPrice = new long[0];
+  private boolean priceIndexDirty;
+  private boolean building;
+  private volatile boolean ready;
+
+  /**
+   * Создает индекс продуктов.
+   *
+   * @param productRepository репозиторий продуктов
+   * @param enabled включено ли построение индекса
+   */
+  public ProductIndex(
+          ProductRepository productRepository,
+          @Value("${store.index.product.enabled:true}") boolean enabled) {
+    this.productRepository = productRepository;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Полностью перестраивает индекс по данным из БД.
+   */
+  public void rebuild() {
+    long start = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      building = true;
+      entries.clear();
+      idsByCategory.clear();
+      removedWhileBuilding.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Iterable<ProductIndexEntry> loaded;
+    try {
+      loaded = productRepository.findAllIndexEntries();
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        building = false;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+
+    lock.writeLock().lock();
+    try {
+      // Изменения, сделанные во время загрузки, новее данных из выборки
+      for (ProductIndexEntry entry : loaded) {
+        if (!entries.containsKey(entry.id()) && !removedWhileBuilding.contains(entry.id())) {
+          add(entry);
+        }
+      }
+      building = false;
+      removedWhileBuilding.clear();
+      priceIndexDirty = true;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info("Product index built with {} products in {} ms",
+            entries.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Проверить, готов ли индекс обслуживать запросы.
+   *
+   * @return true, если индекс построен
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Добавить или обновить продукт в индексе.
+   *
+   * @param product сохраненный продукт
+   */
+  public void put(Product product) {
+    if (product != null) {
+      putAll(List.of(product));
+    }
+  }
+
+  /**
+   * Добавить или обновить несколько продуктов в индексе.
+   *
+   * @param products сохраненные продукты
+   */
+  public void putAll(Collection<Product> products) {
+    lock.writeLock().lock();
+    try {
+      for (Product product : products) {
+        if (product != null && product.getId() != null) {
+          removeEntry(product.getId());
+          add(new ProductIndexEntry(product.getId(), product.getCategory(), product.getPrice()));
+          removedWhileBuilding.remove(product.getId());
+        }
+      }
+      priceIndexDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Удалить продукт из индекса.
+   *
+   * @param id идентификатор продукта
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeEntry(id);
+      if (building) {
+        removedWhileBuilding.add(id);
+      }
+      priceIndexDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Найти идентификаторы продуктов по фильтрам.
+   *
+   * <p>Все параметры необязательны; заданные фильтры объединяются по И.
+   *
+   * @param category категория продукта
+   * @param price точная цена
+   * @param minPrice минимальная цена включительно
+   * @param maxPrice максимальная цена включительно
+   * @return отсортированный массив идентификаторов
+   */
+  public long[] findIds(String category, Integer price, Integer minPrice, Integer maxPrice) {
+    int low = price != null ? price : (minPrice != null ? minPrice : Integer.MIN_VALUE);
+    int high = price != null ? price : (maxPrice != null ? maxPrice : Integer.MAX_VALUE);
+    if (price != null && ((minPrice != null && price < minPrice)
+            || (maxPrice != null && price > maxPrice))) {
+      return new long[0];
+    }
+    boolean priceFiltered = price != null || minPrice != null || maxPrice != null;
+
+    // Отсортированный по цене массив нужен только для диапазона цен без категории
+    if (priceFiltered && category == null) {
+      ensurePriceIndex();
+    }
+    lock.readLock().lock();
+    try {
+      long[] ids;
+      if (category != null) {
+        Set<Long> categoryIds = idsByCategory.getOrDefault(category, Set.of());
+        ids = categoryIds.stream()
+                .filter(id -> !priceFiltered || inRange(entries.get(id).price(), low, high))
+                .mapToLong(Long::longValue)
+                .toArray();
+      } else if (priceFiltered) {
+        int from = lowerBound(sortedPrices, low);
+        int to = upperBound(sortedPrices, high);
+        ids = Arrays.copyOfRange(idsBySortedPrice, from, Math.max(from, to));
+      } else {
+        ids = entries.keySet().stream().mapToLong(Long::longValue).toArray();
+      }
+      Arrays.sort(ids);
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void ensurePriceIndex() {
+    lock.readLock().lock();
+    try {
+      if (!priceIndexDirty) {
+        return;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    lock.writeLock().lock();
+    try {
+      if (!priceIndexDirty) {
+        return;
+      }
+      ProductIndexEntry[] sorted = entries.values().toArray(new ProductIndexEntry[0]);
+      Arrays.sort(sorted, (a, b) -> Integer.compare(a.price(), b.price()));
+      int[] prices = new int[sorted.length];
+      long[] ids = new long[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        prices[i] = sorted[i].price();
+        ids[i] = sorted[i].id();
+      }
+      sortedPrices = prices;
+      idsBySortedPrice = ids;
+      priceIndexDirty = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(ProductIndexEntry entry) {
+    entries.put(entry.id(), entry);
+    idsByCategory.computeIfAbsent(entry.category(), key -> new HashSet<>()).add(entry.id());
+  }
+
+  private void removeEntry(Long id) {
+    ProductIndexEntry previous = entries.remove(id);
+    if (previous != null) {
+      Set<Long> categoryIds = idsByCategory.get(previous.category());
+      if (categoryIds != null) {
+        categoryIds.remove(id);
+        if (categoryIds.isEmpty()) {
+          idsByCategory.remove(previous.category());
+        }
+      }
+    }
+  }
+
+  private static boolean inRange(int value, int low, int high) {
+    return value >= low && value <= high;
+  }
+
+  private static int lowerBound(int[] values, int key) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static int upperBound(int[] values, int key) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
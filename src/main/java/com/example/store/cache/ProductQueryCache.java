@@ -0,0 +1,111 @@
+package com.example.store.cache;
+
+import com.example.store.model.Product;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш результатов запросов списка продуктов с фильтрами.
+ *
+ * <p>Результаты {@code ProductService.getProducts} хранятся в Spring Cache под ключом
+ * {@link Key} (категория, цена, диапазон цен). При изменении продуктов удаляются
+ * только ключи, которые могли содержать эти продукты: запросы по их категориям
+ * и ценам, а также запросы без соответствующего фильтра.
+ */
+@Slf4j
+@Component
+public class ProductQueryCache {
+
+  /** Имя кэша результатов запросов продуктов. */
+  public static final String CACHE_NAME = "productQueries";
+
+  private final CacheManager cacheManager;
+
+  /**
+   * Создает компонент инвалидации кэша запросов.
+   *
+   * @param cacheManager менеджер кэшей Spring
+   */
+  public ProductQueryCache(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  /**
+   * Ключ кэша запроса продуктов.
+   *
+   * @param category категория фильтра или null
+   * @param price цена фильтра или null
+   * @param minPrice нижняя граница цены или null
+   * @param maxPrice верхняя граница цены или null
+   */
+  public record Key(String category, Integer price, Integer minPrice, Integer maxPrice) {
+
+    /**
+     * Создает ключ для параметров запроса без диапазона цен.
+     *
+     * @param category категория фильтра или null
+     * @param price цена фильтра или null
+     * @return ключ кэша
+     */
+    public static Key of(String category, Integer price) {
+      return new Key(category, price, null, null);
+    }
+
+    /**
+     * Создает ключ для параметров запроса.
+     *
+     * @param category категория фильтра или null
+     * @param price цена фильтра или null
+     * @param minPrice нижняя граница цены или null
+     * @param maxPrice верхняя граница цены или null
+     * @return ключ кэша
+     */
+    public static Key of(String category, Integer price, Integer minPrice, Integer maxPrice) {
+      return new Key(category, price, minPrice, maxPrice);
+    }
+
+    private boolean isAffectedBy(Set<String> categories, Set<Integer> prices) {
+      return (category == null || categories.contains(category))
+              && prices.stream().anyMatch(this::matchesPrice);
+    }
+
+    private boolean matchesPrice(Integer value) {
+      return (price == null || price.equals(value))
+              && (minPrice == null || value >= minPrice)
+              && (maxPrice == null || value <= maxPrice);
+    }
+  }
+
+  /**
+   * Удаляет из кэша результаты запросов, затронутые изменением указанных продуктов.
+   *
+   * @param products измененные продукты (старые и новые версии)
+   */
+  public void evict(Collection<Product> products) {
+    Set<String> categories = new HashSet<>();
+    Set<Integer> prices = new HashSet<>();
+    products.stream().filter(Objects::nonNull).forEach(product -> {
+      categories.add(product.getCategory());
+      prices.add(product.getPrice());
+    });
+    if (categories.isEmpty()) {
+      return;
+    }
+
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    if (cache instanceof CaffeineCache caffeineCache) {
+      caffeineCache.getNativeCache().asMap().keySet().removeIf(key ->
+              !(key instanceof Key queryKey) || queryKey.isAffectedBy(categories, prices));
+    } else if (cache != null) {
+      cache.clear();
+    }
+    log.debug("Evicted product queries for categories {}", categories);
+  }
+}
@@ -1,8 +1,12 @@
 package com.example.store.controller;
 
+import com.example.store.dto.AccountSummary;
+import com.example.store.dto.CursorPage;
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.exception.ValidationException;
 import com.example.store.model.Account;
 import com.example.store.service.AccountService;
+import com.example.store.service.ExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,7 +26,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Контроллер для управления учетными записями пользователей.
@@ -36,6 +42,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AccountController {
 
   private final AccountService accountService;
+  private final ExportService exportService;
 
   /**
    * Получает список всех учетных записей.
@@ -55,6 +62,76 @@ public class AccountController {
     return ResponseEntity.ok(accountService.getAccounts());
   }
 
+  /**
+   * Получает страницу аккаунтов с keyset-пагинацией.
+   *
+   * @param cursor курсор следующей страницы из предыдущего ответа (опционально)
+   * @param size размер страницы (опционально, не больше {@value CursorPage#MAX_SIZE})
+   * @return ResponseEntity со страницей аккаунтов и курсором следующей страницы
+   */
+  @GetMapping("/page")
+  @Operation(
+          summary = "Получить аккаунты постранично",
+          description = "Возвращает страницу аккаунтов и курсор следующей страницы")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Некорректный курсор")
+  @CrossOrigin(origins = "http://localhost:8080")
+  public ResponseEntity<CursorPage<Account>> getAccountsPage(
+          @Parameter(description = "Курсор следующей страницы")
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @Parameter(description = "Размер страницы", example = "50")
+          @RequestParam(value = "size", required = false) Integer size) {
+    return ResponseEntity.ok(accountService.getAccountsPage(cursor, size));
+  }
+
+  /**
+   * Получает облегченные представления всех аккаунтов без заказов.
+   *
+   * @return ResponseEntity со списком представлений аккаунтов
+   */
+  @GetMapping("/summary")
+  @Operation(
+          summary = "Получить краткие данные аккаунтов",
+          description = "Возвращает поля аккаунтов без загрузки заказов")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  @CrossOrigin(origins = "http://localhost:8080")
+  public ResponseEntity<List<AccountSummary>> getAccountSummaries() {
+    return ResponseEntity.ok(accountService.getAccountSummaries());
+  }
+
+  /**
+   * Потоково выгружает все аккаунты без загрузки их в память целиком.
+   *
+   * @param format формат выгрузки: json (массив) или ndjson (объект на строку)
+   * @return ResponseEntity с потоковым телом ответа
+   * @throws ValidationException если формат не поддерживается
+   */
+  @GetMapping("/export")
+  @Operation(
+          summary = "Выгрузить все аккаунты",
+          description = "Потоково выгружает все аккаунты в виде JSON-массива или NDJSON")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Выгрузка начата")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Неподдерживаемый формат")
+  @CrossOrigin(origins = "http://localhost:8080")
+  public ResponseEntity<StreamingResponseBody> exportAccounts(
+          @Parameter(description = "Формат выгрузки: json или ndjson", example = "ndjson")
+          @RequestParam(value = "format", defaultValue = "json") String format) {
+    ExportService.Format exportFormat = ExportService.Format.parse(format);
+    return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .body(out -> exportService.exportAccounts(exportFormat, out));
+  }
+
   /**
    * Получает учетную запись по идентификатору.
    *
@@ -133,6 +210,9 @@ public class AccountController {
   @ApiResponse(
           responseCode = "404",
           description = "Аккаунт не найден")
+  @ApiResponse(
+          responseCode = "409",
+          description = "Аккаунт изменен параллельно или передана устаревшая версия")
   @CrossOrigin(origins = "http://localhost:8080")
   public ResponseEntity<Account> updateAccount(
           @PathVariable Long id,
@@ -145,6 +225,7 @@ public class AccountController {
    * Удаляет учетную запись по идентификатору.
    *
    * @param id идентификатор удаляемой учетной записи
+   * @param async пометить удаленным и очистить связанные данные в фоне
    * @return ResponseEntity без содержимого
    */
   @DeleteMapping("/{id}")
@@ -154,6 +235,9 @@ public class AccountController {
   @ApiResponse(
           responseCode = "204",
           description = "Аккаунт удален")
+  @ApiResponse(
+          responseCode = "202",
+          description = "Аккаунт помечен удаленным, данные будут очищены в фоне")
   @ApiResponse(
           responseCode = "404",
           description = "Аккаунт не найден")
@@ -163,7 +247,13 @@ public class AccountController {
                   description = "ID аккаунта",
                   example = "1",
                   required = true)
-          @PathVariable Long id) {
+          @PathVariable Long id,
+          @Parameter(description = "Пометить удаленным и очистить связанные данные в фоне")
+          @RequestParam(value = "async", defaultValue = "false") boolean async) {
+    if (async) {
+      accountService.softDeleteAccount(id);
+      return ResponseEntity.accepted().build();
+    }
     accountService.deleteAccount(id);
     return ResponseEntity.noContent().build();
   }
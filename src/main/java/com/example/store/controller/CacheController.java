@@ -0,0 +1,83 @@
+package com.example.store.controller;
+
+import com.example.store.cache.IdempotencyCache;
+import com.example.store.cache.ProductCache;
+import com.example.store.cache.ProductCacheWarmer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер для получения статистики кэшей приложения.
+ */
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache Controller", description = "API для мониторинга кэшей")
+public class CacheController {
+
+  private final ProductCache productCache;
+  private final ProductCacheWarmer productCacheWarmer;
+  private final IdempotencyCache idempotencyCache;
+
+  /**
+   * Создает экземпляр контроллера.
+   *
+   * @param productCache кэш продуктов
+   * @param productCacheWarmer компонент прогрева кэша продуктов
+   * @param idempotencyCache кэш ключей идемпотентности
+   */
+  public CacheController(
+          ProductCache productCache,
+          ProductCacheWarmer productCacheWarmer,
+          IdempotencyCache idempotencyCache) {
+    this.productCache = productCache;
+    this.productCacheWarmer = productCacheWarmer;
+    this.idempotencyCache = idempotencyCache;
+  }
+
+  /**
+   * Возвращает статистику кэша продуктов.
+   *
+   * @return Map с показателями попаданий, промахов, вытеснений и времени загрузки
+   */
+  @GetMapping("/products/stats")
+  @Operation(
+          summary = "Статистика кэша продуктов",
+          description = "Возвращает попадания, промахи, вытеснения и время загрузки")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  public Map<String, Number> getProductCacheStats() {
+    return productCache.stats();
+  }
+
+  /**
+   * Возвращает результаты прогрева кэша продуктов при старте.
+   *
+   * @return Map с количеством загруженных продуктов и длительностью прогрева
+   */
+  @GetMapping("/products/warmup")
+  @Operation(
+          summary = "Результаты прогрева кэша продуктов",
+          description = "Возвращает число загруженных при старте продуктов и время прогрева")
+  @ApiResponse(responseCode = "200", description = "Результаты получены")
+  public Map<String, Object> getProductCacheWarmup() {
+    return productCacheWarmer.stats();
+  }
+
+  /**
+   * Возвращает статистику кэша ключей идемпотентности.
+   *
+   * @return Map с количеством ключей, выполненных и повторных запросов
+   */
+  @GetMapping("/idempotency/stats")
+  @Operation(
+          summary = "Статистика ключей идемпотентности",
+          description = "Возвращает число хранимых ключей, выполненных и повторных запросов")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  public Map<String, Number> getIdempotencyStats() {
+    return idempotencyCache.stats();
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.store.controller;
+
+import com.example.store.service.OptimisticLockRetry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер для мониторинга конфликтов параллельных обновлений.
+ */
+@RestController
+@RequestMapping("/api/contention")
+@Tag(name = "Contention Controller", description = "API для мониторинга конфликтов версий")
+public class ContentionController {
+
+  private final OptimisticLockRetry optimisticLockRetry;
+
+  /**
+   * Создает экземпляр контроллера.
+   *
+   * @param optimisticLockRetry компонент повтора обновлений при конфликте версий
+   */
+  public ContentionController(OptimisticLockRetry optimisticLockRetry) {
+    this.optimisticLockRetry = optimisticLockRetry;
+  }
+
+  /**
+   * Возвращает счетчики конфликтов версий.
+   *
+   * @return Map с количеством конфликтов и исчерпанных повторов по типам сущностей
+   */
+  @GetMapping("/stats")
+  @Operation(
+          summary = "Статистика конфликтов версий",
+          description = "Возвращает число конфликтов оптимистической блокировки "
+                  + "и исчерпанных повторов для заказов, продуктов и аккаунтов")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  public Map<String, Long> getContentionStats() {
+    return optimisticLockRetry.stats();
+  }
+}
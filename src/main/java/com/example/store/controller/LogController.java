@@ -1,29 +1,33 @@
 package com.example.store.controller;
 
+import com.example.store.dto.LogSearchQuery;
+import com.example.store.dto.LogSearchResult;
+import com.example.store.exception.ResourceNotFoundException;
 import com.example.store.model.LogTask;
+import com.example.store.service.LogSearchService;
 import com.example.store.service.LogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Контроллер для работы с лог-файлами приложения.
@@ -31,9 +35,10 @@ import org.springframework.web.bind.annotation.RestController;
  * <p>Предоставляет API для:
  * <ul>
  *   <li>Асинхронной генерации лог-файлов
- *   <li>Проверки статуса задач
+ *   <li>Проверки статуса и отмены задач
  *   <li>Скачивания сгенерированных файлов
  *   <li>Просмотра логов по дате
+ *   <li>Поиска по времени, уровню, потоку, логгеру и тексту
  * </ul>
  */
 @RestController
@@ -41,19 +46,21 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Log Controller", description = "API для работы с лог-файлами")
 public class LogController {
 
-  private static final String LOG_FILE_PATH = "./store.log";
   private static final DateTimeFormatter DATE_FORMATTER =
           DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
   private final LogService logService;
+  private final LogSearchService logSearchService;
 
   /**
    * Создает новый экземпляр LogController с указанным сервисом работы с логами.
    *
    * @param logService сервис для операций с лог-файлами
+   * @param logSearchService сервис поиска по лог-файлу
    */
-  public LogController(LogService logService) {
+  public LogController(LogService logService, LogSearchService logSearchService) {
     this.logService = logService;
+    this.logSearchService = logSearchService;
   }
 
   /**
@@ -67,13 +74,51 @@ public class LogController {
           summary = "Создать лог-файл",
           description = "Асинхронно создает лог-файл за указанную дату")
   @ApiResponse(responseCode = "200", description = "Задача на генерацию создана")
+  @ApiResponse(responseCode = "400", description = "Неверный формат даты")
+  @ApiResponse(responseCode = "429", description = "Очередь задач заполнена")
   public Map<String, String> generateLogFile(
           @Parameter(description = "Дата в формате yyyy-MM-dd", example = "2023-10-01")
           @RequestParam String date) {
-    String taskId = logService.generateLogFile(date).join();
+    String taskId = logService.generateLogFile(date);
     return Map.of("taskId", taskId);
   }
 
+  /**
+   * Отменяет задачу генерации логов.
+   *
+   * @param taskId ID задачи
+   * @return объект LogTask с информацией о задаче
+   */
+  @PostMapping("/cancel/{taskId}")
+  @Operation(
+          summary = "Отменить задачу",
+          description = "Убирает задачу из очереди или прерывает выполняющуюся задачу")
+  @ApiResponse(responseCode = "200", description = "Отмена запрошена")
+  @ApiResponse(responseCode = "404", description = "Задача не найдена")
+  public LogTask cancelTask(
+          @Parameter(description = "ID задачи", example = "550e8400-e29b-41d4-a716-446655440000")
+          @PathVariable String taskId) {
+    LogTask task = logService.cancelTask(taskId);
+    if (task == null) {
+      throw new ResourceNotFoundException("Log task not found: " + taskId);
+    }
+    return task;
+  }
+
+  /**
+   * Возвращает метрики исполнителя задач генерации логов.
+   *
+   * @return глубина очереди, количество задач по итогам и их длительность
+   */
+  @GetMapping("/jobs/stats")
+  @Operation(
+          summary = "Статистика задач генерации",
+          description = "Возвращает глубину очереди, итоги и длительность задач генерации логов")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  public Map<String, Object> getJobStats() {
+    return logService.getJobStats();
+  }
+
   /**
    * Проверяет статус задачи генерации логов.
    *
@@ -96,67 +141,128 @@ public class LogController {
    * Скачивает сгенерированный лог-файл.
    *
    * @param taskId ID задачи
-   * @return ResponseEntity с файлом или сообщением об ошибке
+   * @param headers заголовки запроса (Range, If-Range)
+   * @param gzip сжимать ли файл на лету
+   * @return ResponseEntity с потоком файла или его части
    */
   @GetMapping("/download/{taskId}")
   @Operation(
           summary = "Скачать лог-файл",
-          description = "Скачивает сгенерированный лог-файл по ID задачи")
+          description = "Скачивает сгенерированный лог-файл по ID задачи. Поддерживает "
+                  + "заголовок Range для докачки и сжатие gzip на лету")
   @ApiResponse(responseCode = "200", description = "Файл успешно скачан")
+  @ApiResponse(responseCode = "206", description = "Отдана запрошенная часть файла")
   @ApiResponse(responseCode = "404", description = "Файл не найден или задача не завершена")
-  public ResponseEntity<?> downloadLogFile(
+  @ApiResponse(responseCode = "416", description = "Запрошенный диапазон недопустим")
+  public ResponseEntity<StreamingResponseBody> downloadLogFile(
           @Parameter(description = "ID задачи", example = "550e8400-e29b-41d4-a716-446655440000")
-          @PathVariable String taskId) {
-    return logService.downloadLogFile(taskId);
+          @PathVariable String taskId,
+          @Parameter(hidden = true) @RequestHeader HttpHeaders headers,
+          @Parameter(description = "Сжать ответ gzip", example = "false")
+          @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+    return logService.downloadLogFile(taskId, headers, gzip);
   }
 
   /**
    * Возвращает логи за указанную дату.
    *
+   * <p>Строки передаются клиенту потоком по мере чтения лог-файла.
+   *
    * @param date дата в формате yyyy-MM-dd
-   * @return ResponseEntity с отфильтрованными логами или сообщением об ошибке
+   * @return ResponseEntity с потоком логов или сообщением об ошибке
    */
   @GetMapping("/by-date")
   @Operation(
           summary = "Получить логи за дату",
-          description = "Возвращает логи за указанную дату")
+          description = "Потоково возвращает логи за указанную дату")
   @ApiResponse(responseCode = "200", description = "Логи успешно получены")
   @ApiResponse(responseCode = "400", description = "Неверный формат даты")
   @ApiResponse(responseCode = "404", description = "Логи не найдены")
-  public ResponseEntity<String> getLogsByDate(
+  public ResponseEntity<?> getLogsByDate(
           @Parameter(description = "Дата в формате yyyy-MM-dd", example = "2023-10-01")
           @RequestParam String date) {
 
+    LocalDate day;
     try {
-      LocalDate.parse(date, DATE_FORMATTER);
+      day = LocalDate.parse(date, DATE_FORMATTER);
     } catch (DateTimeParseException e) {
       return ResponseEntity.badRequest()
               .body("Неверный формат даты. Используйте формат yyyy-MM-dd");
     }
 
     try {
-      Path logPath = Paths.get(LOG_FILE_PATH);
-      if (!Files.exists(logPath)) {
-        return ResponseEntity.notFound().build();
-      }
-
-      String logs;
-      try (Stream<String> lines = Files.lines(logPath)) {
-        logs = lines
-                .filter(line -> line.contains(date))
-                .collect(Collectors.joining("\n"));
-      }
-
-      if (logs.isEmpty()) {
+      if (!logService.hasLogs(day)) {
         return ResponseEntity.notFound().build();
       }
-
-      return ResponseEntity.ok()
-              .contentType(MediaType.TEXT_PLAIN)
-              .body(logs);
     } catch (IOException e) {
       return ResponseEntity.internalServerError()
               .body("Ошибка при чтении лог-файла");
     }
+
+    StreamingResponseBody body = out -> logService.streamLogsByDate(day, out);
+    return ResponseEntity.ok()
+            .contentType(MediaType.TEXT_PLAIN)
+            .body(body);
+  }
+
+  /**
+   * Возвращает состояние индекса смещений лог-файла.
+   *
+   * @return количество проиндексированных байтов и диапазонов
+   */
+  @GetMapping("/index/stats")
+  @Operation(
+          summary = "Статистика индекса логов",
+          description = "Возвращает состояние индекса смещений лог-файла по часам")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  public Map<String, Object> getIndexStats() {
+    return logService.getIndexStats();
+  }
+
+  /**
+   * Ищет строки лог-файла по времени, уровню, потоку, логгеру и тексту сообщения.
+   *
+   * @param from начало интервала времени включительно
+   * @param to конец интервала времени не включительно
+   * @param level уровень логирования
+   * @param thread имя потока
+   * @param logger часть имени логгера
+   * @param q подстрока сообщения
+   * @param regex регулярное выражение для сообщения
+   * @param limit максимальное количество строк в ответе
+   * @return найденные строки в порядке следования в файле
+   */
+  @GetMapping("/search")
+  @Operation(
+          summary = "Поиск по логам",
+          description = "Параллельно ищет строки лог-файла по интервалу времени, уровню, "
+                  + "потоку, логгеру, подстроке или регулярному выражению")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Поиск выполнен",
+          content = @Content(schema = @Schema(implementation = LogSearchResult.class)))
+  @ApiResponse(responseCode = "400", description = "Неверные условия поиска")
+  @ApiResponse(
+          responseCode = "422",
+          description = "Регулярное выражение вычисляется слишком долго")
+  public LogSearchResult searchLogs(
+          @Parameter(description = "Начало интервала (включительно)", example = "2025-05-22T10:00")
+          @RequestParam(value = "from", required = false) String from,
+          @Parameter(description = "Конец интервала (не включительно)", example = "2025-05-22T11:00")
+          @RequestParam(value = "to", required = false) String to,
+          @Parameter(description = "Уровень логирования", example = "ERROR")
+          @RequestParam(value = "level", required = false) String level,
+          @Parameter(description = "Имя потока", example = "http-nio-9090-exec-1")
+          @RequestParam(value = "thread", required = false) String thread,
+          @Parameter(description = "Часть имени логгера", example = "LoggingAspect")
+          @RequestParam(value = "logger", required = false) String logger,
+          @Parameter(description = "Подстрока сообщения", example = "Exception")
+          @RequestParam(value = "q", required = false) String q,
+          @Parameter(description = "Регулярное выражение для сообщения", example = "id=\\d+")
+          @RequestParam(value = "regex", required = false) String regex,
+          @Parameter(description = "Максимальное количество строк", example = "100")
+          @RequestParam(value = "limit", required = false) Integer limit) {
+    return logSearchService.search(
+            new LogSearchQuery(from, to, level, thread, logger, q, regex, limit));
   }
 }
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.example.store.controller;
 
+import com.example.store.cache.IdempotencyCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.OrderBatchResult;
+import com.example.store.dto.OrderIngestionStatus;
+import com.example.store.dto.OrderSummary;
 import com.example.store.exception.ResourceNotFoundException;
 import com.example.store.exception.ValidationException;
 import com.example.store.model.Order;
+import com.example.store.service.ExportService;
+import com.example.store.service.OrderIngestionQueue;
 import com.example.store.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,8 +19,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -22,9 +33,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Контроллер для управления заказами.
@@ -37,7 +50,14 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin(origins = "http://localhost:8080")
 public class OrderController {
 
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
   private final OrderService orderService;
+  private final ExportService exportService;
+  private final OrderIngestionQueue orderIngestionQueue;
+  private final IdempotencyCache idempotencyCache;
+  private final ObjectMapper objectMapper;
 
   /**
    * Получает список всех заказов.
@@ -56,6 +76,76 @@ public class OrderController {
     return ResponseEntity.ok(orderService.getAllOrders());
   }
 
+  /**
+   * Получает страницу заказов с keyset-пагинацией.
+   *
+   * @param cursor курсор следующей страницы из предыдущего ответа (опционально)
+   * @param size размер страницы (опционально, не больше {@value CursorPage#MAX_SIZE})
+   * @return ResponseEntity со страницей заказов и курсором следующей страницы
+   */
+  @GetMapping("/page")
+  @Operation(
+          summary = "Получить заказы постранично",
+          description = "Возвращает страницу заказов и курсор следующей страницы")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Некорректный курсор")
+  public ResponseEntity<CursorPage<Order>> getOrdersPage(
+          @Parameter(description = "Курсор следующей страницы")
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @Parameter(description = "Размер страницы", example = "50")
+          @RequestParam(value = "size", required = false) Integer size) {
+    return ResponseEntity.ok(orderService.getOrdersPage(cursor, size));
+  }
+
+  /**
+   * Получает облегченные представления заказов без аккаунтов и продуктов.
+   *
+   * @param accountId ID аккаунта для фильтрации (опционально)
+   * @return ResponseEntity со списком представлений заказов
+   */
+  @GetMapping("/summary")
+  @Operation(
+          summary = "Получить краткие данные заказов",
+          description = "Возвращает дату, стоимость и ID аккаунта заказов без загрузки связей")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  public ResponseEntity<List<OrderSummary>> getOrderSummaries(
+          @Parameter(description = "ID аккаунта", example = "1")
+          @RequestParam(value = "accountId", required = false) Long accountId) {
+    return ResponseEntity.ok(orderService.getOrderSummaries(accountId));
+  }
+
+  /**
+   * Потоково выгружает все заказы без загрузки их в память целиком.
+   *
+   * @param format формат выгрузки: json (массив) или ndjson (объект на строку)
+   * @return ResponseEntity с потоковым телом ответа
+   * @throws ValidationException если формат не поддерживается
+   */
+  @GetMapping("/export")
+  @Operation(
+          summary = "Выгрузить все заказы",
+          description = "Потоково выгружает все заказы в виде JSON-массива или NDJSON")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Выгрузка начата")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Неподдерживаемый формат")
+  public ResponseEntity<StreamingResponseBody> exportOrders(
+          @Parameter(description = "Формат выгрузки: json или ndjson", example = "ndjson")
+          @RequestParam(value = "format", defaultValue = "json") String format) {
+    ExportService.Format exportFormat = ExportService.Format.parse(format);
+    return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .body(out -> exportService.exportOrders(exportFormat, out));
+  }
+
   /**
    * Получает заказ по идентификатору.
    *
@@ -85,32 +175,166 @@ public class OrderController {
   /**
    * Создает новый заказ.
    *
+   * <p>Если включена асинхронная запись ({@code store.orders.ingest.enabled}),
+   * проверенный заказ ставится в очередь и возвращается идентификатор отслеживания.
+   *
+   * <p>Повторный запрос с тем же заголовком {@code Idempotency-Key} получает исходный
+   * ответ; если первый запрос еще выполняется, повтор ждет его завершения.
+   *
    * @param order данные нового заказа
-   * @return ResponseEntity с созданным заказом
+   * @param idempotencyKey ключ идемпотентности или null
+   * @return ResponseEntity с созданным заказом или состоянием заказа в очереди
    * @throws ValidationException если не указаны ID продуктов
    */
   @PostMapping
   @Operation(
           summary = "Создать заказ",
-          description = "Создает новый заказ")
+          description = "Создает новый заказ или ставит его в очередь записи")
   @ApiResponse(
           responseCode = "201",
           description = "Заказ создан",
           content = @Content(schema = @Schema(implementation = Order.class)))
+  @ApiResponse(
+          responseCode = "202",
+          description = "Заказ принят в очередь записи",
+          content = @Content(schema = @Schema(implementation = OrderIngestionStatus.class)))
   @ApiResponse(
           responseCode = "400",
           description = "Некорректные данные")
-  public ResponseEntity<Order> createOrder(
+  @ApiResponse(
+          responseCode = "409",
+          description = "Запрос с этим ключом идемпотентности еще выполняется")
+  @ApiResponse(
+          responseCode = "422",
+          description = "Ключ идемпотентности уже использован с другими данными")
+  @ApiResponse(
+          responseCode = "429",
+          description = "Очередь записи заказов заполнена")
+  public ResponseEntity<Object> createOrder(
           @io.swagger.v3.oas.annotations.parameters.RequestBody(
                   description = "Данные заказа",
                   required = true,
                   content = @Content(schema = @Schema(implementation = Order.class)))
-          @Valid @RequestBody Order order) {
+          @Valid @RequestBody Order order,
+          @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом "
+                  + "возвращает исходный ответ без создания нового заказа")
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey) {
     if (order.getProductIds() == null || order.getProductIds().isEmpty()) {
       throw new ValidationException("Необходимо указать ID продуктов");
     }
-    return ResponseEntity.status(HttpStatus.CREATED)
-            .body(orderService.createOrder(order));
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return submitOrder(order);
+    }
+    if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new ValidationException("Ключ идемпотентности длиннее "
+              + MAX_IDEMPOTENCY_KEY_LENGTH + " символов");
+    }
+
+    return idempotencyCache.execute(idempotencyKey, fingerprint(order),
+            () -> snapshot(submitOrder(order)),
+            response -> response.getStatusCode().is2xxSuccessful());
+  }
+
+  /**
+   * Сериализует тело успешного ответа, пока открыт контекст персистентности,
+   * чтобы сохраненный ответ можно было отдать повторно без ленивых загрузок.
+   */
+  private ResponseEntity<Object> snapshot(ResponseEntity<Object> response) {
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      return response;
+    }
+    return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .body(objectMapper.valueToTree(response.getBody()));
+  }
+
+  private ResponseEntity<Object> submitOrder(Order order) {
+    if (!orderIngestionQueue.isEnabled()) {
+      return ResponseEntity.status(HttpStatus.CREATED)
+              .body(orderService.createOrder(order));
+    }
+
+    return orderIngestionQueue.enqueue(orderService.prepareOrder(order))
+            .<ResponseEntity<Object>>map(status -> ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/ingest/" + status.trackingId()))
+                    .body(status))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Order queue is full"));
+  }
+
+  private static String fingerprint(Order order) {
+    Long accountId = order.getAccount() == null ? null : order.getAccount().getId();
+    return accountId + "|" + order.getOrderDate() + "|" + order.getProductIds();
+  }
+
+  /**
+   * Получает состояние заказа, принятого в очередь записи.
+   *
+   * @param trackingId идентификатор отслеживания
+   * @return ResponseEntity с состоянием заказа
+   */
+  @GetMapping("/ingest/{trackingId}")
+  @Operation(
+          summary = "Состояние заказа в очереди",
+          description = "Возвращает состояние заказа по идентификатору отслеживания")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Состояние получено",
+          content = @Content(schema = @Schema(implementation = OrderIngestionStatus.class)))
+  @ApiResponse(
+          responseCode = "404",
+          description = "Идентификатор неизвестен или устарел")
+  public ResponseEntity<OrderIngestionStatus> getIngestionStatus(
+          @Parameter(description = "Идентификатор отслеживания", required = true)
+          @PathVariable String trackingId) {
+    return orderIngestionQueue.getStatus(trackingId)
+            .map(ResponseEntity::ok)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                    "Tracking id not found: " + trackingId));
+  }
+
+  /**
+   * Получает показатели очереди записи заказов.
+   *
+   * @return Map с глубиной очереди, счетчиками и временем фиксации пачек
+   */
+  @GetMapping("/ingest/stats")
+  @Operation(
+          summary = "Показатели очереди записи заказов",
+          description = "Возвращает глубину очереди, число принятых, отклоненных и записанных "
+                  + "заказов и время фиксации пачек")
+  @ApiResponse(responseCode = "200", description = "Показатели получены")
+  public Map<String, Number> getIngestionStats() {
+    return orderIngestionQueue.stats();
+  }
+
+  /**
+   * Создает несколько заказов одним пакетом.
+   *
+   * @param orders данные заказов
+   * @return ResponseEntity с результатом обработки каждого заказа
+   */
+  @PostMapping("/batch")
+  @Operation(
+          summary = "Создать несколько заказов",
+          description = "Проверяет и создает пакет заказов; ошибка в одном заказе "
+                  + "не отменяет остальные")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Пакет обработан, результат указан для каждого заказа",
+          content = @Content(schema = @Schema(implementation = OrderBatchResult.class)))
+  @ApiResponse(
+          responseCode = "400",
+          description = "Слишком много заказов в пакете")
+  public ResponseEntity<List<OrderBatchResult>> createOrders(
+          @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                  description = "Список заказов",
+                  required = true,
+                  content = @Content(schema = @Schema(implementation = Order.class)))
+          @RequestBody List<Order> orders) {
+    return ResponseEntity.ok(orderService.createOrders(orders));
   }
 
   /**
@@ -135,6 +359,9 @@ public class OrderController {
   @ApiResponse(
           responseCode = "404",
           description = "Заказ не найден")
+  @ApiResponse(
+          responseCode = "409",
+          description = "Заказ изменен параллельно или передана устаревшая версия")
   public ResponseEntity<Order> updateOrder(
           @Parameter(
                   description = "ID заказа",
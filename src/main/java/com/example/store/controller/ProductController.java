@@ -1,7 +1,11 @@
 package com.example.store.controller;
 
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.ProductSummary;
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.exception.ValidationException;
 import com.example.store.model.Product;
+import com.example.store.service.ExportService;
 import com.example.store.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Контроллер для управления продуктами.
@@ -37,19 +42,22 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProductController {
 
   private final ProductService productService;
+  private final ExportService exportService;
 
   /**
    * Получает список продуктов с возможностью фильтрации.
    *
    * @param category категория для фильтрации (опционально)
    * @param price цена для фильтрации (опционально)
+   * @param minPrice минимальная цена включительно (опционально)
+   * @param maxPrice максимальная цена включительно (опционально)
    * @return ResponseEntity со списком продуктов
    * @throws ResourceNotFoundException если продукты не найдены
    */
   @GetMapping
   @Operation(
           summary = "Получить продукты",
-          description = "Возвращает продукты с фильтрацией по категории и/или цене")
+          description = "Возвращает продукты с фильтрацией по категории, цене и диапазону цен")
   @ApiResponse(
           responseCode = "200",
           description = "Успешный запрос",
@@ -65,14 +73,102 @@ public class ProductController {
           @Parameter(
                   description = "Цена продукта",
                   example = "100")
-          @RequestParam(value = "price", required = false) Integer price) {
-    List<Product> products = productService.getProducts(category, price);
+          @RequestParam(value = "price", required = false) Integer price,
+          @Parameter(
+                  description = "Минимальная цена",
+                  example = "50")
+          @RequestParam(value = "minPrice", required = false) Integer minPrice,
+          @Parameter(
+                  description = "Максимальная цена",
+                  example = "500")
+          @RequestParam(value = "maxPrice", required = false) Integer maxPrice) {
+    List<Product> products = productService.getProducts(category, price, minPrice, maxPrice);
     if (products.isEmpty()) {
       throw new ResourceNotFoundException("Не найдено продуктов по заданным критериям");
     }
     return ResponseEntity.ok(products);
   }
 
+  /**
+   * Получает страницу продуктов с keyset-пагинацией.
+   *
+   * @param cursor курсор следующей страницы из предыдущего ответа (опционально)
+   * @param size размер страницы (опционально, не больше {@value CursorPage#MAX_SIZE})
+   * @return ResponseEntity со страницей продуктов и курсором следующей страницы
+   */
+  @GetMapping("/page")
+  @Operation(
+          summary = "Получить продукты постранично",
+          description = "Возвращает страницу продуктов и курсор следующей страницы")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Некорректный курсор")
+  public ResponseEntity<CursorPage<Product>> getProductsPage(
+          @Parameter(description = "Курсор следующей страницы")
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @Parameter(description = "Размер страницы", example = "50")
+          @RequestParam(value = "size", required = false) Integer size) {
+    return ResponseEntity.ok(productService.getProductsPage(cursor, size));
+  }
+
+  /**
+   * Получает облегченные представления продуктов без связанных аккаунтов и заказов.
+   *
+   * @param category категория для фильтрации (опционально)
+   * @param price цена для фильтрации (опционально)
+   * @param minPrice минимальная цена включительно (опционально)
+   * @param maxPrice максимальная цена включительно (опционально)
+   * @return ResponseEntity со списком представлений продуктов
+   */
+  @GetMapping("/summary")
+  @Operation(
+          summary = "Получить краткие данные продуктов",
+          description = "Возвращает поля продуктов и ID владельца без загрузки связей")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Успешный запрос")
+  public ResponseEntity<List<ProductSummary>> getProductSummaries(
+          @Parameter(description = "Категория продукта", example = "electronics")
+          @RequestParam(value = "category", required = false) String category,
+          @Parameter(description = "Цена продукта", example = "100")
+          @RequestParam(value = "price", required = false) Integer price,
+          @Parameter(description = "Минимальная цена", example = "50")
+          @RequestParam(value = "minPrice", required = false) Integer minPrice,
+          @Parameter(description = "Максимальная цена", example = "500")
+          @RequestParam(value = "maxPrice", required = false) Integer maxPrice) {
+    return ResponseEntity.ok(
+            productService.getProductSummaries(category, price, minPrice, maxPrice));
+  }
+
+  /**
+   * Потоково выгружает все продукты без загрузки их в память целиком.
+   *
+   * @param format формат выгрузки: json (массив) или ndjson (объект на строку)
+   * @return ResponseEntity с потоковым телом ответа
+   * @throws ValidationException если формат не поддерживается
+   */
+  @GetMapping("/export")
+  @Operation(
+          summary = "Выгрузить все продукты",
+          description = "Потоково выгружает все продукты в виде JSON-массива или NDJSON")
+  @ApiResponse(
+          responseCode = "200",
+          description = "Выгрузка начата")
+  @ApiResponse(
+          responseCode = "400",
+          description = "Неподдерживаемый формат")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+          @Parameter(description = "Формат выгрузки: json или ndjson", example = "ndjson")
+          @RequestParam(value = "format", defaultValue = "json") String format) {
+    ExportService.Format exportFormat = ExportService.Format.parse(format);
+    return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .body(out -> exportService.exportProducts(exportFormat, out));
+  }
+
   /**
    * Получает продукт по идентификатору.
    *
@@ -149,6 +245,9 @@ public class ProductController {
   @ApiResponse(
           responseCode = "404",
           description = "Продукт не найден")
+  @ApiResponse(
+          responseCode = "409",
+          description = "Продукт изменен параллельно или передана устаревшая версия")
   public ResponseEntity<Product> updateProduct(
           @Parameter(
                   description = "ID продукта",
@@ -156,14 +255,14 @@ public class ProductController {
                   required = true)
           @PathVariable Long id,
           @Valid @RequestBody Product product) {
-    product.setId(id);
-    return ResponseEntity.ok(productService.saveProduct(product));
+    return ResponseEntity.ok(productService.updateProduct(id, product));
   }
 
   /**
    * Удаляет продукт по идентификатору.
    *
    * @param id идентификатор удаляемого продукта
+   * @param async пометить удаленным и очистить связанные данные в фоне
    * @return ResponseEntity без содержимого
    */
   @DeleteMapping("/{id}")
@@ -173,6 +272,9 @@ public class ProductController {
   @ApiResponse(
           responseCode = "204",
           description = "Продукт удален")
+  @ApiResponse(
+          responseCode = "202",
+          description = "Продукт помечен удаленным, данные будут очищены в фоне")
   @ApiResponse(
           responseCode = "404",
           description = "Продукт не найден")
@@ -181,7 +283,13 @@ public class ProductController {
                   description = "ID продукта",
                   example = "1",
                   required = true)
-          @PathVariable Long id) {
+          @PathVariable Long id,
+          @Parameter(description = "Пометить удаленным и очистить связанные данные в фоне")
+          @RequestParam(value = "async", defaultValue = "false") boolean async) {
+    if (async) {
+      productService.softDeleteProduct(id);
+      return ResponseEntity.accepted().build();
+    }
     productService.deleteProduct(id);
     return ResponseEntity.noContent().build();
   }
@@ -213,10 +321,6 @@ public class ProductController {
                   content = @Content(schema = @Schema(implementation = Product.class)))
           @Valid @RequestBody List<Product> products) {
 
-    List<Product> savedProducts = products.stream()
-            .map(productService::saveProduct)
-            .toList();
-
-    return ResponseEntity.status(HttpStatus.CREATED).body(savedProducts);
+    return ResponseEntity.status(HttpStatus.CREATED).body(productService.saveProducts(products));
   }
 }
\ No newline at end of file
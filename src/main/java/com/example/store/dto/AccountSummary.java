@@ -0,0 +1,16 @@
+package com.example.store.dto;
+
+/**
+ * Облегченное представление аккаунта для списков.
+ *
+ * <p>Читается из БД конструктором JPQL без заказов и продуктов аккаунта.
+ *
+ * @param id идентификатор аккаунта
+ * @param nickname никнейм
+ * @param firstName имя
+ * @param lastName фамилия
+ * @param email адрес электронной почты
+ */
+public record AccountSummary(
+        Long id, String nickname, String firstName, String lastName, String email) {
+}
@@ -0,0 +1,103 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результатов keyset-пагинации.
+ *
+ * <p>Курсор — непрозрачная строка, кодирующая ключ последнего элемента страницы;
+ * следующая страница запрашивается строго после этого ключа без OFFSET.
+ *
+ * @param items элементы страницы
+ * @param nextCursor курсор следующей страницы или null, если страница последняя
+ * @param <T> тип элементов
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+  /** Размер страницы по умолчанию. */
+  public static final int DEFAULT_SIZE = 50;
+
+  /** Максимально допустимый размер страницы. */
+  public static final int MAX_SIZE = 500;
+
+  /**
+   * Приводит запрошенный размер страницы к допустимому диапазону.
+   *
+   * @param size запрошенный размер или null
+   * @return размер страницы от 1 до {@link #MAX_SIZE}
+   */
+  public static int clampSize(Integer size) {
+    if (size == null) {
+      return DEFAULT_SIZE;
+    }
+    return Math.max(1, Math.min(size, MAX_SIZE));
+  }
+
+  /**
+   * Кодирует ключ последнего элемента в курсор.
+   *
+   * @param key ключ в текстовом виде
+   * @return курсор
+   */
+  public static String encodeCursor(String key) {
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Декодирует курсор в ключ последнего элемента.
+   *
+   * @param cursor курсор
+   * @return ключ в текстовом виде
+   * @throws ValidationException если курсор поврежден
+   */
+  public static String decodeCursor(String cursor) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Некорректный курсор страницы");
+    }
+  }
+
+  /**
+   * Декодирует курсор, содержащий числовой идентификатор.
+   *
+   * @param cursor курсор или null для первой страницы
+   * @return идентификатор последнего элемента или 0 для первой страницы
+   * @throws ValidationException если курсор поврежден
+   */
+  public static long decodeIdCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(decodeCursor(cursor));
+    } catch (NumberFormatException e) {
+      throw new ValidationException("Некорректный курсор страницы");
+    }
+  }
+
+  /**
+   * Собирает страницу из выборки размером {@code size + 1}.
+   *
+   * <p>Лишний элемент означает наличие следующей страницы и отбрасывается.
+   *
+   * @param fetched выборка из БД
+   * @param size размер страницы
+   * @param keyOf функция получения ключа элемента для курсора
+   * @param <T> тип элементов
+   * @return страница с курсором следующей страницы
+   */
+  public static <T> CursorPage<T> of(List<T> fetched, int size,
+                                     Function<T, String> keyOf) {
+    if (fetched.size() <= size) {
+      return new CursorPage<>(fetched, null);
+    }
+    List<T> items = fetched.subList(0, size);
+    return new CursorPage<>(List.copyOf(items), encodeCursor(keyOf.apply(items.get(size - 1))));
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.store.dto;
+
+/**
+ * Строка лог-файла, разобранная на поля формата Spring Boot.
+ *
+ * @param timestamp метка времени
+ * @param level уровень (INFO, WARN, ERROR и т.д.)
+ * @param thread имя потока
+ * @param logger имя логгера
+ * @param message сообщение
+ * @param offset смещение строки в лог-файле в байтах
+ */
+public record LogEntry(
+        String timestamp, String level, String thread, String logger, String message,
+        long offset) {
+}
@@ -0,0 +1,18 @@
+package com.example.store.dto;
+
+/**
+ * Условия поиска по лог-файлу. Незаданные условия не ограничивают поиск.
+ *
+ * @param from начало интервала времени включительно ({@code yyyy-MM-ddTHH:mm[:ss[.SSS]]})
+ * @param to конец интервала времени не включительно
+ * @param level уровень логирования
+ * @param thread точное имя потока
+ * @param logger часть имени логгера
+ * @param text подстрока сообщения
+ * @param regex регулярное выражение для сообщения
+ * @param limit максимальное количество строк в ответе
+ */
+public record LogSearchQuery(
+        String from, String to, String level, String thread, String logger, String text,
+        String regex, Integer limit) {
+}
@@ -0,0 +1,16 @@
+package com.example.store.dto;
+
+import java.util.List;
+
+/**
+ * Результат поиска по лог-файлу.
+ *
+ * @param entries найденные строки в порядке следования в файле
+ * @param truncated true, если подходящих строк больше лимита
+ * @param scannedBytes сколько байтов лог-файла было просмотрено
+ * @param chunks на сколько частей был разбит просматриваемый диапазон
+ * @param tookMs длительность поиска в миллисекундах
+ */
+public record LogSearchResult(
+        List<LogEntry> entries, boolean truncated, long scannedBytes, int chunks, long tookMs) {
+}
@@ -0,0 +1,34 @@
+package com.example.store.dto;
+
+/**
+ * Результат обработки одного заказа из пакетного запроса.
+ *
+ * @param index позиция заказа в запросе (с нуля)
+ * @param success создан ли заказ
+ * @param orderId идентификатор созданного заказа или null при ошибке
+ * @param error причина отказа или null при успехе
+ */
+public record OrderBatchResult(int index, boolean success, Long orderId, String error) {
+
+  /**
+   * Успешно созданный заказ.
+   *
+   * @param index позиция заказа в запросе
+   * @param orderId идентификатор созданного заказа
+   * @return результат обработки
+   */
+  public static OrderBatchResult created(int index, Long orderId) {
+    return new OrderBatchResult(index, true, orderId, null);
+  }
+
+  /**
+   * Отклоненный заказ.
+   *
+   * @param index позиция заказа в запросе
+   * @param error причина отказа
+   * @return результат обработки
+   */
+  public static OrderBatchResult failed(int index, String error) {
+    return new OrderBatchResult(index, false, null, error);
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.store.dto;
+
+/**
+ * Состояние заказа, принятого в очередь асинхронной записи.
+ *
+ * @param trackingId идентификатор для отслеживания заказа
+ * @param state текущее состояние
+ * @param orderId идентификатор сохраненного заказа или null, пока заказ не записан
+ * @param error причина ошибки записи или null
+ */
+public record OrderIngestionStatus(String trackingId, State state, Long orderId, String error) {
+
+  /**
+   * Состояние обработки заказа.
+   */
+  public enum State {
+    /** Заказ ожидает записи в очереди. */
+    QUEUED,
+    /** Заказ записан в БД. */
+    COMMITTED,
+    /** Заказ не удалось записать. */
+    FAILED
+  }
+
+  /**
+   * Заказ принят в очередь.
+   *
+   * @param trackingId идентификатор для отслеживания
+   * @return состояние заказа
+   */
+  public static OrderIngestionStatus queued(String trackingId) {
+    return new OrderIngestionStatus(trackingId, State.QUEUED, null, null);
+  }
+
+  /**
+   * Заказ записан в БД.
+   *
+   * @param trackingId идентификатор для отслеживания
+   * @param orderId идентификатор сохраненного заказа
+   * @return состояние заказа
+   */
+  public static OrderIngestionStatus committed(String trackingId, Long orderId) {
+    return new OrderIngestionStatus(trackingId, State.COMMITTED, orderId, null);
+  }
+
+  /**
+   * Заказ не удалось записать.
+   *
+   * @param trackingId идентификатор для отслеживания
+   * @param error причина ошибки
+   * @return состояние заказа
+   */
+  public static OrderIngestionStatus failed(String trackingId, String error) {
+    return new OrderIngestionStatus(trackingId, State.FAILED, null, error);
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.store.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегченное представление заказа для списков.
+ *
+ * <p>Читается из БД конструктором JPQL, поэтому не загружает аккаунт и продукты
+ * заказа и не попадает в контекст персистентности.
+ *
+ * @param id идентификатор заказа
+ * @param orderDate дата оформления заказа
+ * @param totalPrice общая стоимость заказа
+ * @param accountId идентификатор аккаунта
+ */
+public record OrderSummary(Long id, LocalDateTime orderDate, double totalPrice, Long accountId) {
+}
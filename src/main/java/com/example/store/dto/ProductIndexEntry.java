@@ -0,0 +1,11 @@
+package com.example.store.dto;
+
+/**
+ * Минимальный набор полей продукта для построения индексов в памяти.
+ *
+ * @param id идентификатор продукта
+ * @param category категория продукта
+ * @param price цена продукта
+ */
+public record ProductIndexEntry(Long id, String category, int price) {
+}
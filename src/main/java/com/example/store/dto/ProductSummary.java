@@ -0,0 +1,16 @@
+package com.example.store.dto;
+
+/**
+ * Облегченное представление продукта для списков.
+ *
+ * <p>Читается из БД конструктором JPQL, поэтому не загружает связанный аккаунт
+ * и заказы и не попадает в контекст персистентности.
+ *
+ * @param id идентификатор продукта
+ * @param name название продукта
+ * @param price цена продукта
+ * @param category категория продукта
+ * @param accountId идентификатор аккаунта-владельца или null
+ */
+public record ProductSummary(Long id, String name, int price, String category, Long accountId) {
+}
@@ -10,6 +10,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 
 
 /**
@@ -64,6 +65,25 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
   }
 
+  /**
+   * Обрабатывает исключения с явно заданным HTTP-статусом.
+   *
+   * <p>Ошибки клиента (4xx) — ожидаемый исход запроса, поэтому пишутся с уровнем WARN;
+   * уровень ERROR остается только для ошибок сервера (5xx).
+   *
+   * @param ex исключение ResponseStatusException
+   * @return ResponseEntity с причиной ошибки и статусом из исключения
+   */
+  @ExceptionHandler(ResponseStatusException.class)
+  public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+    if (ex.getStatusCode().is5xxServerError()) {
+      logger.error("Ошибка запроса ({}): {}", ex.getStatusCode(), ex.getReason());
+    } else {
+      logger.warn("Ошибка запроса ({}): {}", ex.getStatusCode(), ex.getReason());
+    }
+    return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
+  }
+
   /**
    * Обрабатывает все неперехваченные исключения.
    *
@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -20,6 +21,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * Сущность, представляющая аккаунт пользователя.
@@ -27,6 +30,7 @@ import lombok.Setter;
  */
 @Entity
 @Table(name = "accounts")
+@SQLRestriction("deleted = false")
 @Getter
 @Setter
 @Builder
@@ -38,6 +42,15 @@ public class Account {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  /**
+   * Версия записи для оптимистической блокировки.
+   * Увеличивается при каждом обновлении; обновление устаревшей версии отклоняется.
+   */
+  @Version
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private Long version;
+
   @Column(unique = true, nullable = false)
   @NotBlank(message = "Nickname is required")
   @Size(max = 50, message = "Nickname must be less than 50 characters")
@@ -66,4 +79,14 @@ public class Account {
   @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   @JsonIgnore
   private List<Product> products;
+
+  /**
+   * Признак мягкого удаления. Заказы и продукты удаленного аккаунта скрыты
+   * от запросов и физически удаляются фоновой очисткой.
+   */
+  @Column(nullable = false)
+  @ColumnDefault("false")
+  @JsonIgnore
+  @Builder.Default
+  private boolean deleted = false;
 }
\ No newline at end of file
@@ -11,16 +11,25 @@ import java.time.LocalDateTime;
  *   <li>Дате, для которой генерируются логи
  *   <li>Пути к сгенерированному файлу
  *   <li>Сообщении об ошибке (если есть)
- *   <li>Времени создания задачи
+ *   <li>Времени создания, запуска и завершения задачи
+ *   <li>Прогрессе: сколько байтов просмотрено и сколько строк найдено
  * </ul>
+ *
+ * <p>Задачу обновляет один рабочий поток, а читают потоки HTTP-запросов,
+ * поэтому изменяемые поля объявлены volatile.
  */
 public class LogTask {
   private final String id;
-  private String status;
+  private volatile String status;
   private final String date;
-  private String filePath;
-  private String errorMessage;
+  private volatile String filePath;
+  private volatile String errorMessage;
   private final LocalDateTime createdAt;
+  private volatile LocalDateTime startedAt;
+  private volatile LocalDateTime finishedAt;
+  private volatile long bytesTotal;
+  private volatile long bytesScanned;
+  private volatile long linesMatched;
 
   /**
    * Создает новую задачу генерации лог-файла.
@@ -93,4 +102,68 @@ public class LogTask {
   public LocalDateTime getCreatedAt() {
     return createdAt;
   }
+
+  /** Возвращает время запуска задачи или null, если задача еще в очереди. */
+  public LocalDateTime getStartedAt() {
+    return startedAt;
+  }
+
+  /**
+   * Устанавливает время запуска задачи.
+   *
+   * @param startedAt время запуска
+   */
+  public void setStartedAt(LocalDateTime startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  /** Возвращает время завершения задачи или null, если задача не завершена. */
+  public LocalDateTime getFinishedAt() {
+    return finishedAt;
+  }
+
+  /**
+   * Устанавливает время завершения задачи.
+   *
+   * @param finishedAt время завершения
+   */
+  public void setFinishedAt(LocalDateTime finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  /** Возвращает общий объем данных для просмотра в байтах. */
+  public long getBytesTotal() {
+    return bytesTotal;
+  }
+
+  /**
+   * Устанавливает общий объем данных для просмотра.
+   *
+   * @param bytesTotal объем в байтах
+   */
+  public void setBytesTotal(long bytesTotal) {
+    this.bytesTotal = bytesTotal;
+  }
+
+  /** Возвращает количество просмотренных байтов. */
+  public long getBytesScanned() {
+    return bytesScanned;
+  }
+
+  /** Возвращает количество найденных строк. */
+  public long getLinesMatched() {
+    return linesMatched;
+  }
+
+  /**
+   * Учитывает очередную обработанную часть данных.
+   *
+   * @param bytes количество просмотренных байтов
+   * @param lines количество найденных строк
+   */
+  public void addProgress(long bytes, long lines) {
+    // Прогресс обновляет только рабочий поток задачи
+    this.bytesScanned += bytes;
+    this.linesMatched += lines;
+  }
 }
\ No newline at end of file
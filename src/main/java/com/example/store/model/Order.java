@@ -4,35 +4,47 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * Сущность заказа в системе.
  * Содержит информацию о дате заказа, общей стоимости, связанном аккаунте и продуктах.
+ *
+ * <p>Заказы мягко удаленных аккаунтов скрыты от запросов до фоновой очистки.
  */
 @Entity
-@Table(name = "orders")
+@Table(
+        name = "orders",
+        indexes = @Index(name = "idx_orders_order_date_id", columnList = "orderDate, id"))
+@SQLRestriction("account_id IN (SELECT acc.id FROM accounts acc WHERE acc.deleted = false)")
 @Getter
 @Setter
 @Builder
@@ -44,6 +56,15 @@ public class Order {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  /**
+   * Версия записи для оптимистической блокировки.
+   * Увеличивается при каждом обновлении; обновление устаревшей версии отклоняется.
+   */
+  @Version
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private Long version;
+
   /**
    * Дата и время оформления заказа.
    * Не может быть null.
@@ -54,7 +75,7 @@ public class Order {
 
   /**
    * Общая стоимость заказа.
-   * Должна быть положительной или нулевой.
+   * Вычисляется сервером по ценам продуктов при оформлении заказа.
    */
   @Column(nullable = false)
   @PositiveOrZero(message = "Общая стоимость должна быть положительной или нулевой")
@@ -73,10 +94,10 @@ public class Order {
   /**
    * Список продуктов в заказе.
    * Связь многие-ко-многим с промежуточной таблицей.
+   * Заказ только ссылается на существующие продукты и не сохраняет их каскадом,
+   * поэтому в список можно класть экземпляры из кэша продуктов.
    */
-  @ManyToMany(
-          cascade = {CascadeType.PERSIST, CascadeType.MERGE},
-          fetch = FetchType.LAZY)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(
           name = "order_product",
           joinColumns = @JoinColumn(name = "order_id"),
@@ -84,6 +105,16 @@ public class Order {
   @JsonIgnoreProperties({"orders", "account"})
   private List<Product> products;
 
+  /**
+   * Цены продуктов на момент оформления заказа (ID продукта → цена за единицу).
+   * Заполняется сервером, чтобы отчеты не зависели от текущих цен продуктов.
+   */
+  @ElementCollection
+  @CollectionTable(name = "order_item_prices", joinColumns = @JoinColumn(name = "order_id"))
+  @MapKeyColumn(name = "product_id")
+  @Column(name = "unit_price", nullable = false)
+  private Map<Long, Integer> unitPrices;
+
   /**
    * Временное поле для передачи ID продуктов.
    * Не сохраняется в базе данных.
@@ -1,5 +1,6 @@
 package com.example.store.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,6 +11,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
@@ -19,6 +21,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * Сущность товара в системе.
@@ -27,6 +31,8 @@ import lombok.Setter;
  */
 @Entity
 @Table(name = "products")
+@SQLRestriction("deleted = false")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
 @Builder
@@ -41,6 +47,15 @@ public class Product {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  /**
+   * Версия записи для оптимистической блокировки.
+   * Увеличивается при каждом обновлении; обновление устаревшей версии отклоняется.
+   */
+  @Version
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private Long version;
+
   /**
    * Название товара.
    * Не может быть пустым, максимальная длина - 255 символов.
@@ -78,9 +93,19 @@ public class Product {
 
   /**
    * Список заказов, содержащих данный товар.
-   * Игнорируются поля account и products при сериализации.
+   * Игнорируются поля account, products и unitPrices при сериализации.
    */
   @ManyToMany(mappedBy = "products")
-  @JsonIgnoreProperties({"account", "products"})
+  @JsonIgnoreProperties({"account", "products", "unitPrices"})
   private List<Order> orders;
+
+  /**
+   * Признак мягкого удаления. Удаленные продукты скрыты от всех запросов
+   * и физически удаляются фоновой очисткой вместе со связями с заказами.
+   */
+  @Column(nullable = false)
+  @ColumnDefault("false")
+  @JsonIgnore
+  @Builder.Default
+  private boolean deleted = false;
 }
\ No newline at end of file
@@ -1,8 +1,19 @@
 package com.example.store.repository;
 
+import com.example.store.dto.AccountSummary;
 import com.example.store.model.Account;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Репозиторий для управления сущностями {@link Account}.
@@ -10,6 +21,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
+  /**
+   * Получить все аккаунты вместе с заказами одним запросом.
+   *
+   * <p>Продукты заказов догружаются пачками ({@code hibernate.default_batch_fetch_size}),
+   * так как Hibernate не позволяет одновременно fetch-join две коллекции-списка.
+   *
+   * @return список всех аккаунтов
+   */
+  @Override
+  @EntityGraph(attributePaths = "orders")
+  List<Account> findAll();
+
   /**
    * Найти аккаунт по никнейму.
    *
@@ -17,4 +40,69 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
    * @return Optional, содержащий аккаунт, если он найден
    */
   Optional<Account> findByNickname(String nickname);
+
+  /**
+   * Получить страницу аккаунтов после указанного ID (keyset-пагинация по первичному ключу).
+   *
+   * @param id идентификатор последнего аккаунта предыдущей страницы
+   * @param limit максимальное количество аккаунтов
+   * @return аккаунты с ID больше указанного, по возрастанию ID
+   */
+  List<Account> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Прочитать страницу аккаунтов для выгрузки (keyset-пагинация по первичному ключу).
+   *
+   * <p>Сущности загружаются в режиме только для чтения. Страница читается
+   * целиком, поэтому при сериализации связи можно догружать тем же соединением.
+   *
+   * @param id идентификатор последней сущности предыдущей страницы
+   * @param limit размер страницы
+   * @return аккаунты с ID больше указанного, по возрастанию ID
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT a FROM Account a WHERE a.id > :id ORDER BY a.id")
+  List<Account> findExportPage(@Param("id") Long id, Limit limit);
+
+  /**
+   * Получить облегченные представления всех аккаунтов.
+   *
+   * @return список представлений аккаунтов, упорядоченных по ID
+   */
+  @Query("SELECT new com.example.store.dto.AccountSummary("
+          + "a.id, a.nickname, a.firstName, a.lastName, a.email) FROM Account a ORDER BY a.id")
+  List<AccountSummary> findSummaries();
+
+  /**
+   * Удалить аккаунт одним запросом без загрузки сущности.
+   *
+   * <p>Заказы и продукты аккаунта должны быть удалены заранее.
+   *
+   * @param id идентификатор аккаунта
+   * @return количество удаленных аккаунтов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM Account a WHERE a.id = :id")
+  int deleteAccountById(@Param("id") Long id);
+
+  /**
+   * Пометить аккаунт удаленным. Заказы, продукты и сам аккаунт удаляются позже
+   * фоновой очисткой.
+   *
+   * @param id идентификатор аккаунта
+   * @return количество помеченных аккаунтов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "UPDATE accounts SET deleted = true WHERE id = :id AND deleted = false",
+          nativeQuery = true)
+  int softDeleteById(@Param("id") Long id);
+
+  /**
+   * Выбрать из переданных идентификаторов те, для которых существуют аккаунты.
+   *
+   * @param ids проверяемые идентификаторы
+   * @return идентификаторы существующих аккаунтов
+   */
+  @Query("SELECT a.id FROM Account a WHERE a.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.example.store.repository;
+
+import com.example.store.model.Order;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Репозиторий для массовой вставки заказов через JDBC batch.
+ *
+ * <p>Заказы вставляются пачками заданного размера, каждая пачка — в отдельной
+ * транзакции: сначала строки {@code orders} с чтением сгенерированных ключей,
+ * затем связи {@code order_product} и цены позиций {@code order_item_prices}.
+ * Аккаунт, продукты, цены и общая стоимость должны быть уже проверены и заполнены.
+ */
+@Slf4j
+@Repository
+public class OrderBulkRepository {
+
+  private static final String INSERT_ORDER_SQL =
+          "INSERT INTO orders (order_date, total_price, account_id) VALUES (?, ?, ?)";
+  private static final String INSERT_PRODUCT_SQL =
+          "INSERT INTO order_product (order_id, product_id) VALUES (?, ?)";
+  private static final String INSERT_PRICE_SQL =
+          "INSERT INTO order_item_prices (order_id, product_id, unit_price) VALUES (?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+
+  /**
+   * Создает репозиторий массовой вставки заказов.
+   *
+   * @param jdbcTemplate шаблон JDBC
+   * @param transactionTemplate шаблон транзакций
+   * @param batchSize количество заказов в одной пачке и транзакции
+   */
+  public OrderBulkRepository(
+          JdbcTemplate jdbcTemplate,
+          TransactionTemplate transactionTemplate,
+          @Value("${store.orders.bulk.batch-size:1000}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Вставляет новые заказы пачками и проставляет им сгенерированные идентификаторы.
+   *
+   * @param orders заказы для вставки
+   * @return те же заказы с заполненными идентификаторами
+   */
+  public List<Order> insertAll(List<Order> orders) {
+    for (int from = 0; from < orders.size(); from += batchSize) {
+      List<Order> chunk = orders.subList(from, Math.min(from + batchSize, orders.size()));
+      transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+    }
+    log.debug("Inserted {} orders in batches of {}", orders.size(), batchSize);
+    return orders;
+  }
+
+  /**
+   * Получатель результатов вставки отдельных заказов.
+   */
+  public interface ItemListener {
+
+    /**
+     * Заказ вставлен и его транзакция зафиксирована.
+     *
+     * @param order заказ с заполненным идентификатором
+     */
+    void committed(Order order);
+
+    /**
+     * Заказ не удалось вставить.
+     *
+     * @param order заказ
+     * @param error причина ошибки
+     */
+    void failed(Order order, RuntimeException error);
+  }
+
+  /**
+   * Вставляет новые заказы пачками и сообщает результат по каждому заказу.
+   *
+   * <p>Если пачка не вставилась (например, аккаунт удалили параллельно или
+   * транзакция попала в deadlock), ее заказы повторяются по одному, чтобы
+   * ошибочная строка не отклоняла остальные. Уже зафиксированные пачки не
+   * откатываются.
+   *
+   * @param orders заказы для вставки
+   * @param listener получатель результатов по каждому заказу
+   */
+  public void insertAll(List<Order> orders, ItemListener listener) {
+    for (int from = 0; from < orders.size(); from += batchSize) {
+      List<Order> chunk = orders.subList(from, Math.min(from + batchSize, orders.size()));
+      try {
+        transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+        chunk.forEach(listener::committed);
+      } catch (RuntimeException e) {
+        log.warn("Bulk order chunk of {} failed, retrying one by one: {}",
+                chunk.size(), e.getMessage());
+        for (Order order : chunk) {
+          order.setId(null);
+          try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(List.of(order)));
+            listener.committed(order);
+          } catch (RuntimeException itemError) {
+            order.setId(null);
+            listener.failed(order, itemError);
+          }
+        }
+      }
+    }
+  }
+
+  private void insertChunk(List<Order> chunk) {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement statement =
+                   connection.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        for (Order order : chunk) {
+          statement.setObject(1, order.getOrderDate());
+          statement.setDouble(2, order.getTotalPrice());
+          statement.setLong(3, order.getAccount().getId());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          for (Order order : chunk) {
+            if (!keys.next()) {
+              throw new IllegalStateException("Generated key missing for bulk order insert");
+            }
+            order.setId(keys.getLong(1));
+          }
+        }
+      }
+      return null;
+    });
+
+    List<Object[]> products = new ArrayList<>();
+    List<Object[]> prices = new ArrayList<>();
+    for (Order order : chunk) {
+      for (Long productId : order.getProductIds()) {
+        products.add(new Object[] {order.getId(), productId});
+      }
+      for (Map.Entry<Long, Integer> price : order.getUnitPrices().entrySet()) {
+        prices.add(new Object[] {order.getId(), price.getKey(), price.getValue()});
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, products);
+    jdbcTemplate.batchUpdate(INSERT_PRICE_SQL, prices);
+  }
+}
\ No newline at end of file
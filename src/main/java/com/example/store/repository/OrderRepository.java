@@ -1,24 +1,46 @@
 package com.example.store.repository;
 
+import com.example.store.dto.OrderSummary;
 import com.example.store.model.Order;
 import com.example.store.model.Product;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Репозиторий для управления сущностями {@link Order}.
  *
  * <p>Предоставляет методы для выполнения операций с заказами в базе данных.
+ * Запросы списков загружают аккаунт и продукты заказов через entity graph;
+ * коллекции остальных запросов догружаются пачками
+ * ({@code hibernate.default_batch_fetch_size}).
  */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+  /**
+   * Получить все заказы вместе с аккаунтами и продуктами одним запросом.
+   *
+   * @return список всех заказов
+   */
+  @Override
+  @EntityGraph(attributePaths = {"account", "products", "products.account"})
+  List<Order> findAll();
+
   /**
    * Найти заказы по ID аккаунта.
    *
    * @param accountId идентификатор аккаунта
    * @return список заказов для указанного аккаунта
    */
+  @EntityGraph(attributePaths = {"account", "products", "products.account"})
   List<Order> findByAccountId(Long accountId);
 
   /**
@@ -35,6 +57,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    * @param category категория продукта
    * @return список заказов, содержащих продукты указанной категории
    */
+  @EntityGraph(attributePaths = {"account", "products", "products.account"})
   @Query("SELECT o FROM Order o JOIN o.products p WHERE p.category = :category")
   List<Order> findOrdersByProductCategoryJpql(String category);
 
@@ -51,7 +74,75 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                   JOIN order_product op ON o.id = op.order_id
                   JOIN products p ON op.product_id = p.id
                   WHERE p.price = :price
+                    AND p.deleted = false
+                    AND o.account_id IN (SELECT acc.id FROM accounts acc WHERE acc.deleted = false)
                   """,
           nativeQuery = true)
   List<Order> findOrdersByProductPriceNative(Integer price);
+
+  /**
+   * Получить первую страницу заказов, упорядоченных по дате и ID.
+   *
+   * @param limit максимальное количество заказов
+   * @return заказы по возрастанию (orderDate, id)
+   */
+  List<Order> findAllByOrderByOrderDateAscIdAsc(Limit limit);
+
+  /**
+   * Получить страницу заказов после указанной пары (дата, ID) (keyset-пагинация).
+   *
+   * @param orderDate дата последнего заказа предыдущей страницы
+   * @param id идентификатор последнего заказа предыдущей страницы
+   * @param limit максимальное количество заказов
+   * @return заказы строго после указанного ключа по возрастанию (orderDate, id)
+   */
+  @Query("""
+          SELECT o FROM Order o
+          WHERE o.orderDate > :orderDate OR (o.orderDate = :orderDate AND o.id > :id)
+          ORDER BY o.orderDate, o.id
+          """)
+  List<Order> findPageAfter(@Param("orderDate") LocalDateTime orderDate,
+                            @Param("id") Long id,
+                            Limit limit);
+
+  /**
+   * Прочитать страницу заказов для выгрузки (keyset-пагинация по первичному ключу).
+   *
+   * <p>Сущности загружаются в режиме только для чтения. Страница читается
+   * целиком, поэтому при сериализации связи можно догружать тем же соединением.
+   *
+   * @param id идентификатор последней сущности предыдущей страницы
+   * @param limit размер страницы
+   * @return заказы с ID больше указанного, по возрастанию ID
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT o FROM Order o JOIN FETCH o.account WHERE o.id > :id ORDER BY o.id")
+  List<Order> findExportPage(@Param("id") Long id, Limit limit);
+
+  /**
+   * Получить облегченные представления заказов, при необходимости одного аккаунта.
+   *
+   * @param accountId идентификатор аккаунта или null для всех заказов
+   * @return список представлений заказов, упорядоченных по ID
+   */
+  @Query("""
+          SELECT new com.example.store.dto.OrderSummary(
+              o.id, o.orderDate, o.totalPrice, o.account.id)
+          FROM Order o
+          WHERE (:accountId IS NULL OR o.account.id = :accountId)
+          ORDER BY o.id
+          """)
+  List<OrderSummary> findSummaries(@Param("accountId") Long accountId);
+
+  /**
+   * Удалить все заказы аккаунта без загрузки сущностей.
+   *
+   * <p>Вместе с заказами Hibernate удаляет их строки из таблицы {@code order_product}.
+   *
+   * @param accountId идентификатор аккаунта
+   * @return количество удаленных заказов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM Order o WHERE o.account.id = :accountId")
+  int deleteOrdersByAccountId(@Param("accountId") Long accountId);
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.store.repository;
+
+import com.example.store.model.Product;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Репозиторий для массовой вставки продуктов через JDBC batch.
+ *
+ * <p>Продукты вставляются пачками заданного размера, каждая пачка — в отдельной
+ * транзакции. Идентификаторы, выданные AUTO_INCREMENT, читаются из сгенерированных
+ * ключей и проставляются в переданные объекты. Если пачка не вставилась, предыдущие
+ * пачки остаются в БД, поэтому о каждой зафиксированной пачке сообщается сразу.
+ */
+@Slf4j
+@Repository
+public class ProductBulkRepository {
+
+  private static final String INSERT_SQL =
+          "INSERT INTO products (name, price, category, account_id, version, deleted) "
+          + "VALUES (?, ?, ?, ?, 0, false)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+
+  /**
+   * Создает репозиторий массовой вставки.
+   *
+   * @param jdbcTemplate шаблон JDBC
+   * @param transactionTemplate шаблон транзакций
+   * @param batchSize количество продуктов в одной пачке и транзакции
+   */
+  public ProductBulkRepository(
+          JdbcTemplate jdbcTemplate,
+          TransactionTemplate transactionTemplate,
+          @Value("${store.products.bulk.batch-size:1000}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Вставляет новые продукты пачками и проставляет им сгенерированные идентификаторы.
+   *
+   * @param products продукты для вставки
+   * @param committed вызывается с продуктами каждой пачки после фиксации ее транзакции
+   * @return те же продукты с заполненными идентификаторами
+   */
+  public List<Product> insertAll(List<Product> products, Consumer<List<Product>> committed) {
+    for (int from = 0; from < products.size(); from += batchSize) {
+      List<Product> chunk = products.subList(from, Math.min(from + batchSize, products.size()));
+      transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+      committed.accept(chunk);
+    }
+    log.debug("Inserted {} products in batches of {}", products.size(), batchSize);
+    return products;
+  }
+
+  private void insertChunk(List<Product> chunk) {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement statement =
+                   connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        for (Product product : chunk) {
+          statement.setString(1, product.getName());
+          statement.setInt(2, product.getPrice());
+          statement.setString(3, product.getCategory());
+          if (product.getAccount() != null && product.getAccount().getId() != null) {
+            statement.setLong(4, product.getAccount().getId());
+          } else {
+            statement.setNull(4, Types.BIGINT);
+          }
+          statement.addBatch();
+        }
+        statement.executeBatch();
+
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          for (Product product : chunk) {
+            if (!keys.next()) {
+              throw new IllegalStateException("Generated key missing for bulk product insert");
+            }
+            product.setId(keys.getLong(1));
+            product.setVersion(0L);
+          }
+        }
+      }
+      return null;
+    });
+  }
+}
@@ -1,23 +1,46 @@
 package com.example.store.repository;
 
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.dto.ProductSummary;
 import com.example.store.model.Product;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 /**
  * Репозиторий для управления сущностями {@link Product}.
  * Предоставляет методы для выполнения операций с продуктами в базе данных.
+ *
+ * <p>Запросы списков загружают аккаунт и заказы продуктов через entity graph,
+ * чтобы сериализация ответа не порождала отдельный запрос на каждый продукт.
  */
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+  /**
+   * Получить все продукты вместе с аккаунтами и заказами одним запросом.
+   *
+   * @return список всех продуктов
+   */
+  @Override
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
+  List<Product> findAll();
+
   /**
    * Найти продукты по категории.
    *
    * @param category категория продукта
    * @return список продуктов с указанной категорией
    */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
   List<Product> findByCategory(String category);
 
   /**
@@ -26,6 +49,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
    * @param price цена продукта
    * @return список продуктов с указанной ценой
    */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
   List<Product> findByPrice(Integer price);
 
   /**
@@ -35,7 +59,183 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
    * @param price цена продукта
    * @return список продуктов с указанной категорией и ценой
    */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
   @Query("SELECT p FROM Product p WHERE p.category = :category AND p.price = :price")
   List<Product> findByCategoryAndPrice(@Param("category") String category,
                                        @Param("price") Integer price);
+
+  /**
+   * Найти продукты по необязательным фильтрам категории и диапазона цен.
+   *
+   * @param category категория продукта или null
+   * @param minPrice минимальная цена включительно или null
+   * @param maxPrice максимальная цена включительно или null
+   * @return список продуктов, удовлетворяющих фильтрам
+   */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
+  @Query("""
+          SELECT p FROM Product p
+          WHERE (:category IS NULL OR p.category = :category)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+          """)
+  List<Product> findByFilter(@Param("category") String category,
+                             @Param("minPrice") Integer minPrice,
+                             @Param("maxPrice") Integer maxPrice);
+
+  /**
+   * Получить поля всех продуктов, необходимые для индексов в памяти.
+   *
+   * @return список (id, категория, цена) всех продуктов
+   */
+  @Query("SELECT new com.example.store.dto.ProductIndexEntry(p.id, p.category, p.price) "
+          + "FROM Product p")
+  List<ProductIndexEntry> findAllIndexEntries();
+
+  /**
+   * Найти продукт вместе с аккаунтом и заказами одним запросом.
+   *
+   * <p>Используется для загрузки в кэш вне сессии запроса: все сериализуемые
+   * связи загружены, и ответ не обращается к закрытой сессии.
+   *
+   * @param id идентификатор продукта
+   * @return Optional с продуктом, если найден
+   */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
+  Optional<Product> findWithAssociationsById(Long id);
+
+  /**
+   * Найти продукты по идентификаторам вместе с аккаунтами и заказами одним запросом.
+   *
+   * @param ids идентификаторы продуктов
+   * @return найденные продукты
+   */
+  @EntityGraph(attributePaths = {"account", "orders", "orders.account"})
+  List<Product> findWithAssociationsByIdIn(Collection<Long> ids);
+
+  /**
+   * Получить идентификаторы продуктов меньше указанного, от самых новых
+   * (keyset-пагинация по первичному ключу без подсчета строк).
+   *
+   * @param id идентификатор последнего продукта предыдущей страницы
+   * @param limit максимальное количество идентификаторов
+   * @return идентификаторы продуктов по убыванию
+   */
+  @Query("SELECT p.id FROM Product p WHERE p.id < :id ORDER BY p.id DESC")
+  List<Long> findIdsBefore(@Param("id") Long id, Limit limit);
+
+  /**
+   * Получить страницу продуктов после указанного ID (keyset-пагинация по первичному ключу).
+   *
+   * @param id идентификатор последнего продукта предыдущей страницы
+   * @param limit максимальное количество продуктов
+   * @return продукты с ID больше указанного, по возрастанию ID
+   */
+  List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Прочитать страницу продуктов для выгрузки (keyset-пагинация по первичному ключу).
+   *
+   * <p>Сущности загружаются в режиме только для чтения. Страница читается
+   * целиком, поэтому при сериализации связи можно догружать тем же соединением.
+   *
+   * @param id идентификатор последней сущности предыдущей страницы
+   * @param limit размер страницы
+   * @return продукты с ID больше указанного, по возрастанию ID
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT p FROM Product p LEFT JOIN FETCH p.account WHERE p.id > :id ORDER BY p.id")
+  List<Product> findExportPage(@Param("id") Long id, Limit limit);
+
+  /**
+   * Получить облегченные представления продуктов по необязательным фильтрам.
+   *
+   * @param category категория продукта или null
+   * @param price точная цена или null
+   * @param minPrice минимальная цена включительно или null
+   * @param maxPrice максимальная цена включительно или null
+   * @return список представлений продуктов, упорядоченных по ID
+   */
+  @Query("""
+          SELECT new com.example.store.dto.ProductSummary(
+              p.id, p.name, p.price, p.category, p.account.id)
+          FROM Product p
+          WHERE (:category IS NULL OR p.category = :category)
+            AND (:price IS NULL OR p.price = :price)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+          ORDER BY p.id
+          """)
+  List<ProductSummary> findSummaries(@Param("category") String category,
+                                     @Param("price") Integer price,
+                                     @Param("minPrice") Integer minPrice,
+                                     @Param("maxPrice") Integer maxPrice);
+
+  /**
+   * Получить поля продукта, необходимые для индексов и инвалидации кэшей.
+   *
+   * @param id идентификатор продукта
+   * @return Optional с (id, категория, цена), если продукт существует
+   */
+  @Query("SELECT new com.example.store.dto.ProductIndexEntry(p.id, p.category, p.price) "
+          + "FROM Product p WHERE p.id = :id")
+  Optional<ProductIndexEntry> findIndexEntryById(@Param("id") Long id);
+
+  /**
+   * Удалить продукт без загрузки сущности и его заказов.
+   *
+   * <p>Hibernate выполняет массовое удаление двумя запросами: сначала удаляет
+   * строки продукта из таблицы связей {@code order_product}, затем сам продукт.
+   *
+   * @param id идентификатор продукта
+   * @return количество удаленных продуктов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM Product p WHERE p.id = :id")
+  int deleteProductById(@Param("id") Long id);
+
+  /**
+   * Получить поля индексов всех продуктов аккаунта.
+   *
+   * @param accountId идентификатор аккаунта
+   * @return список (id, категория, цена) продуктов аккаунта
+   */
+  @Query("SELECT new com.example.store.dto.ProductIndexEntry(p.id, p.category, p.price) "
+          + "FROM Product p WHERE p.account.id = :accountId")
+  List<ProductIndexEntry> findIndexEntriesByAccountId(@Param("accountId") Long accountId);
+
+  /**
+   * Удалить все продукты аккаунта без загрузки сущностей.
+   *
+   * <p>Вместе с продуктами Hibernate удаляет их строки из таблицы {@code order_product}.
+   *
+   * @param accountId идентификатор аккаунта
+   * @return количество удаленных продуктов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM Product p WHERE p.account.id = :accountId")
+  int deleteProductsByAccountId(@Param("accountId") Long accountId);
+
+  /**
+   * Пометить продукт удаленным. Строка и связи с заказами удаляются позже
+   * фоновой очисткой.
+   *
+   * @param id идентификатор продукта
+   * @return количество помеченных продуктов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "UPDATE products SET deleted = true WHERE id = :id AND deleted = false",
+          nativeQuery = true)
+  int softDeleteById(@Param("id") Long id);
+
+  /**
+   * Пометить удаленными все продукты аккаунта.
+   *
+   * @param accountId идентификатор аккаунта
+   * @return количество помеченных продуктов
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "UPDATE products SET deleted = true "
+          + "WHERE account_id = :accountId AND deleted = false", nativeQuery = true)
+  int softDeleteByAccountId(@Param("accountId") Long accountId);
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.store.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий физического удаления мягко удаленных продуктов и аккаунтов.
+ *
+ * <p>Все операции работают небольшими пачками, чтобы каждая транзакция держала
+ * блокировки строк {@code order_product} и {@code orders} как можно меньше.
+ * Вызывающий код отвечает за границы транзакций.
+ */
+@Repository
+public class PurgeRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+  /**
+   * Создает репозиторий очистки.
+   *
+   * @param jdbcTemplate шаблон JDBC
+   * @param namedJdbcTemplate шаблон JDBC с именованными параметрами
+   */
+  public PurgeRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = namedJdbcTemplate;
+  }
+
+  /**
+   * Найти помеченные удаленными продукты.
+   *
+   * @param limit максимальное количество идентификаторов
+   * @return идентификаторы продуктов
+   */
+  public List<Long> findDeletedProductIds(int limit) {
+    return jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE deleted = true ORDER BY id LIMIT ?", Long.class, limit);
+  }
+
+  /**
+   * Найти помеченные удаленными аккаунты.
+   *
+   * @param limit максимальное количество идентификаторов
+   * @return идентификаторы аккаунтов
+   */
+  public List<Long> findDeletedAccountIds(int limit) {
+    return jdbcTemplate.queryForList(
+            "SELECT id FROM accounts WHERE deleted = true ORDER BY id LIMIT ?", Long.class, limit);
+  }
+
+  /**
+   * Удалить пачку связей продукта с заказами.
+   *
+   * @param productId идентификатор продукта
+   * @param limit максимальное количество удаляемых связей
+   * @return количество удаленных связей
+   */
+  public int deleteProductLinks(long productId, int limit) {
+    List<Long> orderIds = jdbcTemplate.queryForList(
+            "SELECT order_id FROM order_product WHERE product_id = ? LIMIT ?",
+            Long.class, productId, limit);
+    if (orderIds.isEmpty()) {
+      return 0;
+    }
+    return namedJdbcTemplate.update(
+            "DELETE FROM order_product WHERE product_id = :productId AND order_id IN (:orderIds)",
+            Map.of("productId", productId, "orderIds", orderIds));
+  }
+
+  /**
+   * Удалить пачку заказов аккаунта вместе с их связями с продуктами и ценами позиций.
+   *
+   * @param accountId идентификатор аккаунта
+   * @param limit максимальное количество удаляемых заказов
+   * @return количество удаленных заказов
+   */
+  public int deleteAccountOrders(long accountId, int limit) {
+    List<Long> orderIds = jdbcTemplate.queryForList(
+            "SELECT id FROM orders WHERE account_id = ? LIMIT ?", Long.class, accountId, limit);
+    if (orderIds.isEmpty()) {
+      return 0;
+    }
+    Map<String, List<Long>> params = Map.of("orderIds", orderIds);
+    namedJdbcTemplate.update("DELETE FROM order_product WHERE order_id IN (:orderIds)", params);
+    namedJdbcTemplate.update("DELETE FROM order_item_prices WHERE order_id IN (:orderIds)", params);
+    return namedJdbcTemplate.update("DELETE FROM orders WHERE id IN (:orderIds)", params);
+  }
+
+  /**
+   * Удалить помеченный продукт, если на него больше не ссылаются заказы.
+   *
+   * @param productId идентификатор продукта
+   * @return true, если продукт удален
+   */
+  public boolean deleteProductIfUnreferenced(long productId) {
+    return jdbcTemplate.update("""
+            DELETE FROM products
+            WHERE id = ? AND deleted = true
+              AND NOT EXISTS (SELECT 1 FROM order_product op WHERE op.product_id = ?)
+            """, productId, productId) > 0;
+  }
+
+  /**
+   * Удалить помеченный аккаунт, если у него не осталось заказов и продуктов.
+   *
+   * @param accountId идентификатор аккаунта
+   * @return true, если аккаунт удален
+   */
+  public boolean deleteAccountIfEmpty(long accountId) {
+    return jdbcTemplate.update("""
+            DELETE FROM accounts
+            WHERE id = ? AND deleted = true
+              AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.account_id = ?)
+              AND NOT EXISTS (SELECT 1 FROM products p WHERE p.account_id = ?)
+            """, accountId, accountId, accountId) > 0;
+  }
+}
@@ -1,10 +1,18 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
+import com.example.store.dto.AccountSummary;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.ProductIndexEntry;
 import com.example.store.model.Account;
 import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
 import java.util.List;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,11 +20,17 @@ import org.springframework.transaction.annotation.Transactional;
  * Сервис для управления сущностями {@link Account}.
  * Предоставляет методы для выполнения операций с аккаунтами.
  */
+@Slf4j
 @Service
 @AllArgsConstructor
 public class AccountService {
 
   private final AccountRepository accountRepository;
+  private final OrderRepository orderRepository;
+  private final ProductRepository productRepository;
+  private final ProductService productService;
+  private final NegativeCache negativeCache;
+  private final OptimisticLockRetry optimisticLockRetry;
 
   /**
    * Получить все аккаунты.
@@ -27,6 +41,29 @@ public class AccountService {
     return accountRepository.findAll();
   }
 
+  /**
+   * Получить страницу аккаунтов по курсору (keyset-пагинация по ID).
+   *
+   * @param cursor курсор предыдущей страницы или null для первой страницы
+   * @param size размер страницы (ограничивается {@link CursorPage#MAX_SIZE})
+   * @return страница аккаунтов с курсором следующей страницы
+   */
+  public CursorPage<Account> getAccountsPage(String cursor, Integer size) {
+    int pageSize = CursorPage.clampSize(size);
+    List<Account> fetched = accountRepository.findByIdGreaterThanOrderByIdAsc(
+            CursorPage.decodeIdCursor(cursor), Limit.of(pageSize + 1));
+    return CursorPage.of(fetched, pageSize, account -> String.valueOf(account.getId()));
+  }
+
+  /**
+   * Получить облегченные представления всех аккаунтов без заказов.
+   *
+   * @return список представлений аккаунтов
+   */
+  public List<AccountSummary> getAccountSummaries() {
+    return accountRepository.findSummaries();
+  }
+
   /**
    * Получить аккаунт по ID.
    *
@@ -34,7 +71,15 @@ public class AccountService {
    * @return Optional, содержащий аккаунт, если он найден
    */
   public Optional<Account> getAccountById(Long id) {
-    return accountRepository.findById(id);
+    if (negativeCache.isKnownMissing(NegativeCache.Kind.ACCOUNT, id)) {
+      return Optional.empty();
+    }
+
+    Optional<Account> account = accountRepository.findById(id);
+    if (account.isEmpty()) {
+      negativeCache.markMissing(NegativeCache.Kind.ACCOUNT, id);
+    }
+    return account;
   }
 
   /**
@@ -54,26 +99,62 @@ public class AccountService {
    * @return сохраненный аккаунт
    */
   public Account saveAccount(Account account) {
-    return accountRepository.save(account);
+    Account savedAccount = accountRepository.save(account);
+    negativeCache.invalidate(NegativeCache.Kind.ACCOUNT, savedAccount.getId());
+    return savedAccount;
   }
 
   /**
-   * Удалить аккаунт по ID.
+   * Удалить аккаунт по ID вместе с его заказами и продуктами.
+   *
+   * <p>Удаление выполняется массовыми запросами в одной транзакции: строки
+   * {@code order_product} и заказы аккаунта, затем строки {@code order_product}
+   * и продукты аккаунта, затем сам аккаунт. Сущности не загружаются, поэтому
+   * время удаления не зависит от количества заказов. Кэши инвалидируются после
+   * фиксации транзакции.
    *
    * @param id идентификатор аккаунта
    * @throws RuntimeException если аккаунт не найден
    */
   @Transactional
   public void deleteAccount(Long id) {
-    Account account = accountRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Account not found"));
+    if (!accountRepository.existsById(id)) {
+      throw new RuntimeException("Account not found");
+    }
+
+    long start = System.nanoTime();
+    List<ProductIndexEntry> products = productRepository.findIndexEntriesByAccountId(id);
+    int orders = orderRepository.deleteOrdersByAccountId(id);
+    productRepository.deleteProductsByAccountId(id);
+    accountRepository.deleteAccountById(id);
+
+    productService.evictDeleted(products);
+    AfterCommit.run(() -> negativeCache.markMissing(NegativeCache.Kind.ACCOUNT, id));
+    log.info("Deleted account {} with {} orders and {} products in {} ms",
+            id, orders, products.size(), (System.nanoTime() - start) / 1_000_000);
+  }
 
-    // Каскадное удаление заказов
-    if (account.getOrders() != null) {
-      account.getOrders().clear();
+  /**
+   * Помечает аккаунт и его продукты удаленными и сразу скрывает их из запросов.
+   *
+   * <p>Заказы аккаунта скрываются вместе с ним. Строки удаляются позже фоновой
+   * очисткой ({@link SoftDeletePurger}) небольшими пачками.
+   *
+   * @param id идентификатор аккаунта
+   * @throws RuntimeException если аккаунт не найден
+   */
+  @Transactional
+  public void softDeleteAccount(Long id) {
+    if (!accountRepository.existsById(id)) {
+      throw new RuntimeException("Account not found");
     }
 
-    accountRepository.delete(account); // Удаляем аккаунт
+    List<ProductIndexEntry> products = productRepository.findIndexEntriesByAccountId(id);
+    accountRepository.softDeleteById(id);
+    productRepository.softDeleteByAccountId(id);
+
+    productService.evictDeleted(products);
+    AfterCommit.run(() -> negativeCache.markMissing(NegativeCache.Kind.ACCOUNT, id));
   }
 
   /**
@@ -81,22 +162,30 @@ public class AccountService {
    * Находит аккаунт по ID и обновляет его основные поля (никнейм, имя, фамилию, email).
    * Заказы аккаунта остаются неизменными.
    *
+   * <p>Если аккаунт параллельно изменили, обновление повторяется с новыми данными
+   * ({@link OptimisticLockRetry}); если клиент передал устаревшую версию,
+   * обновление отклоняется.
+   *
    * @param id идентификатор обновляемого аккаунта
    * @param updatedAccount объект с новыми данными аккаунта
    * @return обновленный аккаунт
    * @throws RuntimeException если аккаунт с указанным ID не найден
    */
-  @Transactional
   public Account updateAccount(Long id, Account updatedAccount) {
-    Account existingAccount = accountRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Account not found"));
+    return optimisticLockRetry.execute("account", () -> {
+      Account existingAccount = accountRepository.findById(id)
+              .orElseThrow(() -> new RuntimeException("Account not found"));
+      optimisticLockRetry.checkVersion(
+              "account", updatedAccount.getVersion(), existingAccount.getVersion());
 
-    // Копируем только нужные поля (игнорируем заказы)
-    existingAccount.setNickname(updatedAccount.getNickname());
-    existingAccount.setFirstName(updatedAccount.getFirstName());
-    existingAccount.setLastName(updatedAccount.getLastName());
-    existingAccount.setEmail(updatedAccount.getEmail());
+      // Копируем только нужные поля (игнорируем заказы)
+      existingAccount.setNickname(updatedAccount.getNickname());
+      existingAccount.setFirstName(updatedAccount.getFirstName());
+      existingAccount.setLastName(updatedAccount.getLastName());
+      existingAccount.setEmail(updatedAccount.getEmail());
 
-    return accountRepository.save(existingAccount);
+      accountRepository.flush();
+      return existingAccount;
+    });
   }
 }
\ No newline at end of file
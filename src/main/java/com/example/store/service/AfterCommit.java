@@ -0,0 +1,36 @@
+package com.example.store.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Откладывает действие до фиксации текущей транзакции.
+ *
+ * <p>Используется для инвалидации кэшей после удалений: пока транзакция не
+ * зафиксирована, параллельное чтение еще видит строку и может вернуть ее в кэш,
+ * а при откате удаленная из кэша запись осталась бы потерянной.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  /**
+   * Выполняет действие после фиксации текущей транзакции или сразу, если
+   * транзакции нет. При откате транзакции действие не выполняется.
+   *
+   * @param action действие
+   */
+  static void run(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
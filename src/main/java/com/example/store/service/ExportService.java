@@ -0,0 +1,202 @@
+package com.example.store.service;
+
+import com.example.store.exception.ValidationException;
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Сервис потоковой выгрузки продуктов, заказов и аккаунтов.
+ *
+ * <p>Сущности читаются страницами по первичному ключу (keyset-пагинация) внутри
+ * одной транзакции только для чтения и сразу пишутся в выходной поток как
+ * JSON-массив или NDJSON. Каждая записанная сущность отсоединяется от контекста
+ * персистентности, а после каждой страницы контекст очищается, поэтому потребление
+ * памяти не зависит от объема выгрузки. Страницы читаются обычными запросами, так
+ * что выгрузке не нужен серверный курсор и особые настройки соединений.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+  /**
+   * Формат выгрузки.
+   */
+  public enum Format {
+    /** Один JSON-массив. */
+    JSON(MediaType.APPLICATION_JSON),
+    /** Один JSON-объект на строку. */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    Format(MediaType mediaType) {
+      this.mediaType = mediaType;
+    }
+
+    /**
+     * Тип содержимого ответа для формата.
+     *
+     * @return MIME-тип
+     */
+    public MediaType getMediaType() {
+      return mediaType;
+    }
+
+    /**
+     * Определяет формат по значению параметра запроса.
+     *
+     * @param value значение параметра (json или ndjson)
+     * @return формат выгрузки
+     * @throws ValidationException если формат не поддерживается
+     */
+    public static Format parse(String value) {
+      try {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new ValidationException("Unsupported export format: " + value);
+      }
+    }
+  }
+
+  private final ProductRepository productRepository;
+  private final OrderRepository orderRepository;
+  private final AccountRepository accountRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+  private final ObjectWriter writer;
+  private final int pageSize;
+
+  /**
+   * Создает сервис выгрузки.
+   *
+   * @param productRepository репозиторий продуктов
+   * @param orderRepository репозиторий заказов
+   * @param accountRepository репозиторий аккаунтов
+   * @param entityManager менеджер сущностей
+   * @param transactionManager менеджер транзакций
+   * @param objectMapper сериализатор JSON
+   * @param pageSize количество сущностей в одной странице выгрузки
+   */
+  public ExportService(
+          ProductRepository productRepository,
+          OrderRepository orderRepository,
+          AccountRepository accountRepository,
+          EntityManager entityManager,
+          PlatformTransactionManager transactionManager,
+          ObjectMapper objectMapper,
+          @Value("${store.export.page-size:500}") int pageSize) {
+    this.productRepository = productRepository;
+    this.orderRepository = orderRepository;
+    this.accountRepository = accountRepository;
+    this.entityManager = entityManager;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.pageSize = Math.max(1, pageSize);
+  }
+
+  /**
+   * Выгрузить все продукты.
+   *
+   * @param format формат выгрузки
+   * @param out выходной поток
+   * @return количество выгруженных продуктов
+   */
+  public long exportProducts(Format format, OutputStream out) {
+    return export(format, out, productRepository::findExportPage, Product::getId);
+  }
+
+  /**
+   * Выгрузить все заказы.
+   *
+   * @param format формат выгрузки
+   * @param out выходной поток
+   * @return количество выгруженных заказов
+   */
+  public long exportOrders(Format format, OutputStream out) {
+    return export(format, out, orderRepository::findExportPage, Order::getId);
+  }
+
+  /**
+   * Выгрузить все аккаунты.
+   *
+   * @param format формат выгрузки
+   * @param out выходной поток
+   * @return количество выгруженных аккаунтов
+   */
+  public long exportAccounts(Format format, OutputStream out) {
+    return export(format, out, accountRepository::findExportPage, Account::getId);
+  }
+
+  private <T> long export(Format format, OutputStream out,
+          BiFunction<Long, Limit, List<T>> pageAfter, Function<T, Long> idOf) {
+    long start = System.nanoTime();
+    Long count = readOnlyTransaction.execute(status -> {
+      try (JsonGenerator generator = writer.createGenerator(out)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return write(format, pageAfter, idOf, generator);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    log.info("Exported {} entities as {} in {} ms",
+            count, format, (System.nanoTime() - start) / 1_000_000);
+    return count == null ? 0 : count;
+  }
+
+  private <T> long write(Format format, BiFunction<Long, Limit, List<T>> pageAfter,
+          Function<T, Long> idOf, JsonGenerator generator) throws IOException {
+    long written = 0;
+    if (format == Format.JSON) {
+      generator.writeStartArray();
+    }
+    long lastId = 0;
+    List<T> page;
+    do {
+      page = pageAfter.apply(lastId, Limit.of(pageSize));
+      for (T entity : page) {
+        writer.writeValue(generator, entity);
+        if (format == Format.NDJSON) {
+          generator.writeRaw('\n');
+        }
+        entityManager.detach(entity);
+        written++;
+      }
+      if (!page.isEmpty()) {
+        lastId = idOf.apply(page.get(page.size() - 1));
+        // Связанные сущности, подгруженные при сериализации, тоже не должны копиться
+        entityManager.clear();
+        generator.flush();
+      }
+    } while (page.size() == pageSize);
+    if (format == Format.JSON) {
+      generator.writeEndArray();
+    }
+    generator.flush();
+    return written;
+  }
+}
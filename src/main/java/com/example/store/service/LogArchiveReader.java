@@ -0,0 +1,551 @@
+package com.example.store.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Чтение логов за дату из ротированных gzip-архивов и текущего лог-файла.
+ *
+ * <p>Архивы выбираются по имени вида {@code store.log.2025-05-16.0.gz}, лежащему
+ * рядом с лог-файлом. Каждый источник (архив или диапазоны текущего файла из
+ * {@link LogFileIndex}) читается потоком и разбивается на записи: строка с меткой
+ * времени вместе со строками продолжения. Записи сливаются в порядке меток
+ * времени, поэтому архив никогда не распаковывается целиком ни в память, ни на диск.
+ *
+ * <p>Источники распаковываются параллельно в ограниченном пуле потоков и передают
+ * записи через короткие ограниченные очереди. Если свободных потоков нет,
+ * источник читается прямо в потоке слияния, поэтому число потоков не растет с
+ * количеством запросов и архивов, а слияние не ждет освободившихся потоков.
+ */
+@Slf4j
+@Component
+public class LogArchiveReader {
+
+  /** Длина сравниваемой части метки времени: {@code yyyy-MM-ddTHH:mm:ss.SSS}. */
+  private static final int TIMESTAMP_LENGTH = 23;
+  private static final int DATE_LENGTH = 10;
+  private static final int BATCH_SIZE = 256;
+  private static final int QUEUE_BATCHES = 4;
+  private static final Batch END = new Batch(List.of(), null);
+
+  /**
+   * Получатель прогресса слияния.
+   */
+  @FunctionalInterface
+  public interface Progress {
+
+    /**
+     * Учитывает очередную записанную часть.
+     *
+     * @param bytes количество записанных байтов
+     * @param lines количество записанных строк
+     */
+    void add(long bytes, long lines);
+  }
+
+  private final LogFileIndex logFileIndex;
+  private final Pattern archivePattern;
+  private final int bufferSize;
+  private final ExecutorService executor;
+
+  /**
+   * Создает компонент чтения архивов.
+   *
+   * @param logFileIndex индекс текущего лог-файла
+   * @param bufferSize размер буфера чтения одного архива в байтах
+   * @param threads максимальное количество потоков распаковки на все слияния
+   */
+  public LogArchiveReader(
+          LogFileIndex logFileIndex,
+          @Value("${store.logs.archive.buffer-size:65536}") int bufferSize,
+          @Value("${store.logs.archive.threads:4}") int threads) {
+    this.logFileIndex = logFileIndex;
+    this.archivePattern = Pattern.compile(
+            Pattern.quote(logFileIndex.getLogPath().getFileName().toString())
+                    + "\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.gz");
+    this.bufferSize = bufferSize;
+    // Без очереди: задача либо сразу получает поток, либо отклоняется, и тогда
+    // источник читается в потоке слияния. Простаивающие потоки завершаются.
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(0, Math.max(1, threads), 30, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+              Thread thread = new Thread(runnable, "log-archive-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Находит архивы за дату по именам файлов.
+   *
+   * @param date дата
+   * @return архивы, упорядоченные по номеру части
+   * @throws IOException если каталог логов не удалось прочитать
+   */
+  public List<Path> archivesFor(LocalDate date) throws IOException {
+    Path directory = logFileIndex.getLogPath().toAbsolutePath().getParent();
+    if (directory == null || !Files.isDirectory(directory)) {
+      return List.of();
+    }
+    String day = date.toString();
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+              .filter(file -> {
+                Matcher matcher = archivePattern.matcher(file.getFileName().toString());
+                return matcher.matches() && matcher.group(1).equals(day);
+              })
+              .sorted(Comparator.comparingLong(this::partNumber))
+              .toList();
+    }
+  }
+
+  /**
+   * Оценивает объем распакованных архивов по полю ISIZE в конце gzip-файла.
+   *
+   * @param archives архивы
+   * @return суммарный объем в байтах (по модулю 4 ГБ для каждого архива)
+   */
+  public long uncompressedSize(List<Path> archives) {
+    long total = 0;
+    for (Path archive : archives) {
+      try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+        if (channel.size() >= Integer.BYTES) {
+          ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+          channel.read(trailer, channel.size() - Integer.BYTES);
+          total += Integer.toUnsignedLong(trailer.getInt(0));
+        }
+      } catch (IOException e) {
+        log.debug("Cannot read size of {}: {}", archive, e.getMessage());
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Сливает записи за дату из архивов и диапазонов текущего файла в порядке меток времени.
+   *
+   * @param date дата
+   * @param archives архивы за дату
+   * @param liveRanges диапазоны текущего лог-файла за дату
+   * @param out выходной поток
+   * @param checkpoint вызывается между пачками записей и может прервать слияние исключением
+   * @param progress получатель прогресса
+   * @return количество записанных байтов
+   * @throws IOException если источник не удалось прочитать или поток записать
+   */
+  public long merge(LocalDate date, List<Path> archives, List<LogFileIndex.Range> liveRanges,
+          OutputStream out, Runnable checkpoint, Progress progress) throws IOException {
+    byte[] day = date.toString().getBytes(StandardCharsets.US_ASCII);
+    List<Cursor> cursors = new ArrayList<>();
+    try {
+      for (Path archive : archives) {
+        start(cursors, day, () -> new GZIPInputStream(
+                Files.newInputStream(archive), bufferSize));
+      }
+      if (!liveRanges.isEmpty()) {
+        start(cursors, day, () -> new RangeInputStream(logFileIndex.getLogPath(), liveRanges));
+      }
+      return write(cursors, out, checkpoint, progress);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while merging log archives", e);
+    } finally {
+      for (Cursor cursor : cursors) {
+        cursor.close();
+      }
+    }
+  }
+
+  /**
+   * Останавливает чтение архивов при остановке приложения.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void start(List<Cursor> cursors, byte[] day, SourceOpener opener) {
+    BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+    try {
+      Future<?> producer = executor.submit(() -> produce(opener, day, queue));
+      cursors.add(new QueuedCursor(cursors.size(), queue, producer));
+    } catch (RejectedExecutionException e) {
+      log.debug("No free log archive thread, reading source {} inline", cursors.size());
+      cursors.add(new DirectCursor(cursors.size(), opener, day, bufferSize));
+    }
+  }
+
+  private long write(List<Cursor> cursors, OutputStream out, Runnable checkpoint,
+          Progress progress) throws IOException, InterruptedException {
+    PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, cursors.size()));
+    for (Cursor cursor : cursors) {
+      if (cursor.advance()) {
+        heads.add(cursor);
+      }
+    }
+
+    BufferedOutputStream buffered = new BufferedOutputStream(out, bufferSize);
+    long written = 0;
+    long pendingBytes = 0;
+    long pendingLines = 0;
+    int records = 0;
+    while (!heads.isEmpty()) {
+      Cursor cursor = heads.poll();
+      byte[] record = cursor.current;
+      buffered.write(record);
+      pendingBytes += record.length;
+      pendingLines += countLines(record);
+      if (++records % BATCH_SIZE == 0) {
+        checkpoint.run();
+        progress.add(pendingBytes, pendingLines);
+        written += pendingBytes;
+        pendingBytes = 0;
+        pendingLines = 0;
+      }
+      if (cursor.advance()) {
+        heads.add(cursor);
+      }
+    }
+    buffered.flush();
+    progress.add(pendingBytes, pendingLines);
+    return written + pendingBytes;
+  }
+
+  private void produce(SourceOpener opener, byte[] day, BlockingQueue<Batch> queue) {
+    try {
+      try (InputStream in = opener.open()) {
+        RecordReader reader = new RecordReader(in, bufferSize);
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (byte[] record = reader.next(); record != null; record = reader.next()) {
+          if (Arrays.equals(record, 0, DATE_LENGTH, day, 0, DATE_LENGTH)) {
+            batch.add(record);
+            if (batch.size() == BATCH_SIZE) {
+              queue.put(new Batch(batch, null));
+              batch = new ArrayList<>(BATCH_SIZE);
+            }
+          }
+        }
+        if (!batch.isEmpty()) {
+          queue.put(new Batch(batch, null));
+        }
+      } catch (IOException | RuntimeException e) {
+        queue.put(new Batch(List.of(), e));
+        return;
+      }
+      queue.put(END);
+    } catch (InterruptedException e) {
+      // Слияние завершилось раньше источника
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static long countLines(byte[] record) {
+    long lines = 0;
+    for (byte value : record) {
+      if (value == '\n') {
+        lines++;
+      }
+    }
+    return lines;
+  }
+
+  private long partNumber(Path archive) {
+    Matcher matcher = archivePattern.matcher(archive.getFileName().toString());
+    return matcher.matches() ? Long.parseLong(matcher.group(2)) : Long.MAX_VALUE;
+  }
+
+  @FunctionalInterface
+  private interface SourceOpener {
+    InputStream open() throws IOException;
+  }
+
+  private record Batch(List<byte[]> records, Exception error) {
+  }
+
+  /**
+   * Текущая запись одного источника. Упорядочивается по метке времени записи,
+   * а при равных метках — по порядку источников.
+   */
+  private abstract static class Cursor implements Comparable<Cursor> {
+    private final int source;
+    protected byte[] current;
+
+    protected Cursor(int source) {
+      this.source = source;
+    }
+
+    /**
+     * Переходит к следующей записи источника.
+     *
+     * @return false, если записи закончились
+     */
+    abstract boolean advance() throws IOException, InterruptedException;
+
+    /**
+     * Освобождает источник, даже если он прочитан не до конца.
+     */
+    abstract void close() throws IOException;
+
+    @Override
+    public int compareTo(Cursor other) {
+      int length = Math.min(TIMESTAMP_LENGTH, Math.min(current.length, other.current.length));
+      int result = Arrays.compare(current, 0, length, other.current, 0, length);
+      return result != 0 ? result : Integer.compare(source, other.source);
+    }
+  }
+
+  /**
+   * Источник, распаковываемый в потоке пула и передающий записи через очередь.
+   */
+  private static final class QueuedCursor extends Cursor {
+    private final BlockingQueue<Batch> queue;
+    private final Future<?> producer;
+    private List<byte[]> batch = List.of();
+    private int position;
+
+    private QueuedCursor(int source, BlockingQueue<Batch> queue, Future<?> producer) {
+      super(source);
+      this.queue = queue;
+      this.producer = producer;
+    }
+
+    @Override
+    boolean advance() throws IOException, InterruptedException {
+      while (position == batch.size()) {
+        Batch next = queue.take();
+        if (next.error() != null) {
+          throw new IOException("Failed to read log source: " + next.error().getMessage(),
+                  next.error());
+        }
+        if (next == END) {
+          current = null;
+          return false;
+        }
+        batch = next.records();
+        position = 0;
+      }
+      current = batch.get(position++);
+      return true;
+    }
+
+    @Override
+    void close() {
+      producer.cancel(true);
+    }
+  }
+
+  /**
+   * Источник, читаемый прямо в потоке слияния, когда в пуле нет свободных потоков.
+   */
+  private static final class DirectCursor extends Cursor {
+    private final SourceOpener opener;
+    private final byte[] day;
+    private final int bufferSize;
+    private InputStream in;
+    private RecordReader reader;
+
+    private DirectCursor(int source, SourceOpener opener, byte[] day, int bufferSize) {
+      super(source);
+      this.opener = opener;
+      this.day = day;
+      this.bufferSize = bufferSize;
+    }
+
+    @Override
+    boolean advance() throws IOException {
+      if (reader == null) {
+        in = opener.open();
+        reader = new RecordReader(in, bufferSize);
+      }
+      for (current = reader.next(); current != null; current = reader.next()) {
+        if (Arrays.equals(current, 0, DATE_LENGTH, day, 0, DATE_LENGTH)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    void close() throws IOException {
+      if (in != null) {
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * Разбивает поток на записи: строку с меткой времени и следующие за ней
+   * строки продолжения. Строки продолжения в начале потока пропускаются.
+   */
+  static final class RecordReader {
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private byte[] record = new byte[1024];
+    private int recordLength;
+    private boolean started;
+
+    RecordReader(InputStream in, int bufferSize) {
+      this.in = in;
+      this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Читает следующую запись.
+     *
+     * @return байты записи, заканчивающиеся переводом строки, или null в конце потока
+     * @throws IOException если поток не удалось прочитать
+     */
+    byte[] next() throws IOException {
+      while (true) {
+        int lineStart = recordLength;
+        int lineLength = readLine();
+        if (lineLength < 0) {
+          if (!started) {
+            return null;
+          }
+          started = false;
+          byte[] result = Arrays.copyOf(record, recordLength);
+          recordLength = 0;
+          return result;
+        }
+
+        if (!LogFileIndex.isHourKey(record, lineStart, lineLength)) {
+          if (!started) {
+            recordLength = lineStart;
+          }
+          continue;
+        }
+        if (!started) {
+          started = true;
+          continue;
+        }
+        byte[] result = Arrays.copyOf(record, lineStart);
+        System.arraycopy(record, lineStart, record, 0, lineLength);
+        recordLength = lineLength;
+        return result;
+      }
+    }
+
+    /**
+     * Дописывает следующую строку в буфер записи.
+     *
+     * @return длина строки вместе с переводом строки или -1 в конце потока
+     */
+    private int readLine() throws IOException {
+      int start = recordLength;
+      while (true) {
+        if (position == limit) {
+          limit = in.read(buffer);
+          position = 0;
+          if (limit <= 0) {
+            limit = 0;
+            if (recordLength == start) {
+              return -1;
+            }
+            // Последняя строка без перевода строки
+            append(new byte[] {'\n'}, 0, 1);
+            return recordLength - start;
+          }
+        }
+        int end = position;
+        while (end < limit && buffer[end] != '\n') {
+          end++;
+        }
+        boolean complete = end < limit;
+        append(buffer, position, (complete ? end + 1 : end) - position);
+        position = complete ? end + 1 : end;
+        if (complete) {
+          return recordLength - start;
+        }
+      }
+    }
+
+    private void append(byte[] source, int offset, int length) {
+      if (recordLength + length > record.length) {
+        record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + length));
+      }
+      System.arraycopy(source, offset, record, recordLength, length);
+      recordLength += length;
+    }
+  }
+
+  /**
+   * Последовательно читает диапазоны файла позиционным чтением канала.
+   */
+  private static final class RangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private final List<LogFileIndex.Range> ranges;
+    private int index;
+    private long position;
+
+    private RangeInputStream(Path file, List<LogFileIndex.Range> ranges) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.READ);
+      this.ranges = ranges;
+      this.position = ranges.isEmpty() ? 0 : ranges.get(0).start();
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      while (index < ranges.size() && position >= ranges.get(index).end()) {
+        if (++index < ranges.size()) {
+          position = ranges.get(index).start();
+        }
+      }
+      if (index >= ranges.size()) {
+        return -1;
+      }
+      int size = (int) Math.min(length, ranges.get(index).end() - position);
+      int read = channel.read(ByteBuffer.wrap(bytes, offset, size), position);
+      if (read < 0) {
+        return -1;
+      }
+      position += read;
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
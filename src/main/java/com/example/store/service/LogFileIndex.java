@@ -0,0 +1,471 @@
+package com.example.store.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индекс смещений лог-файла по часам.
+ *
+ * <p>Для каждого часа (ключ вида {@code 2025-05-22T13}) хранит диапазоны байтов,
+ * в которых лежат строки с этим часом вместе с их строками продолжения
+ * (например, стек-трейсами). Индекс достраивается инкрементально: при каждом
+ * обращении просматривается только дописанный с прошлого раза хвост файла, а
+ * состояние сохраняется в файл рядом с логом, поэтому после перезапуска весь
+ * файл заново не сканируется. Если файл стал короче или изменилось его начало
+ * (ротация), индекс строится с нуля.
+ *
+ * <p>Выбранные диапазоны читаются через memory-mapped {@link FileChannel}
+ * без разбора строк и создания объектов на каждую строку.
+ */
+@Slf4j
+@Component
+public class LogFileIndex {
+
+  /** Длина ключа часа: {@code yyyy-MM-ddTHH}. */
+  static final int HOUR_KEY_LENGTH = 13;
+
+  private static final int MAGIC = 0x4C4F4749;
+  private static final int VERSION = 1;
+  private static final int FINGERPRINT_LENGTH = 256;
+  private static final long MAP_CHUNK = 64L << 20;
+  private static final int SLICE_SIZE = 1 << 20;
+
+  /**
+   * Диапазон байтов лог-файла.
+   *
+   * @param start смещение первого байта
+   * @param end смещение за последним байтом
+   */
+  public record Range(long start, long end) {
+
+    /**
+     * Длина диапазона в байтах.
+     *
+     * @return количество байтов
+     */
+    public long length() {
+      return end - start;
+    }
+  }
+
+  private final Path logPath;
+  private final Path indexPath;
+  private final boolean persist;
+
+  private final NavigableMap<String, List<Range>> hours = new TreeMap<>();
+  private byte[] fingerprint = new byte[0];
+  private long indexedLength;
+  private byte[] currentHour;
+  private long currentStart;
+  private boolean loaded;
+
+  /**
+   * Создает индекс лог-файла.
+   *
+   * @param logPath путь к лог-файлу
+   * @param indexPath путь к файлу индекса
+   * @param persist сохранять ли индекс на диск
+   */
+  public LogFileIndex(
+          @Value("${store.logs.file:./store.log}") String logPath,
+          @Value("${store.logs.index.path:./store.log.idx}") String indexPath,
+          @Value("${store.logs.index.persist:true}") boolean persist) {
+    this.logPath = Paths.get(logPath);
+    this.indexPath = Paths.get(indexPath);
+    this.persist = persist;
+  }
+
+  /**
+   * Путь к индексируемому лог-файлу.
+   *
+   * @return путь к файлу
+   */
+  public Path getLogPath() {
+    return logPath;
+  }
+
+  /**
+   * Периодически дочитывает хвост лог-файла, чтобы запросы не ждали индексации.
+   */
+  @Scheduled(
+          initialDelayString = "${store.logs.index.interval-ms:60000}",
+          fixedDelayString = "${store.logs.index.interval-ms:60000}")
+  public void scheduledRefresh() {
+    try {
+      refresh();
+    } catch (IOException e) {
+      log.warn("Failed to refresh log index: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Диапазоны байтов со строками за указанную дату.
+   *
+   * @param date дата
+   * @return упорядоченные по смещению непересекающиеся диапазоны
+   * @throws IOException если лог-файл не удалось прочитать
+   */
+  public List<Range> rangesForDate(LocalDate date) throws IOException {
+    String day = date.toString();
+    return ranges(day + "T00", day + "T24");
+  }
+
+  /**
+   * Диапазоны байтов со строками, час которых попадает в интервал.
+   *
+   * @param fromHour первый час включительно ({@code yyyy-MM-ddTHH})
+   * @param toHour последний час не включительно ({@code yyyy-MM-ddTHH})
+   * @return упорядоченные по смещению непересекающиеся диапазоны
+   * @throws IOException если лог-файл не удалось прочитать
+   */
+  public synchronized List<Range> ranges(String fromHour, String toHour) throws IOException {
+    refresh();
+    List<Range> selected = new ArrayList<>();
+    hours.subMap(fromHour, true, toHour, false).values().forEach(selected::addAll);
+    if (currentHour != null && indexedLength > currentStart) {
+      String hour = new String(currentHour, StandardCharsets.US_ASCII);
+      if (hour.compareTo(fromHour) >= 0 && hour.compareTo(toHour) < 0) {
+        selected.add(new Range(currentStart, indexedLength));
+      }
+    }
+    selected.sort((left, right) -> Long.compare(left.start(), right.start()));
+
+    List<Range> merged = new ArrayList<>(selected.size());
+    for (Range range : selected) {
+      int last = merged.size() - 1;
+      if (last >= 0 && merged.get(last).end() == range.start()) {
+        merged.set(last, new Range(merged.get(last).start(), range.end()));
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Копирует диапазоны лог-файла в канал, отображая их в память частями.
+   *
+   * @param ranges диапазоны байтов
+   * @param target канал назначения
+   * @return количество скопированных байтов
+   * @throws IOException если не удалось прочитать лог или записать в канал
+   */
+  public long copy(List<Range> ranges, WritableByteChannel target) throws IOException {
+    return copy(ranges, target, slice -> { });
+  }
+
+  /**
+   * Копирует диапазоны лог-файла в канал и сообщает о каждой части перед записью.
+   *
+   * <p>Части не превышают 1 МБ, поэтому слушатель может
+   * вести прогресс и прервать копирование, выбросив исключение.
+   *
+   * @param ranges диапазоны байтов
+   * @param target канал назначения
+   * @param listener получает копию очередной части только для чтения
+   * @return количество скопированных байтов
+   * @throws IOException если не удалось прочитать лог или записать в канал
+   */
+  public long copy(List<Range> ranges, WritableByteChannel target, Consumer<ByteBuffer> listener)
+          throws IOException {
+    long copied = 0;
+    try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+      for (Range range : ranges) {
+        for (long position = range.start(); position < range.end(); ) {
+          long length = Math.min(MAP_CHUNK, range.end() - position);
+          MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+          for (int offset = 0; offset < length; offset += SLICE_SIZE) {
+            ByteBuffer slice = window.slice(offset, (int) Math.min(SLICE_SIZE, length - offset));
+            listener.accept(slice.asReadOnlyBuffer());
+            while (slice.hasRemaining()) {
+              target.write(slice);
+            }
+          }
+          position += length;
+          copied += length;
+        }
+      }
+    }
+    return copied;
+  }
+
+  /**
+   * Дочитывает дописанную часть лог-файла и при изменениях сохраняет индекс.
+   *
+   * @throws IOException если лог-файл не удалось прочитать
+   */
+  public synchronized void refresh() throws IOException {
+    if (!loaded) {
+      loaded = true;
+      load();
+    }
+
+    long start = System.nanoTime();
+    long before = indexedLength;
+    try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < indexedLength || !sameFile(channel, size)) {
+        log.info("Log file {} was truncated or rotated, rebuilding index", logPath);
+        reset();
+        before = -1;
+      }
+      if (fingerprint.length < FINGERPRINT_LENGTH && size > fingerprint.length) {
+        fingerprint = read(channel, 0, (int) Math.min(FINGERPRINT_LENGTH, size));
+      }
+      scan(channel, size);
+    } catch (NoSuchFileException e) {
+      if (indexedLength > 0) {
+        reset();
+        save();
+      }
+      return;
+    }
+
+    if (indexedLength != before) {
+      log.debug("Indexed {} bytes of {} in {} ms", indexedLength - Math.max(before, 0),
+              logPath, (System.nanoTime() - start) / 1_000_000);
+      save();
+    }
+  }
+
+  /**
+   * Статистика индекса.
+   *
+   * @return путь к файлу, количество проиндексированных байтов и диапазонов, текущий час
+   */
+  public synchronized Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("logFile", logPath.toString());
+    stats.put("indexedBytes", indexedLength);
+    stats.put("closedRanges", hours.values().stream().mapToInt(List::size).sum());
+    stats.put("currentHour", currentHour == null
+            ? null : new String(currentHour, StandardCharsets.US_ASCII));
+    return stats;
+  }
+
+  private void scan(FileChannel channel, long size) throws IOException {
+    long position = indexedLength;
+    boolean continuation = false;
+    while (position < size) {
+      long windowSize = Math.min(MAP_CHUNK, size - position);
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+      int lineStart = 0;
+      for (int i = 0; i < windowSize; i++) {
+        if (window.get(i) == '\n') {
+          if (!continuation) {
+            onLine(window, lineStart, i + 1, position);
+          }
+          continuation = false;
+          lineStart = i + 1;
+        }
+      }
+
+      if (lineStart == 0 && windowSize == MAP_CHUNK) {
+        // Строка длиннее окна: учитываем только ее начало, остаток пропускаем
+        if (!continuation) {
+          onLine(window, 0, (int) windowSize, position);
+        }
+        continuation = true;
+        position += windowSize;
+        continue;
+      }
+      if (lineStart == 0) {
+        // Последняя строка еще дописывается
+        break;
+      }
+      position += lineStart;
+      if (!continuation) {
+        indexedLength = position;
+      }
+    }
+  }
+
+  private void onLine(ByteBuffer window, int lineStart, int lineEnd, long windowPosition) {
+    if (lineEnd - lineStart < HOUR_KEY_LENGTH || !isHourKey(window, lineStart)) {
+      return;
+    }
+    if (currentHour != null && sameHour(window, lineStart)) {
+      return;
+    }
+
+    long offset = windowPosition + lineStart;
+    if (currentHour != null && offset > currentStart) {
+      hours.computeIfAbsent(new String(currentHour, StandardCharsets.US_ASCII),
+              key -> new ArrayList<>()).add(new Range(currentStart, offset));
+    }
+    currentHour = new byte[HOUR_KEY_LENGTH];
+    window.get(lineStart, currentHour);
+    currentStart = offset;
+  }
+
+  private boolean sameHour(ByteBuffer window, int lineStart) {
+    // Минуты и секунды меняются чаще часа, поэтому сравнение идет с конца ключа
+    for (int i = HOUR_KEY_LENGTH - 1; i >= 0; i--) {
+      if (window.get(lineStart + i) != currentHour[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Проверяет, начинается ли строка с метки времени {@code yyyy-MM-ddTHH}.
+   */
+  static boolean isHourKey(ByteBuffer buffer, int offset) {
+    for (int i = 0; i < HOUR_KEY_LENGTH; i++) {
+      if (!isHourKeyByte(i, buffer.get(offset + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Проверяет, начинается ли строка в массиве с метки времени {@code yyyy-MM-ddTHH}.
+   */
+  static boolean isHourKey(byte[] bytes, int offset, int length) {
+    if (length < HOUR_KEY_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < HOUR_KEY_LENGTH; i++) {
+      if (!isHourKeyByte(i, bytes[offset + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isHourKeyByte(int index, byte value) {
+    return switch (index) {
+      case 4, 7 -> value == '-';
+      case 10 -> value == 'T';
+      default -> value >= '0' && value <= '9';
+    };
+  }
+
+  private boolean sameFile(FileChannel channel, long size) throws IOException {
+    if (fingerprint.length == 0) {
+      return true;
+    }
+    return size >= fingerprint.length
+            && Arrays.equals(fingerprint, read(channel, 0, fingerprint.length));
+  }
+
+  private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    int read;
+    do {
+      read = channel.read(buffer, position + buffer.position());
+    } while (read >= 0 && buffer.hasRemaining());
+    return buffer.array();
+  }
+
+  private void reset() {
+    hours.clear();
+    fingerprint = new byte[0];
+    indexedLength = 0;
+    currentHour = null;
+    currentStart = 0;
+  }
+
+  private void save() {
+    if (!persist) {
+      return;
+    }
+    int size = Integer.BYTES * 4 + fingerprint.length + Long.BYTES * 2 + 1 + HOUR_KEY_LENGTH;
+    for (List<Range> ranges : hours.values()) {
+      size += HOUR_KEY_LENGTH + Integer.BYTES + ranges.size() * Long.BYTES * 2;
+    }
+
+    try {
+      Path parent = indexPath.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+      try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putInt(fingerprint.length).put(fingerprint);
+        buffer.putLong(indexedLength).putLong(currentStart);
+        buffer.put((byte) (currentHour == null ? 0 : 1));
+        buffer.put(currentHour == null ? new byte[HOUR_KEY_LENGTH] : currentHour);
+        buffer.putInt(hours.size());
+        for (Map.Entry<String, List<Range>> entry : hours.entrySet()) {
+          buffer.put(entry.getKey().getBytes(StandardCharsets.US_ASCII));
+          buffer.putInt(entry.getValue().size());
+          for (Range range : entry.getValue()) {
+            buffer.putLong(range.start()).putLong(range.end());
+          }
+        }
+        buffer.force();
+      }
+      Files.move(tempPath, indexPath,
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Failed to save log index {}: {}", indexPath, e.getMessage());
+    }
+  }
+
+  private void load() {
+    if (!persist || !Files.exists(indexPath)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        log.warn("Ignoring log index {}: unknown format", indexPath);
+        return;
+      }
+      fingerprint = new byte[buffer.getInt()];
+      buffer.get(fingerprint);
+      indexedLength = buffer.getLong();
+      currentStart = buffer.getLong();
+      boolean hasCurrent = buffer.get() == 1;
+      byte[] hour = new byte[HOUR_KEY_LENGTH];
+      buffer.get(hour);
+      currentHour = hasCurrent ? hour : null;
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+        hour = new byte[HOUR_KEY_LENGTH];
+        buffer.get(hour);
+        List<Range> ranges = new ArrayList<>();
+        int rangeCount = buffer.getInt();
+        for (int j = 0; j < rangeCount; j++) {
+          ranges.add(new Range(buffer.getLong(), buffer.getLong()));
+        }
+        hours.put(new String(hour, StandardCharsets.US_ASCII), ranges);
+      }
+      log.info("Loaded log index {} covering {} bytes", indexPath, indexedLength);
+    } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+      log.warn("Failed to read log index {}: {}", indexPath, e.getMessage());
+      reset();
+    }
+  }
+}
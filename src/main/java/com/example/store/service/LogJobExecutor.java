@@ -0,0 +1,254 @@
+package com.example.store.service;
+
+import com.example.store.model.LogTask;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ограниченный исполнитель фоновых задач над лог-файлами.
+ *
+ * <p>Задачи выполняются пулом фиксированного размера с очередью ограниченной
+ * длины: при переполнении очереди новая задача отклоняется, а не порождает
+ * еще один поток. Задача периодически вызывает контрольную точку, которая
+ * прерывает ее при отмене или по истечении тайм-аута. Для каждой задачи
+ * фиксируются время запуска и завершения, а по исполнителю в целом —
+ * глубина очереди и длительность задач.
+ */
+@Slf4j
+@Component
+public class LogJobExecutor {
+
+  /** Задача в очереди. */
+  public static final String QUEUED = "QUEUED";
+  /** Задача выполняется. */
+  public static final String IN_PROGRESS = "IN_PROGRESS";
+  /** Задача успешно завершена. */
+  public static final String COMPLETED = "COMPLETED";
+  /** Задача завершилась ошибкой. */
+  public static final String FAILED = "FAILED";
+  /** Задача отменена. */
+  public static final String CANCELLED = "CANCELLED";
+  /** Задача прервана по тайм-ауту. */
+  public static final String TIMED_OUT = "TIMED_OUT";
+
+  /**
+   * Работа, выполняемая задачей.
+   */
+  @FunctionalInterface
+  public interface Job {
+
+    /**
+     * Выполняет работу.
+     *
+     * @param task задача, в которую записывается прогресс
+     * @param checkpoint контрольная точка; выбрасывает {@link CancellationException},
+     *     если задачу отменили или истек ее тайм-аут
+     * @throws IOException если не удалось прочитать или записать файл
+     */
+    void run(LogTask task, Runnable checkpoint) throws IOException;
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final long timeoutNanos;
+  private final Map<String, RunningJob> jobs = new ConcurrentHashMap<>();
+
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong cancelled = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+  private final AtomicLong measured = new AtomicLong();
+  private final AtomicLong totalDurationMillis = new AtomicLong();
+  private final AtomicLong maxDurationMillis = new AtomicLong();
+  private final AtomicLong lastDurationMillis = new AtomicLong();
+
+  /**
+   * Создает исполнитель задач.
+   *
+   * @param threads количество рабочих потоков
+   * @param queueCapacity максимальное количество задач в очереди
+   * @param timeout максимальная длительность выполнения одной задачи
+   */
+  public LogJobExecutor(
+          @Value("${store.logs.jobs.threads:2}") int threads,
+          @Value("${store.logs.jobs.queue-capacity:16}") int queueCapacity,
+          @Value("${store.logs.jobs.timeout:5m}") Duration timeout) {
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+              Thread thread = new Thread(runnable, "log-job-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.queueCapacity = queueCapacity;
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  /**
+   * Ставит задачу в очередь.
+   *
+   * @param task задача
+   * @param job работа задачи
+   * @return true, если задача принята; false, если очередь заполнена
+   */
+  public boolean submit(LogTask task, Job job) {
+    RunningJob running = new RunningJob(task);
+    task.setStatus(QUEUED);
+    jobs.put(task.getId(), running);
+    try {
+      running.future = executor.submit(() -> run(running, job));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(task.getId());
+      rejected.incrementAndGet();
+      return false;
+    }
+    submitted.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Отменяет задачу в очереди или прерывает выполняющуюся.
+   *
+   * @param taskId ID задачи
+   * @return true, если задача была в очереди или выполнялась
+   */
+  public boolean cancel(String taskId) {
+    RunningJob running = jobs.get(taskId);
+    if (running == null) {
+      return false;
+    }
+    running.cancelRequested = true;
+    if (running.claimed.compareAndSet(false, true)) {
+      // Задача еще не запускалась: убираем ее из очереди сразу
+      Future<?> future = running.future;
+      if (future != null) {
+        future.cancel(false);
+        executor.purge();
+      }
+      finish(running, CANCELLED, null);
+    }
+    return true;
+  }
+
+  /**
+   * Статистика исполнителя.
+   *
+   * @return глубина очереди, количество задач по итогам и их длительность
+   */
+  public Map<String, Object> stats() {
+    long measuredJobs = measured.get();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("queueDepth", executor.getQueue().size());
+    stats.put("queueCapacity", queueCapacity);
+    stats.put("activeJobs", executor.getActiveCount());
+    stats.put("threads", executor.getMaximumPoolSize());
+    stats.put("submitted", submitted.get());
+    stats.put("rejected", rejected.get());
+    stats.put("completed", completed.get());
+    stats.put("failed", failed.get());
+    stats.put("cancelled", cancelled.get());
+    stats.put("timedOut", timedOut.get());
+    stats.put("avgDurationMs", measuredJobs == 0 ? 0 : totalDurationMillis.get() / measuredJobs);
+    stats.put("maxDurationMs", maxDurationMillis.get());
+    stats.put("lastDurationMs", lastDurationMillis.get());
+    return stats;
+  }
+
+  /**
+   * Прерывает выполняющиеся задачи при остановке приложения.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run(RunningJob running, Job job) {
+    if (!running.claimed.compareAndSet(false, true)) {
+      return;
+    }
+    LogTask task = running.task;
+    running.startNanos = System.nanoTime();
+    task.setStartedAt(LocalDateTime.now());
+    task.setStatus(IN_PROGRESS);
+    try {
+      job.run(task, () -> checkpoint(running));
+      finish(running, COMPLETED, null);
+    } catch (Exception e) {
+      if (running.cancelRequested) {
+        finish(running, CANCELLED, null);
+      } else if (running.timedOut) {
+        finish(running, TIMED_OUT, "Job exceeded " + timeoutNanos / 1_000_000 + " ms");
+      } else {
+        log.warn("Log job {} failed: {}", task.getId(), e.getMessage());
+        finish(running, FAILED, e.getMessage());
+      }
+    }
+  }
+
+  private void checkpoint(RunningJob running) {
+    if (running.cancelRequested) {
+      throw new CancellationException("Job cancelled");
+    }
+    if (System.nanoTime() - running.startNanos > timeoutNanos) {
+      running.timedOut = true;
+      throw new CancellationException("Job timed out");
+    }
+  }
+
+  private void finish(RunningJob running, String status, String error) {
+    if (jobs.remove(running.task.getId()) == null) {
+      return;
+    }
+    LogTask task = running.task;
+    task.setErrorMessage(error);
+    task.setFinishedAt(LocalDateTime.now());
+    task.setStatus(status);
+
+    switch (status) {
+      case COMPLETED -> completed.incrementAndGet();
+      case CANCELLED -> cancelled.incrementAndGet();
+      case TIMED_OUT -> timedOut.incrementAndGet();
+      default -> failed.incrementAndGet();
+    }
+    if (running.startNanos != 0) {
+      long duration = (System.nanoTime() - running.startNanos) / 1_000_000;
+      measured.incrementAndGet();
+      totalDurationMillis.addAndGet(duration);
+      maxDurationMillis.accumulateAndGet(duration, Math::max);
+      lastDurationMillis.set(duration);
+      log.info("Log job {} finished as {} in {} ms", task.getId(), status, duration);
+    }
+  }
+
+  private static final class RunningJob {
+    private final LogTask task;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private volatile Future<?> future;
+    private volatile boolean cancelRequested;
+    private volatile boolean timedOut;
+    private volatile long startNanos;
+
+    private RunningJob(LogTask task) {
+      this.task = task;
+    }
+  }
+}
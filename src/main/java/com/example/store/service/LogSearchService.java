@@ -0,0 +1,564 @@
+package com.example.store.service;
+
+import com.example.store.dto.LogEntry;
+import com.example.store.dto.LogSearchQuery;
+import com.example.store.dto.LogSearchResult;
+import com.example.store.exception.ValidationException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Параллельный поиск по лог-файлу с фильтрами по времени, уровню, потоку,
+ * логгеру и тексту сообщения.
+ *
+ * <p>Просматриваемый диапазон сужается по интервалу времени через
+ * {@link LogFileIndex}, делится на части и обрабатывается задачами
+ * {@link ForkJoinPool}. Каждая часть отображается в память и разбирается
+ * побайтно без регулярных выражений и без создания строк; строки
+ * ({@link String}) создаются только для найденных записей, а регулярное
+ * выражение применяется к сообщению лишь после остальных фильтров. Длина
+ * выражения ограничена, а его вычисление прерывается по истечении времени поиска,
+ * поэтому катастрофический возврат не занимает потоки поиска.
+ * Результаты частей склеиваются в порядке следования в файле, и как только
+ * одна часть набирает на строку больше лимита, более поздние части прекращают просмотр.
+ */
+@Slf4j
+@Service
+public class LogSearchService {
+
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+          DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+  private static final DateTimeFormatter HOUR_FORMATTER =
+          DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH");
+  private static final Set<String> LEVELS = Set.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR");
+  private static final int TIMESTAMP_LENGTH = 23;
+  private static final int DEFAULT_LIMIT = 100;
+  private static final int MAX_REGEX_LENGTH = 256;
+  /** Сколько байтов можно дочитать за границей части, чтобы закончить последнюю строку. */
+  private static final int LINE_OVERHANG = 1 << 20;
+
+  private final LogFileIndex logFileIndex;
+  private final ForkJoinPool pool;
+  private final long chunkSize;
+  private final int maxLimit;
+  private final Duration regexTimeout;
+
+  /**
+   * Создает сервис поиска по логам.
+   *
+   * @param logFileIndex индекс смещений лог-файла
+   * @param parallelism количество потоков поиска (0 — по числу процессоров)
+   * @param chunkSize размер части файла для одной задачи в байтах
+   * @param maxLimit максимальное количество строк в ответе
+   * @param regexTimeout сколько времени поиск может вычислять регулярное выражение
+   */
+  public LogSearchService(
+          LogFileIndex logFileIndex,
+          @Value("${store.logs.search.parallelism:0}") int parallelism,
+          @Value("${store.logs.search.chunk-size:8388608}") long chunkSize,
+          @Value("${store.logs.search.max-limit:10000}") int maxLimit,
+          @Value("${store.logs.search.regex-timeout:2s}") Duration regexTimeout) {
+    this.logFileIndex = logFileIndex;
+    this.pool = new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.chunkSize = Math.max(1, chunkSize);
+    this.maxLimit = maxLimit;
+    this.regexTimeout = regexTimeout;
+  }
+
+  /**
+   * Ищет строки лог-файла по условиям.
+   *
+   * @param query условия поиска
+   * @return найденные строки в порядке следования в файле, не больше лимита
+   * @throws ValidationException если условия заданы неверно
+   * @throws ResponseStatusException 422, если регулярное выражение вычисляется дольше
+   *         допустимого
+   */
+  public LogSearchResult search(LogSearchQuery query) {
+    long start = System.nanoTime();
+    Filter filter = Filter.of(query, start + regexTimeout.toNanos());
+    int limit = query.limit() == null
+            ? DEFAULT_LIMIT : Math.max(1, Math.min(query.limit(), maxLimit));
+
+    List<Chunk> chunks = new ArrayList<>();
+    long scanned;
+    try (FileChannel channel = FileChannel.open(logFileIndex.getLogPath(),
+            StandardOpenOption.READ)) {
+      for (LogFileIndex.Range range : logFileIndex.ranges(filter.fromHour, filter.toHour)) {
+        for (long position = range.start(); position < range.end(); position += chunkSize) {
+          chunks.add(new Chunk(chunks.size(), position,
+                  Math.min(range.end(), position + chunkSize), range.start(), range.end()));
+        }
+      }
+      scanned = chunks.stream().mapToLong(chunk -> chunk.end - chunk.start).sum();
+
+      AtomicInteger lastNeeded = new AtomicInteger(Integer.MAX_VALUE);
+      // Части ищут на одну строку больше лимита, чтобы знать, есть ли продолжение
+      List<List<LogEntry>> results = chunks.isEmpty() ? List.of() : pool.invoke(
+              new SearchTask(channel, chunks, 0, chunks.size(), filter, limit + 1, lastNeeded));
+
+      List<LogEntry> entries = new ArrayList<>();
+      boolean truncated = false;
+      for (List<LogEntry> result : results) {
+        for (LogEntry entry : result) {
+          if (entries.size() == limit) {
+            truncated = true;
+            break;
+          }
+          entries.add(entry);
+        }
+      }
+
+      long took = (System.nanoTime() - start) / 1_000_000;
+      log.debug("Log search scanned {} bytes in {} chunks and found {} entries in {} ms",
+              scanned, chunks.size(), entries.size(), took);
+      return new LogSearchResult(entries, truncated, scanned, chunks.size(), took);
+    } catch (RegexTimeoutException e) {
+      throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+              "Regex took longer than " + regexTimeout.toMillis() + " ms; simplify it "
+                      + "or narrow the search with other filters");
+    } catch (NoSuchFileException e) {
+      return new LogSearchResult(List.of(), false, 0, 0, 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Останавливает потоки поиска при остановке приложения.
+   */
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Часть диапазона файла. Строка относится к части, в которой она начинается.
+   */
+  private record Chunk(int index, long start, long end, long rangeStart, long rangeEnd) {
+  }
+
+  /**
+   * Делит список частей пополам, пока не останется одна, и склеивает результаты по порядку.
+   */
+  private static final class SearchTask extends RecursiveTask<List<List<LogEntry>>> {
+    private final FileChannel channel;
+    private final List<Chunk> chunks;
+    private final int from;
+    private final int to;
+    private final Filter filter;
+    private final int limit;
+    private final AtomicInteger lastNeeded;
+
+    private SearchTask(FileChannel channel, List<Chunk> chunks, int from, int to, Filter filter,
+            int limit, AtomicInteger lastNeeded) {
+      this.channel = channel;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+      this.filter = filter;
+      this.limit = limit;
+      this.lastNeeded = lastNeeded;
+    }
+
+    @Override
+    protected List<List<LogEntry>> compute() {
+      if (to - from == 1) {
+        List<List<LogEntry>> result = new ArrayList<>(1);
+        result.add(scan(chunks.get(from)));
+        return result;
+      }
+      int middle = (from + to) >>> 1;
+      SearchTask left = new SearchTask(channel, chunks, from, middle, filter, limit, lastNeeded);
+      SearchTask right = new SearchTask(channel, chunks, middle, to, filter, limit, lastNeeded);
+      right.fork();
+      List<List<LogEntry>> result = left.compute();
+      result.addAll(right.join());
+      return result;
+    }
+
+    private List<LogEntry> scan(Chunk chunk) {
+      List<LogEntry> found = new ArrayList<>();
+      if (chunk.index() > lastNeeded.get()) {
+        return found;
+      }
+
+      // Часть, начинающаяся внутри диапазона, захватывает предыдущий байт: если это
+      // не перевод строки, первая строка принадлежит предыдущей части
+      long mapStart = chunk.start() > chunk.rangeStart() ? chunk.start() - 1 : chunk.start();
+      long mapEnd = Math.min(chunk.rangeEnd(), chunk.end() + LINE_OVERHANG);
+      MappedByteBuffer window;
+      try {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      int size = window.limit();
+      int chunkEnd = (int) (chunk.end() - mapStart);
+      int lineStart = mapStart < chunk.start() ? nextLine(window, 0, size) + 1 : 0;
+      LogLine line = new LogLine(window);
+
+      int checked = 0;
+      while (lineStart < chunkEnd && lineStart < size) {
+        int lineEnd = nextLine(window, lineStart, size);
+        boolean matches;
+        try {
+          matches = line.parse(lineStart, lineEnd) && filter.matches(line);
+        } catch (RegexTimeoutException e) {
+          // Остальные части прекращают просмотр при следующей проверке
+          lastNeeded.set(-1);
+          throw e;
+        }
+        if (matches) {
+          found.add(line.toEntry(mapStart));
+          if (found.size() == limit) {
+            lastNeeded.accumulateAndGet(chunk.index(), Math::min);
+            break;
+          }
+        }
+        lineStart = lineEnd + 1;
+        if ((++checked & 0xFFF) == 0 && chunk.index() > lastNeeded.get()) {
+          break;
+        }
+      }
+      return found;
+    }
+  }
+
+  /**
+   * Возвращает позицию перевода строки, завершающего строку, или конец окна.
+   */
+  private static int nextLine(MappedByteBuffer window, int from, int size) {
+    int position = from;
+    while (position < size && window.get(position) != '\n') {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Разобранные поля текущей строки в виде смещений внутри окна.
+   */
+  private static final class LogLine {
+    private final MappedByteBuffer buffer;
+    private int start;
+    private int end;
+    private int timestampEnd;
+    private int levelStart;
+    private int levelEnd;
+    private int threadStart;
+    private int threadEnd;
+    private int loggerStart;
+    private int loggerEnd;
+    private int messageStart;
+
+    private LogLine(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    /**
+     * Разбирает строку формата
+     * {@code <время> <уровень> <pid> --- [<приложение>] [<поток>] <логгер> : <сообщение>}.
+     *
+     * @return false, если строка не начинается с метки времени или не соответствует формату
+     */
+    private boolean parse(int lineStart, int lineEnd) {
+      start = lineStart;
+      end = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+      if (end - start < TIMESTAMP_LENGTH || !LogFileIndex.isHourKey(buffer, start)) {
+        return false;
+      }
+      timestampEnd = indexOf((byte) ' ', start);
+      levelStart = skipSpaces(timestampEnd);
+      levelEnd = indexOf((byte) ' ', levelStart);
+      int position = indexOf((byte) '[', levelEnd);
+      if (position >= end) {
+        return false;
+      }
+      int close = indexOf((byte) ']', position);
+      int next = skipSpaces(close + 1);
+      if (next < end && buffer.get(next) == '[') {
+        // Начиная со Spring Boot 3.4 перед потоком выводится имя приложения
+        position = next;
+        close = indexOf((byte) ']', position);
+      }
+      if (close >= end) {
+        return false;
+      }
+      threadStart = skipSpaces(position + 1);
+      threadEnd = close;
+      loggerStart = skipSpaces(close + 1);
+      int separator = -1;
+      for (int i = loggerStart + 1; i < end; i++) {
+        if (buffer.get(i) == ':' && buffer.get(i - 1) == ' ') {
+          separator = i;
+          break;
+        }
+      }
+      if (separator < 0) {
+        return false;
+      }
+      loggerEnd = separator - 1;
+      while (loggerEnd > loggerStart && buffer.get(loggerEnd - 1) == ' ') {
+        loggerEnd--;
+      }
+      messageStart = Math.min(end, separator + 2);
+      return true;
+    }
+
+    private int indexOf(byte value, int from) {
+      int position = from;
+      while (position < end && buffer.get(position) != value) {
+        position++;
+      }
+      return position;
+    }
+
+    private int skipSpaces(int from) {
+      int position = from;
+      while (position < end && buffer.get(position) == ' ') {
+        position++;
+      }
+      return position;
+    }
+
+    private int compareTimestamp(byte[] value) {
+      for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+        int result = Byte.compare(buffer.get(start + i), value[i]);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    }
+
+    private boolean fieldEquals(int fieldStart, int fieldEnd, byte[] value) {
+      if (fieldEnd - fieldStart != value.length) {
+        return false;
+      }
+      for (int i = 0; i < value.length; i++) {
+        if (buffer.get(fieldStart + i) != value[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean fieldContains(int fieldStart, int fieldEnd, byte[] value) {
+      int last = fieldEnd - value.length;
+      for (int position = fieldStart; position <= last; position++) {
+        int i = 0;
+        while (i < value.length && buffer.get(position + i) == value[i]) {
+          i++;
+        }
+        if (i == value.length) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private String string(int fieldStart, int fieldEnd) {
+      byte[] bytes = new byte[Math.max(0, fieldEnd - fieldStart)];
+      buffer.get(fieldStart, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private LogEntry toEntry(long windowOffset) {
+      return new LogEntry(string(start, timestampEnd), string(levelStart, levelEnd),
+              string(threadStart, threadEnd), string(loggerStart, loggerEnd),
+              string(messageStart, end), windowOffset + start);
+    }
+  }
+
+  /**
+   * Условия поиска, заранее переведенные в байты.
+   */
+  private static final class Filter {
+    private final String fromHour;
+    private final String toHour;
+    private final byte[] from;
+    private final byte[] to;
+    private final byte[] level;
+    private final byte[] thread;
+    private final byte[] logger;
+    private final byte[] text;
+    private final Pattern regex;
+    private final long regexDeadline;
+
+    private Filter(LocalDateTime from, LocalDateTime to, String level, String thread,
+            String logger, String text, Pattern regex, long regexDeadline) {
+      this.fromHour = from == null ? "0000-00-00T00" : from.format(HOUR_FORMATTER);
+      // Конец интервала внутри часа требует просмотра всего этого часа
+      this.toHour = to == null ? "9999-99-99T99"
+              : to.truncatedTo(ChronoUnit.HOURS).plusHours(1).format(HOUR_FORMATTER);
+      this.from = from == null ? null : ascii(from.format(TIMESTAMP_FORMATTER));
+      this.to = to == null ? null : ascii(to.format(TIMESTAMP_FORMATTER));
+      this.level = level == null ? null : ascii(level);
+      this.thread = utf8(thread);
+      this.logger = utf8(logger);
+      this.text = utf8(text);
+      this.regex = regex;
+      this.regexDeadline = regexDeadline;
+    }
+
+    private static Filter of(LogSearchQuery query, long regexDeadline) {
+      LocalDateTime from = parseTime(query.from(), "from");
+      LocalDateTime to = parseTime(query.to(), "to");
+      if (from != null && to != null && !from.isBefore(to)) {
+        throw new ValidationException("'from' must be before 'to'");
+      }
+
+      String level = blankToNull(query.level());
+      if (level != null) {
+        level = level.toUpperCase(Locale.ROOT);
+        if (!LEVELS.contains(level)) {
+          throw new ValidationException("Unknown log level: " + query.level());
+        }
+      }
+
+      Pattern regex = null;
+      if (blankToNull(query.regex()) != null) {
+        if (query.regex().length() > MAX_REGEX_LENGTH) {
+          throw new ValidationException(
+                  "Regex is longer than " + MAX_REGEX_LENGTH + " characters");
+        }
+        try {
+          regex = Pattern.compile(query.regex());
+        } catch (PatternSyntaxException e) {
+          throw new ValidationException("Invalid regex: " + e.getDescription());
+        }
+      }
+      return new Filter(from, to, level, blankToNull(query.thread()),
+              blankToNull(query.logger()), blankToNull(query.text()), regex, regexDeadline);
+    }
+
+    private boolean matches(LogLine line) {
+      if (from != null && line.compareTimestamp(from) < 0) {
+        return false;
+      }
+      if (to != null && line.compareTimestamp(to) >= 0) {
+        return false;
+      }
+      if (level != null && !line.fieldEquals(line.levelStart, line.levelEnd, level)) {
+        return false;
+      }
+      if (thread != null && !line.fieldEquals(line.threadStart, line.threadEnd, thread)) {
+        return false;
+      }
+      if (logger != null && !line.fieldContains(line.loggerStart, line.loggerEnd, logger)) {
+        return false;
+      }
+      if (text != null && !line.fieldContains(line.messageStart, line.end, text)) {
+        return false;
+      }
+      if (regex != null) {
+        Matcher matcher = regex.matcher(
+                new DeadlineCharSequence(line.string(line.messageStart, line.end), regexDeadline));
+        return matcher.find();
+      }
+      return true;
+    }
+
+    private static LocalDateTime parseTime(String value, String name) {
+      String time = blankToNull(value);
+      if (time == null) {
+        return null;
+      }
+      try {
+        return LocalDateTime.parse(time);
+      } catch (DateTimeParseException e) {
+        throw new ValidationException(
+                "Invalid '" + name + "', expected yyyy-MM-ddTHH:mm[:ss[.SSS]]: " + value);
+      }
+    }
+
+    private static String blankToNull(String value) {
+      return value == null || value.isBlank() ? null : value;
+    }
+
+    private static byte[] ascii(String value) {
+      return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] utf8(String value) {
+      return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Строка для регулярного выражения, прерывающая сопоставление после срока.
+   *
+   * <p>{@link Matcher} не поддерживает тайм-аут, но при возврате постоянно
+   * читает символы, поэтому проверка времени в {@link #charAt} его останавливает.
+   */
+  private static final class DeadlineCharSequence implements CharSequence {
+    private final String value;
+    private final long deadline;
+    private int reads;
+
+    private DeadlineCharSequence(String value, long deadline) {
+      this.value = value;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public int length() {
+      return value.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      if ((++reads & 0xFF) == 0 && System.nanoTime() - deadline > 0) {
+        throw new RegexTimeoutException();
+      }
+      return value.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new DeadlineCharSequence(value.substring(start, end), deadline);
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+
+  /**
+   * Регулярное выражение не уложилось во время поиска.
+   */
+  private static final class RegexTimeoutException extends RuntimeException {
+    private RegexTimeoutException() {
+      super("Regex evaluation timed out", null, false, false);
+    }
+  }
+}
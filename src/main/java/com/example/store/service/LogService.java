@@ -1,72 +1,166 @@
 package com.example.store.service;
 
+import com.example.store.exception.ValidationException;
 import com.example.store.model.LogTask;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Сервис для работы с лог-файлами.
  *
  * <p>Предоставляет функциональность для:
  * <ul>
- *   <li>Асинхронной генерации лог-файлов
+ *   <li>Фоновой генерации лог-файлов с прогрессом и отменой
  *   <li>Отслеживания статуса задач
  *   <li>Скачивания сгенерированных файлов
+ *   <li>Чтения логов за дату
  * </ul>
+ *
+ * <p>Строки за дату не ищутся перебором всего файла: {@link LogFileIndex}
+ * указывает диапазоны байтов нужных часов, и читаются только они. Прошлые даты
+ * берутся из ротированных gzip-архивов через {@link LogArchiveReader}. Генерация
+ * выполняется ограниченным пулом {@link LogJobExecutor}.
  */
 @Service
 public class LogService {
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
   private final Map<String, LogTask> tasks = new ConcurrentHashMap<>();
-  private static final String LOG_DIR = "./generated-logs/";
-  private static final String SOURCE_LOG_PATH = "./store.log";
+  private final LogFileIndex logFileIndex;
+  private final LogJobExecutor logJobExecutor;
+  private final LogArchiveReader logArchiveReader;
+  private final Path logDir;
+
+  /**
+   * Создает сервис работы с логами.
+   *
+   * @param logFileIndex индекс смещений лог-файла
+   * @param logJobExecutor исполнитель задач генерации
+   * @param logArchiveReader чтение ротированных архивов
+   * @param logDir каталог для сгенерированных файлов
+   */
+  public LogService(
+          LogFileIndex logFileIndex,
+          LogJobExecutor logJobExecutor,
+          LogArchiveReader logArchiveReader,
+          @Value("${store.logs.generated-dir:./generated-logs/}") String logDir) {
+    this.logFileIndex = logFileIndex;
+    this.logJobExecutor = logJobExecutor;
+    this.logArchiveReader = logArchiveReader;
+    this.logDir = Paths.get(logDir);
+  }
 
   /**
-   * Асинхронно генерирует лог-файл для указанной даты.
+   * Ставит в очередь генерацию лог-файла для указанной даты.
    *
    * @param date дата в формате yyyy-MM-dd
-   * @return CompletableFuture с ID задачи
-   * @throws IllegalStateException если возникла ошибка при работе с файловой системой
+   * @return ID задачи
+   * @throws ValidationException если дата задана в неверном формате
+   * @throws ResponseStatusException с кодом 429, если очередь задач заполнена
    */
-  @Async
-  public CompletableFuture<String> generateLogFile(String date) {
+  public String generateLogFile(String date) {
+    LocalDate day = parseDate(date);
     String taskId = UUID.randomUUID().toString();
-    LogTask task = new LogTask(taskId, "IN_PROGRESS", date, LocalDateTime.now());
+    LogTask task = new LogTask(taskId, LogJobExecutor.QUEUED, date, LocalDateTime.now());
     tasks.put(taskId, task);
 
-    new Thread(() -> {
-      try {
-        Thread.sleep(20000);
-        Files.createDirectories(Paths.get(LOG_DIR));
-        String fileName = LOG_DIR + "log-" + date + "-" + System.currentTimeMillis() + ".log";
-
-        try (var lines = Files.lines(Paths.get(SOURCE_LOG_PATH))) {
-          Files.write(
-                  Paths.get(fileName),
-                  lines.filter(line -> line.contains(date)).collect(Collectors.toList()));
-        }
+    if (!logJobExecutor.submit(task, (job, checkpoint) -> writeLogFile(job, day, checkpoint))) {
+      tasks.remove(taskId);
+      throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Log job queue is full");
+    }
+    return taskId;
+  }
 
-        task.setStatus("COMPLETED");
-        task.setFilePath(fileName);
-      } catch (Exception e) {
-        task.setStatus("FAILED");
-        task.setErrorMessage(e.getMessage());
-      }
-    }).start();
+  /**
+   * Отменяет задачу генерации лог-файла.
+   *
+   * @param taskId ID задачи
+   * @return задача или null, если задача не найдена
+   */
+  public LogTask cancelTask(String taskId) {
+    LogTask task = tasks.get(taskId);
+    if (task != null) {
+      logJobExecutor.cancel(taskId);
+    }
+    return task;
+  }
+
+  /**
+   * Статистика исполнителя задач генерации.
+   *
+   * @return глубина очереди, итоги и длительность задач
+   */
+  public Map<String, Object> getJobStats() {
+    return logJobExecutor.stats();
+  }
+
+  /**
+   * Проверяет, есть ли строки за дату в текущем лог-файле или в архивах.
+   *
+   * @param date дата
+   * @return true, если строки за дату есть
+   * @throws IOException если лог-файл или каталог архивов не удалось прочитать
+   */
+  public boolean hasLogs(LocalDate date) throws IOException {
+    return !logFileIndex.rangesForDate(date).isEmpty()
+            || !logArchiveReader.archivesFor(date).isEmpty();
+  }
+
+  /**
+   * Пишет в поток строки лога за дату вместе со строками продолжения (стек-трейсами).
+   *
+   * <p>Если за дату есть только текущий лог-файл, байты его диапазонов передаются
+   * в поток частями по мере чтения. Если есть ротированные архивы, они
+   * распаковываются потоком и сливаются с текущим файлом в порядке времени.
+   *
+   * @param date дата
+   * @param out выходной поток
+   * @return количество записанных байтов
+   * @throws IOException если не удалось прочитать лог или записать в поток
+   */
+  public long streamLogsByDate(LocalDate date, OutputStream out) throws IOException {
+    List<LogFileIndex.Range> ranges = logFileIndex.rangesForDate(date);
+    List<Path> archives = logArchiveReader.archivesFor(date);
+    if (archives.isEmpty()) {
+      return logFileIndex.copy(ranges, Channels.newChannel(out));
+    }
+    return logArchiveReader.merge(date, archives, ranges, out, () -> { }, (bytes, lines) -> { });
+  }
 
-    return CompletableFuture.completedFuture(taskId);
+  /**
+   * Статистика индекса лог-файла.
+   *
+   * @return состояние индекса
+   */
+  public Map<String, Object> getIndexStats() {
+    return logFileIndex.stats();
   }
 
   /**
@@ -82,20 +176,174 @@ public class LogService {
   /**
    * Скачивает сгенерированный лог-файл.
    *
+   * <p>Поддерживает один диапазон из заголовка {@code Range} (с проверкой
+   * {@code If-Range}), что позволяет докачивать файл. Байты передаются через
+   * {@link FileChannel#transferTo}, поэтому память на ответ не зависит от размера
+   * файла. При сжатии файл отдается целиком, так как диапазоны относятся к
+   * несжатому содержимому.
+   *
    * @param taskId ID задачи
-   * @return ResponseEntity с файлом
-   * @throws org.springframework.web.server.ResponseStatusException с кодом 404 если файл не найден
+   * @param requestHeaders заголовки запроса
+   * @param gzip сжимать ли ответ на лету
+   * @return ResponseEntity с потоком файла, 206 для диапазона или 416 для недопустимого диапазона
    */
-  public ResponseEntity<Resource> downloadLogFile(String taskId) {
+  public ResponseEntity<StreamingResponseBody> downloadLogFile(
+          String taskId, HttpHeaders requestHeaders, boolean gzip) {
     LogTask task = tasks.get(taskId);
-    if (task == null || !"COMPLETED".equals(task.getStatus())) {
+    if (task == null || !LogJobExecutor.COMPLETED.equals(task.getStatus())) {
       return ResponseEntity.notFound().build();
     }
 
-    Resource resource = new FileSystemResource(task.getFilePath());
-    return ResponseEntity.ok()
-            .header("Content-Disposition", "attachment; filename=\""
-                    + resource.getFilename() + "\"")
-            .body(resource);
+    Path file = Paths.get(task.getFilePath());
+    long length;
+    long lastModified;
+    try {
+      length = Files.size(file);
+      lastModified = Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException e) {
+      return ResponseEntity.notFound().build();
+    }
+    String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentDisposition(ContentDisposition.attachment()
+            .filename(file.getFileName().toString()).build());
+    headers.setContentType(MediaType.TEXT_PLAIN);
+    headers.setETag(etag);
+    headers.setLastModified(lastModified);
+
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+      return ResponseEntity.ok().headers(headers).body(out -> {
+        GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        transfer(file, 0, length, Channels.newChannel(compressed));
+        compressed.finish();
+      });
+    }
+
+    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+    HttpRange range;
+    try {
+      range = requestedRange(requestHeaders, etag, lastModified);
+    } catch (IllegalArgumentException e) {
+      return unsatisfiable(headers, length);
+    }
+    if (range == null) {
+      headers.setContentLength(length);
+      return ResponseEntity.ok().headers(headers)
+              .body(out -> transfer(file, 0, length, Channels.newChannel(out)));
+    }
+
+    long start;
+    long end;
+    try {
+      start = range.getRangeStart(length);
+      end = range.getRangeEnd(length);
+    } catch (IllegalArgumentException e) {
+      return unsatisfiable(headers, length);
+    }
+    if (start > end) {
+      return unsatisfiable(headers, length);
+    }
+    long first = start;
+    long count = end - start + 1;
+    headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    headers.setContentLength(count);
+    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+            .body(out -> transfer(file, first, count, Channels.newChannel(out)));
+  }
+
+  private void writeLogFile(LogTask task, LocalDate date, Runnable checkpoint)
+          throws IOException {
+    List<LogFileIndex.Range> ranges = logFileIndex.rangesForDate(date);
+    List<Path> archives = logArchiveReader.archivesFor(date);
+    task.setBytesTotal(ranges.stream().mapToLong(LogFileIndex.Range::length).sum()
+            + logArchiveReader.uncompressedSize(archives));
+    Files.createDirectories(logDir);
+    Path file = logDir.resolve("log-" + date + "-" + System.currentTimeMillis() + ".log");
+
+    try (FileChannel target = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      if (archives.isEmpty()) {
+        logFileIndex.copy(ranges, target, slice -> {
+          checkpoint.run();
+          task.addProgress(slice.remaining(), countLines(slice));
+        });
+      } else {
+        logArchiveReader.merge(date, archives, ranges, Channels.newOutputStream(target),
+                checkpoint, task::addProgress);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    task.setFilePath(file.toString());
+  }
+
+  private static long countLines(ByteBuffer slice) {
+    long lines = 0;
+    for (int i = slice.position(); i < slice.limit(); i++) {
+      if (slice.get(i) == '\n') {
+        lines++;
+      }
+    }
+    return lines;
+  }
+
+  private static LocalDate parseDate(String date) {
+    try {
+      return LocalDate.parse(date);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new ValidationException("Invalid date format, expected yyyy-MM-dd: " + date);
+    }
+  }
+
+  /**
+   * Возвращает запрошенный диапазон или null, если отдавать нужно весь файл.
+   *
+   * @throws IllegalArgumentException если заголовок Range некорректен
+   */
+  private static HttpRange requestedRange(HttpHeaders requestHeaders, String etag,
+          long lastModified) {
+    String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+    if (rangeHeader == null) {
+      return null;
+    }
+    String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(etag)) {
+      // Файл изменился с момента начала загрузки: отдаем его целиком
+      try {
+        if (requestHeaders.getFirstDate(HttpHeaders.IF_RANGE) / 1000 != lastModified / 1000) {
+          return null;
+        }
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+    // Несколько диапазонов сразу не нужны для докачки, на них отвечаем всем файлом
+    return ranges.size() == 1 ? ranges.get(0) : null;
+  }
+
+  private static ResponseEntity<StreamingResponseBody> unsatisfiable(
+          HttpHeaders headers, long length) {
+    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .headers(headers).build();
+  }
+
+  private static void transfer(Path file, long position, long count, WritableByteChannel target)
+          throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long end = position + count;
+      while (position < end) {
+        long sent = channel.transferTo(position, end - position, target);
+        if (sent <= 0) {
+          throw new EOFException("Log file is shorter than expected: " + file);
+        }
+        position += sent;
+      }
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.example.store.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченный неблокирующий кольцевой буфер для многих производителей и одного потребителя.
+ *
+ * <p>Каждая ячейка хранит порядковый номер, по которому производитель понимает,
+ * свободна ли она, а потребитель — опубликован ли в ней элемент. Производители
+ * занимают позиции через CAS на хвосте, потребитель читает без синхронизации.
+ * Метод {@link #poll()} должен вызываться только из одного потока.
+ *
+ * @param <E> тип элементов
+ */
+class MpscRingBuffer<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private volatile long head;
+
+  /**
+   * Создает буфер с емкостью, округленной вверх до степени двойки.
+   *
+   * @param capacity минимальная емкость буфера
+   */
+  MpscRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Добавляет элемент, если в буфере есть место.
+   *
+   * @param element добавляемый элемент
+   * @return false, если буфер заполнен
+   */
+  boolean offer(E element) {
+    long position;
+    while (true) {
+      position = tail.get();
+      long difference = sequences.get(index(position)) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (difference < 0) {
+        return false;
+      }
+    }
+    int index = index(position);
+    elements.lazySet(index, element);
+    sequences.lazySet(index, position + 1);
+    return true;
+  }
+
+  /**
+   * Извлекает следующий опубликованный элемент.
+   *
+   * @return элемент или null, если буфер пуст
+   */
+  E poll() {
+    long position = head;
+    int index = index(position);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    sequences.lazySet(index, position + mask + 1);
+    head = position + 1;
+    return element;
+  }
+
+  /**
+   * Приблизительное количество элементов в буфере.
+   *
+   * @return количество занятых ячеек
+   */
+  int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * Емкость буфера.
+   *
+   * @return количество ячеек
+   */
+  int capacity() {
+    return mask + 1;
+  }
+
+  private int index(long position) {
+    return (int) (position & mask);
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Выполняет обновления версионированных сущностей с повтором при конфликте версий.
+ *
+ * <p>Каждая попытка выполняется в отдельной транзакции. Если запись успели изменить
+ * параллельно, попытка повторяется с заново прочитанными данными после случайной
+ * паузы (экспоненциальный рост верхней границы, full jitter), но не больше заданного
+ * числа раз. Конфликты и исчерпанные повторы считаются по типам сущностей.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+  private final TransactionTemplate transactionTemplate;
+  private final int maxAttempts;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final Map<String, LongAdder> conflicts = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> exhausted = new ConcurrentHashMap<>();
+
+  /**
+   * Создает компонент повтора обновлений.
+   *
+   * @param transactionTemplate шаблон транзакций
+   * @param maxAttempts максимальное количество попыток
+   * @param baseDelay верхняя граница паузы перед первым повтором
+   * @param maxDelay максимальная верхняя граница паузы
+   */
+  public OptimisticLockRetry(
+          TransactionTemplate transactionTemplate,
+          @Value("${store.optimistic-lock.max-attempts:3}") int maxAttempts,
+          @Value("${store.optimistic-lock.base-delay:10ms}") Duration baseDelay,
+          @Value("${store.optimistic-lock.max-delay:200ms}") Duration maxDelay) {
+    this.transactionTemplate = transactionTemplate;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.baseDelayMillis = Math.max(1, baseDelay.toMillis());
+    this.maxDelayMillis = Math.max(baseDelayMillis, maxDelay.toMillis());
+  }
+
+  /**
+   * Выполняет обновление, повторяя его при конфликте версий.
+   *
+   * @param entity тип сущности для учета конфликтов
+   * @param update обновление, выполняемое в транзакции
+   * @param <T> тип результата
+   * @return результат успешной попытки
+   * @throws ResponseStatusException 409, если конфликт сохранился после всех попыток
+   */
+  public <T> T execute(String entity, Supplier<T> update) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> update.get());
+      } catch (OptimisticLockingFailureException e) {
+        conflicts.computeIfAbsent(entity, key -> new LongAdder()).increment();
+        if (attempt >= maxAttempts) {
+          exhausted.computeIfAbsent(entity, key -> new LongAdder()).increment();
+          log.warn("Version conflict on {} not resolved after {} attempts", entity, attempt);
+          throw new ResponseStatusException(HttpStatus.CONFLICT,
+                  "Concurrent modification of " + entity + ", please retry");
+        }
+        log.debug("Version conflict on {}, retrying (attempt {})", entity, attempt);
+        pause(attempt);
+      }
+    }
+  }
+
+  /**
+   * Проверяет версию, переданную клиентом, перед изменением сущности.
+   *
+   * <p>Такой конфликт не повторяется: клиент изменял устаревшие данные.
+   *
+   * @param entity тип сущности
+   * @param expected версия, известная клиенту, или null, если проверка не нужна
+   * @param actual текущая версия сущности
+   * @throws ResponseStatusException 409, если версии различаются
+   */
+  public void checkVersion(String entity, Long expected, Long actual) {
+    if (expected != null && !expected.equals(actual)) {
+      conflicts.computeIfAbsent(entity, key -> new LongAdder()).increment();
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+              "Stale " + entity + " version " + expected + ", current version is " + actual);
+    }
+  }
+
+  /**
+   * Возвращает счетчики конфликтов версий.
+   *
+   * @return Map с количеством конфликтов и исчерпанных повторов по типам сущностей
+   */
+  public Map<String, Long> stats() {
+    Map<String, Long> result = new TreeMap<>();
+    conflicts.forEach((entity, count) -> result.put(entity + ".conflicts", count.sum()));
+    exhausted.forEach((entity, count) -> result.put(entity + ".exhausted", count.sum()));
+    return result;
+  }
+
+  private void pause(int attempt) {
+    long bound = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Update interrupted");
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package com.example.store.service;
+
+import com.example.store.cache.NegativeCache;
+import com.example.store.dto.OrderIngestionStatus;
+import com.example.store.model.Order;
+import com.example.store.repository.OrderBulkRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Очередь асинхронной записи заказов для пиковой нагрузки.
+ *
+ * <p>Проверенные заказы кладутся в ограниченный неблокирующий кольцевой буфер,
+ * откуда единственный поток-писатель забирает их микропачками: пачка закрывается,
+ * когда набран заданный размер или истекло время ожидания после первого заказа,
+ * и записывается одной транзакцией через JDBC batch. Если буфер заполнен, заказ
+ * не принимается. Состояние каждого заказа хранится ограниченное время по
+ * идентификатору отслеживания.
+ */
+@Slf4j
+@Service
+public class OrderIngestionQueue implements ApplicationRunner {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long LINGER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+  private record Entry(String trackingId, Order order) {
+  }
+
+  private final OrderBulkRepository orderBulkRepository;
+  private final NegativeCache negativeCache;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final MpscRingBuffer<Entry> buffer;
+  private final Cache<String, OrderIngestionStatus> statuses;
+
+  private final AtomicLong enqueuedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicLong committedCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong commitNanosTotal = new AtomicLong();
+  private final AtomicLong lastCommitNanos = new AtomicLong();
+  private final AtomicLong maxCommitNanos = new AtomicLong();
+
+  private volatile Thread writer;
+  private volatile boolean running;
+  private volatile boolean writerIdle;
+
+  /**
+   * Создает очередь асинхронной записи заказов.
+   *
+   * @param orderBulkRepository репозиторий массовой вставки заказов
+   * @param negativeCache кэш отсутствующих идентификаторов
+   * @param enabled принимает ли POST /api/orders заказы через очередь
+   * @param capacity емкость буфера (округляется вверх до степени двойки)
+   * @param batchSize максимальное количество заказов в одной пачке
+   * @param linger максимальное ожидание добора пачки после первого заказа
+   * @param statusTtl время хранения состояния заказа
+   * @param statusMaxSize максимальное количество хранимых состояний
+   */
+  public OrderIngestionQueue(
+          OrderBulkRepository orderBulkRepository,
+          NegativeCache negativeCache,
+          @Value("${store.orders.ingest.enabled:false}") boolean enabled,
+          @Value("${store.orders.ingest.capacity:8192}") int capacity,
+          @Value("${store.orders.ingest.batch-size:500}") int batchSize,
+          @Value("${store.orders.ingest.linger:5ms}") Duration linger,
+          @Value("${store.orders.ingest.status-ttl:1h}") Duration statusTtl,
+          @Value("${store.orders.ingest.status-max-size:100000}") long statusMaxSize) {
+    this.orderBulkRepository = orderBulkRepository;
+    this.negativeCache = negativeCache;
+    this.enabled = enabled;
+    this.batchSize = Math.max(1, batchSize);
+    this.lingerNanos = linger.toNanos();
+    this.buffer = new MpscRingBuffer<>(capacity);
+    this.statuses = Caffeine.newBuilder()
+            .maximumSize(statusMaxSize)
+            .expireAfterWrite(statusTtl)
+            .build();
+  }
+
+  /**
+   * Включен ли прием заказов через очередь.
+   *
+   * @return true, если POST /api/orders должен ставить заказы в очередь
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (enabled) {
+      running = true;
+      writer = new Thread(this::runWriter, "order-ingest-writer");
+      writer.setDaemon(true);
+      writer.start();
+      log.info("Order ingestion queue started with capacity {}", buffer.capacity());
+    }
+  }
+
+  /**
+   * Останавливает поток-писатель, предварительно записав оставшиеся заказы.
+   *
+   * @throws InterruptedException если ожидание остановки прервано
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    Thread current = writer;
+    if (current != null) {
+      running = false;
+      LockSupport.unpark(current);
+      current.join(TimeUnit.SECONDS.toMillis(10));
+      if (!current.isAlive()) {
+        writer = null;
+      }
+    }
+  }
+
+  /**
+   * Ставит проверенный заказ в очередь записи.
+   *
+   * @param order заказ с рассчитанными ценами
+   * @return состояние принятого заказа или пустой Optional, если очередь заполнена
+   */
+  public Optional<OrderIngestionStatus> enqueue(Order order) {
+    String trackingId = UUID.randomUUID().toString();
+    OrderIngestionStatus status = OrderIngestionStatus.queued(trackingId);
+    statuses.put(trackingId, status);
+    order.setId(null);
+    if (!buffer.offer(new Entry(trackingId, order))) {
+      statuses.invalidate(trackingId);
+      rejectedCount.incrementAndGet();
+      return Optional.empty();
+    }
+    enqueuedCount.incrementAndGet();
+    Thread current = writer;
+    if (writerIdle && current != null) {
+      LockSupport.unpark(current);
+    }
+    return Optional.of(status);
+  }
+
+  /**
+   * Возвращает состояние заказа по идентификатору отслеживания.
+   *
+   * @param trackingId идентификатор отслеживания
+   * @return состояние заказа или пустой Optional, если идентификатор неизвестен или устарел
+   */
+  public Optional<OrderIngestionStatus> getStatus(String trackingId) {
+    return Optional.ofNullable(statuses.getIfPresent(trackingId));
+  }
+
+  /**
+   * Записывает все накопленные заказы в текущем потоке.
+   * Допустим только при остановленном потоке-писателе.
+   *
+   * @return количество обработанных заказов
+   * @throws IllegalStateException если поток-писатель запущен
+   */
+  public int drain() {
+    Thread current = writer;
+    if (current != null && current.isAlive()) {
+      throw new IllegalStateException("Order ingestion writer is running");
+    }
+    int processed = 0;
+    List<Entry> batch = new ArrayList<>(batchSize);
+    Entry entry;
+    while ((entry = buffer.poll()) != null) {
+      batch.add(entry);
+      if (batch.size() == batchSize) {
+        processed += write(batch);
+      }
+    }
+    return processed + write(batch);
+  }
+
+  /**
+   * Возвращает показатели очереди.
+   *
+   * @return Map с глубиной очереди, счетчиками и временем фиксации пачек
+   */
+  public Map<String, Number> stats() {
+    long batches = batchCount.get();
+    Map<String, Number> result = new LinkedHashMap<>();
+    result.put("queueDepth", buffer.size());
+    result.put("capacity", buffer.capacity());
+    result.put("enqueued", enqueuedCount.get());
+    result.put("rejected", rejectedCount.get());
+    result.put("committed", committedCount.get());
+    result.put("failed", failedCount.get());
+    result.put("batches", batches);
+    result.put("averageBatchSize", batches == 0 ? 0.0 : (double) committedCount.get() / batches);
+    result.put("lastCommitMillis", lastCommitNanos.get() / 1_000_000.0);
+    result.put("averageCommitMillis",
+            batches == 0 ? 0.0 : commitNanosTotal.get() / 1_000_000.0 / batches);
+    result.put("maxCommitMillis", maxCommitNanos.get() / 1_000_000.0);
+    return result;
+  }
+
+  private void runWriter() {
+    List<Entry> batch = new ArrayList<>(batchSize);
+    while (running || buffer.size() > 0) {
+      try {
+        collect(batch);
+        write(batch);
+      } catch (RuntimeException e) {
+        log.error("Order ingestion writer failed: {}", e.getMessage(), e);
+        batch.clear();
+      }
+    }
+    log.info("Order ingestion queue stopped");
+  }
+
+  private void collect(List<Entry> batch) {
+    Entry first = buffer.poll();
+    if (first == null) {
+      writerIdle = true;
+      if (running && buffer.size() == 0) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+      writerIdle = false;
+      return;
+    }
+    batch.add(first);
+    long deadline = System.nanoTime() + lingerNanos;
+    while (batch.size() < batchSize) {
+      Entry next = buffer.poll();
+      if (next != null) {
+        batch.add(next);
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || !running) {
+        break;
+      }
+      LockSupport.parkNanos(Math.min(remaining, LINGER_PARK_NANOS));
+    }
+  }
+
+  private int write(List<Entry> batch) {
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    int size = batch.size();
+    long start = System.nanoTime();
+    try {
+      orderBulkRepository.insertAll(batch.stream().map(Entry::order).toList());
+      recordCommit(System.nanoTime() - start);
+      batch.forEach(this::markCommitted);
+    } catch (RuntimeException e) {
+      // Одна ошибочная строка не должна отклонять всю пачку
+      log.warn("Order ingestion batch of {} failed, retrying one by one: {}",
+              size, e.getMessage());
+      for (Entry entry : batch) {
+        try {
+          orderBulkRepository.insertAll(List.of(entry.order()));
+          markCommitted(entry);
+        } catch (RuntimeException itemError) {
+          failedCount.incrementAndGet();
+          statuses.put(entry.trackingId(),
+                  OrderIngestionStatus.failed(entry.trackingId(), itemError.getMessage()));
+        }
+      }
+    }
+    batch.clear();
+    return size;
+  }
+
+  private void markCommitted(Entry entry) {
+    Long orderId = entry.order().getId();
+    committedCount.incrementAndGet();
+    negativeCache.invalidate(NegativeCache.Kind.ORDER, orderId);
+    statuses.put(entry.trackingId(), OrderIngestionStatus.committed(entry.trackingId(), orderId));
+  }
+
+  private void recordCommit(long nanos) {
+    batchCount.incrementAndGet();
+    commitNanosTotal.addAndGet(nanos);
+    lastCommitNanos.set(nanos);
+    maxCommitNanos.accumulateAndGet(nanos, Math::max);
+  }
+}
@@ -1,15 +1,34 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
+import com.example.store.cache.ProductCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.OrderBatchResult;
+import com.example.store.dto.OrderSummary;
+import com.example.store.exception.ValidationException;
 import com.example.store.model.Account;
 import com.example.store.model.Order;
 import com.example.store.model.Product;
 import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderBulkRepository;
 import com.example.store.repository.OrderRepository;
 import com.example.store.repository.ProductRepository;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -21,9 +40,16 @@ import org.springframework.web.server.ResponseStatusException;
 @AllArgsConstructor
 public class OrderService {
 
+  /** Максимальное количество заказов в одном пакетном запросе. */
+  public static final int MAX_BATCH_SIZE = 5000;
+
   private final OrderRepository orderRepository;
   private final ProductRepository productRepository;
   private final AccountRepository accountRepository;
+  private final ProductCache productCache;
+  private final OrderBulkRepository orderBulkRepository;
+  private final OptimisticLockRetry optimisticLockRetry;
+  private final NegativeCache negativeCache;
 
   /**
    * Получить все заказы.
@@ -34,6 +60,45 @@ public class OrderService {
     return orderRepository.findAll();
   }
 
+  /**
+   * Получить страницу заказов по курсору (keyset-пагинация по дате заказа и ID).
+   *
+   * @param cursor курсор предыдущей страницы или null для первой страницы
+   * @param size размер страницы (ограничивается {@link CursorPage#MAX_SIZE})
+   * @return страница заказов с курсором следующей страницы
+   * @throws ValidationException если курсор поврежден
+   */
+  public CursorPage<Order> getOrdersPage(String cursor, Integer size) {
+    int pageSize = CursorPage.clampSize(size);
+    Limit limit = Limit.of(pageSize + 1);
+    List<Order> fetched;
+    if (cursor == null || cursor.isBlank()) {
+      fetched = orderRepository.findAllByOrderByOrderDateAscIdAsc(limit);
+    } else {
+      String[] key = CursorPage.decodeCursor(cursor).split("\\|", 2);
+      if (key.length != 2) {
+        throw new ValidationException("Некорректный курсор страницы");
+      }
+      try {
+        fetched = orderRepository.findPageAfter(
+                LocalDateTime.parse(key[0]), Long.parseLong(key[1]), limit);
+      } catch (DateTimeParseException | NumberFormatException e) {
+        throw new ValidationException("Некорректный курсор страницы");
+      }
+    }
+    return CursorPage.of(fetched, pageSize, order -> order.getOrderDate() + "|" + order.getId());
+  }
+
+  /**
+   * Получить облегченные представления заказов без загрузки аккаунтов и продуктов.
+   *
+   * @param accountId идентификатор аккаунта для фильтрации или null
+   * @return список представлений заказов
+   */
+  public List<OrderSummary> getOrderSummaries(Long accountId) {
+    return orderRepository.findSummaries(accountId);
+  }
+
   /**
    * Получить заказ по ID.
    *
@@ -42,9 +107,15 @@ public class OrderService {
    * @throws ResponseStatusException если заказ не найден
    */
   public Order getOrderById(Long id) {
+    if (negativeCache.isKnownMissing(NegativeCache.Kind.ORDER, id)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+    }
+
     return orderRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(
-                    HttpStatus.NOT_FOUND, "Order not found"));
+            .orElseThrow(() -> {
+              AfterCommit.run(() -> negativeCache.markMissing(NegativeCache.Kind.ORDER, id));
+              return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+            });
   }
 
   /**
@@ -60,11 +131,35 @@ public class OrderService {
   /**
    * Создать новый заказ.
    *
+   * <p>Общая стоимость и цены позиций вычисляются по текущим ценам продуктов;
+   * значения, переданные клиентом, игнорируются.
+   *
    * @param order данные заказа
    * @return созданный заказ
    * @throws ResponseStatusException если не указан ID аккаунта или не найдены продукты
    */
+  @Transactional
   public Order createOrder(Order order) {
+    order.setId(null);
+    order.setVersion(null);
+    prepareOrder(order);
+    Order savedOrder = orderRepository.save(order);
+    negativeCache.invalidate(NegativeCache.Kind.ORDER, savedOrder.getId());
+    return savedOrder;
+  }
+
+  /**
+   * Проверяет аккаунт и продукты заказа и рассчитывает цены без сохранения.
+   *
+   * <p>Используется при создании заказа и перед постановкой заказа в очередь
+   * асинхронной записи ({@link OrderIngestionQueue}).
+   *
+   * @param order данные заказа
+   * @return тот же заказ с аккаунтом, ценами позиций и общей стоимостью
+   * @throws ResponseStatusException если не указан ID аккаунта или не найдены аккаунт и продукты
+   */
+  @Transactional(readOnly = true)
+  public Order prepareOrder(Order order) {
     if (order.getAccount() == null || order.getAccount().getId() == null) {
       throw new ResponseStatusException(
               HttpStatus.BAD_REQUEST, "Account ID is required");
@@ -75,43 +170,202 @@ public class OrderService {
                     HttpStatus.NOT_FOUND, "Account not found with id: "
                     + order.getAccount().getId()));
     order.setAccount(account);
+    applyProducts(order);
+    return order;
+  }
 
-    List<Product> products = productRepository.findAllById(order.getProductIds());
-    if (products.size() != order.getProductIds().size()) {
-      throw new ResponseStatusException(
-              HttpStatus.NOT_FOUND, "One or more products not found");
+  /**
+   * Создать несколько заказов одним пакетом.
+   *
+   * <p>Аккаунты и продукты всего пакета проверяются несколькими запросами {@code IN}
+   * (продукты — с учетом {@link ProductCache}), а прошедшие проверку заказы
+   * вставляются через JDBC batch. Ошибка в одном заказе не отменяет остальные:
+   * если пачка не вставилась, ее заказы повторяются по одному, и отказ
+   * записывается в результат соответствующего заказа.
+   *
+   * @param orders заказы для создания
+   * @return результаты обработки в порядке заказов в запросе
+   * @throws ValidationException если заказов больше {@link #MAX_BATCH_SIZE}
+   */
+  public List<OrderBatchResult> createOrders(List<Order> orders) {
+    if (orders.size() > MAX_BATCH_SIZE) {
+      throw new ValidationException(
+              "Too many orders in batch: " + orders.size() + " (max " + MAX_BATCH_SIZE + ")");
+    }
+    Set<Long> accountIds = new HashSet<>();
+    Set<Long> productIds = new HashSet<>();
+    for (Order order : orders) {
+      if (order.getAccount() != null && order.getAccount().getId() != null) {
+        accountIds.add(order.getAccount().getId());
+      }
+      if (order.getProductIds() != null) {
+        order.getProductIds().stream().filter(Objects::nonNull).forEach(productIds::add);
+      }
+    }
+    Set<Long> existingAccounts = accountIds.isEmpty()
+            ? Set.of() : new HashSet<>(accountRepository.findExistingIds(accountIds));
+    Map<Long, Product> products = productIds.isEmpty() ? Map.of() : findProducts(productIds);
+
+    OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+    List<Order> accepted = new ArrayList<>();
+    List<Integer> acceptedIndexes = new ArrayList<>();
+    for (int i = 0; i < orders.size(); i++) {
+      Order order = orders.get(i);
+      String error = validateBatchItem(order, existingAccounts, products);
+      if (error != null) {
+        results[i] = OrderBatchResult.failed(i, error);
+        continue;
+      }
+      Map<Long, Integer> unitPrices = new HashMap<>();
+      double totalPrice = 0;
+      for (Long productId : order.getProductIds()) {
+        int price = products.get(productId).getPrice();
+        unitPrices.put(productId, price);
+        totalPrice += price;
+      }
+      order.setId(null);
+      order.setUnitPrices(unitPrices);
+      order.setTotalPrice(totalPrice);
+      accepted.add(order);
+      acceptedIndexes.add(i);
     }
-    order.setProducts(products);
 
-    return orderRepository.save(order);
+    orderBulkRepository.insertAll(accepted, new OrderBulkRepository.ItemListener() {
+      private int next;
+
+      @Override
+      public void committed(Order order) {
+        int index = acceptedIndexes.get(next++);
+        negativeCache.invalidate(NegativeCache.Kind.ORDER, order.getId());
+        results[index] = OrderBatchResult.created(index, order.getId());
+      }
+
+      @Override
+      public void failed(Order order, RuntimeException error) {
+        int index = acceptedIndexes.get(next++);
+        results[index] = OrderBatchResult.failed(index, "Order could not be saved: "
+                + error.getMessage());
+      }
+    });
+    return Arrays.asList(results);
+  }
+
+  private static String validateBatchItem(
+          Order order, Set<Long> existingAccounts, Map<Long, Product> products) {
+    if (order.getAccount() == null || order.getAccount().getId() == null) {
+      return "Account ID is required";
+    }
+    if (!existingAccounts.contains(order.getAccount().getId())) {
+      return "Account not found with id: " + order.getAccount().getId();
+    }
+    if (order.getOrderDate() == null) {
+      return "Order date is required";
+    }
+    if (order.getProductIds() == null || order.getProductIds().isEmpty()) {
+      return "Product IDs are required";
+    }
+    List<Long> missing = order.getProductIds().stream()
+            .filter(id -> id == null || !products.containsKey(id))
+            .distinct()
+            .toList();
+    return missing.isEmpty() ? null : "Products not found: " + missing;
   }
 
   /**
    * Обновить существующий заказ.
    *
+   * <p>Заказ читается одним запросом и изменяется в контексте персистентности,
+   * без merge; списки продуктов и цен позиций заменяются целиком без загрузки
+   * прежних. Если заказ параллельно изменили, обновление повторяется с новыми
+   * данными ({@link OptimisticLockRetry}). Если клиент передал версию и она
+   * устарела, обновление отклоняется.
+   *
    * @param id идентификатор заказа
    * @param order новые данные заказа
    * @return обновленный заказ
-   * @throws ResponseStatusException если не найдены продукты
+   * @throws ResponseStatusException если заказ, аккаунт или продукты не найдены
+   *         или версия заказа устарела
    */
   public Order updateOrder(Long id, Order order) {
-    List<Product> products = productRepository.findAllById(order.getProductIds());
-    if (products.size() != order.getProductIds().size()) {
+    return optimisticLockRetry.execute("order", () -> {
+      Order existing = orderRepository.findById(id)
+              .orElseThrow(() -> new ResponseStatusException(
+                      HttpStatus.NOT_FOUND, "Order not found"));
+      optimisticLockRetry.checkVersion("order", order.getVersion(), existing.getVersion());
+
+      Long accountId = order.getAccount() == null ? null : order.getAccount().getId();
+      if (accountId != null && !accountId.equals(existing.getAccount().getId())) {
+        existing.setAccount(accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Account not found with id: " + accountId)));
+      }
+      existing.setOrderDate(order.getOrderDate());
+      existing.setProductIds(order.getProductIds());
+      applyProducts(existing);
+      // Заказ уже управляется контекстом: merge не нужен, изменения записывает flush
+      orderRepository.flush();
+      return existing;
+    });
+  }
+
+  /**
+   * Привязывает продукты к заказу, фиксирует их текущие цены и считает общую стоимость.
+   *
+   * <p>Цены берутся из {@link ProductCache}; промахи догружаются одним запросом к БД.
+   * В заказ подставляются те же загруженные экземпляры продуктов, а не ленивые ссылки:
+   * заказ сериализуется в ответ уже после завершения транзакции.
+   */
+  private void applyProducts(Order order) {
+    List<Long> productIds = order.getProductIds() == null ? List.of() : order.getProductIds();
+    Set<Long> uniqueIds = new HashSet<>(productIds);
+    Map<Long, Product> found = findProducts(uniqueIds);
+    if (!found.keySet().containsAll(uniqueIds)) {
       throw new ResponseStatusException(
               HttpStatus.NOT_FOUND, "One or more products not found");
     }
-    order.setId(id);
+
+    Map<Long, Integer> unitPrices = new HashMap<>();
+    List<Product> products = new ArrayList<>(productIds.size());
+    double totalPrice = 0;
+    for (Long productId : productIds) {
+      int price = found.get(productId).getPrice();
+      unitPrices.put(productId, price);
+      products.add(found.get(productId));
+      totalPrice += price;
+    }
     order.setProducts(products);
-    return orderRepository.save(order);
+    order.setUnitPrices(unitPrices);
+    order.setTotalPrice(totalPrice);
+  }
+
+  /**
+   * Находит продукты по идентификаторам: сначала в {@link ProductCache},
+   * промахи — одним запросом к БД с последующим заполнением кэша.
+   *
+   * <p>Непроверенные записи из снимка кэша считаются промахами, чтобы заказ
+   * не был посчитан по устаревшей цене.
+   */
+  private Map<Long, Product> findProducts(Collection<Long> ids) {
+    Map<Long, Product> found = new HashMap<>(productCache.getAllPresent(ids));
+    List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      List<Product> loaded = productRepository.findAllById(missing);
+      productCache.putAll(loaded);
+      loaded.forEach(product -> found.put(product.getId(), product));
+    }
+    return found;
   }
 
   /**
    * Удалить заказ по ID.
    *
+   * <p>Внутри транзакции заказ помечается отсутствующим только после ее фиксации.
+   *
    * @param id идентификатор заказа
    */
   public void deleteOrder(Long id) {
     orderRepository.deleteById(id);
+    AfterCommit.run(() -> negativeCache.markMissing(NegativeCache.Kind.ORDER, id));
   }
 
   /**
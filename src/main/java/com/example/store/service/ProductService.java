@@ -1,12 +1,31 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
 import com.example.store.cache.ProductCache;
+import com.example.store.cache.ProductIndex;
+import com.example.store.cache.ProductQueryCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.dto.ProductSummary;
+import com.example.store.exception.ValidationException;
+import com.example.store.model.Account;
 import com.example.store.model.Product;
-import com.example.store.repository.OrderRepository;
+import com.example.store.repository.AccountRepository;
+import com.example.store.repository.ProductBulkRepository;
 import com.example.store.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,19 +38,52 @@ import org.springframework.transaction.annotation.Transactional;
 @AllArgsConstructor
 public class ProductService {
 
+  /** Максимальное количество идентификаторов в одном запросе {@code IN}. */
+  static final int MAX_IDS_PER_QUERY = 1000;
+
   private final ProductRepository productRepository;
-  private final OrderRepository orderRepository;
   private final ProductCache productCache;
+  private final NegativeCache negativeCache;
+  private final ProductQueryCache productQueryCache;
+  private final ProductIndex productIndex;
+  private final ProductBulkRepository productBulkRepository;
+  private final AccountRepository accountRepository;
+  private final OptimisticLockRetry optimisticLockRetry;
 
   /**
-   * Получает список продуктов с возможностью фильтрации по категории и/или цене.
+   * Получает список продуктов с возможностью фильтрации по категории, цене
+   * и диапазону цен. Результат кэшируется по набору фильтров.
+   *
+   * <p>Если задан хотя бы один фильтр и индекс продуктов в памяти построен,
+   * идентификаторы подбираются по нему, а сами продукты берутся из кэша с догрузкой
+   * промахов запросами к БД по {@link #MAX_IDS_PER_QUERY} идентификаторов.
+   * Список без фильтров читается из БД одним запросом.
    *
    * @param category категория продукта (опционально)
    * @param price цена продукта (опционально)
+   * @param minPrice минимальная цена включительно (опционально)
+   * @param maxPrice максимальная цена включительно (опционально)
    * @return список продуктов, соответствующих критериям
    */
-  public List<Product> getProducts(String category, Integer price) {
-    if (category != null && price != null) {
+  @Cacheable(
+          cacheNames = ProductQueryCache.CACHE_NAME,
+          key = "T(com.example.store.cache.ProductQueryCache.Key)"
+                  + ".of(#category, #price, #minPrice, #maxPrice)")
+  public List<Product> getProducts(String category, Integer price,
+                                   Integer minPrice, Integer maxPrice) {
+    boolean filtered = category != null || price != null || minPrice != null || maxPrice != null;
+    if (filtered && productIndex.isReady()) {
+      return getProductsByIds(productIndex.findIds(category, price, minPrice, maxPrice));
+    }
+
+    if (minPrice != null || maxPrice != null) {
+      if (price != null) {
+        return productRepository.findByFilter(category,
+                minPrice == null ? price : Math.max(price, minPrice),
+                maxPrice == null ? price : Math.min(price, maxPrice));
+      }
+      return productRepository.findByFilter(category, minPrice, maxPrice);
+    } else if (category != null && price != null) {
       return productRepository.findByCategoryAndPrice(category, price);
     } else if (category != null) {
       return productRepository.findByCategory(category);
@@ -41,6 +93,48 @@ public class ProductService {
     return productRepository.findAll();
   }
 
+  private List<Product> getProductsByIds(long[] ids) {
+    List<Long> idList = Arrays.stream(ids).boxed().toList();
+    Map<Long, Product> found = new HashMap<>(productCache.getAllPresent(idList));
+    List<Long> missing = idList.stream().filter(id -> !found.containsKey(id)).toList();
+    for (int from = 0; from < missing.size(); from += MAX_IDS_PER_QUERY) {
+      List<Product> loaded = productRepository.findAllById(
+              missing.subList(from, Math.min(from + MAX_IDS_PER_QUERY, missing.size())));
+      productCache.putAll(loaded);
+      loaded.forEach(product -> found.put(product.getId(), product));
+    }
+    return idList.stream().map(found::get).filter(Objects::nonNull).toList();
+  }
+
+  /**
+   * Получает страницу продуктов по курсору (keyset-пагинация по ID).
+   *
+   * @param cursor курсор предыдущей страницы или null для первой страницы
+   * @param size размер страницы (ограничивается {@link CursorPage#MAX_SIZE})
+   * @return страница продуктов с курсором следующей страницы
+   */
+  public CursorPage<Product> getProductsPage(String cursor, Integer size) {
+    int pageSize = CursorPage.clampSize(size);
+    List<Product> fetched = productRepository.findByIdGreaterThanOrderByIdAsc(
+            CursorPage.decodeIdCursor(cursor), Limit.of(pageSize + 1));
+    return CursorPage.of(fetched, pageSize, product -> String.valueOf(product.getId()));
+  }
+
+  /**
+   * Получает облегченные представления продуктов с теми же фильтрами, что и
+   * {@link #getProducts}, без загрузки сущностей и их связей.
+   *
+   * @param category категория продукта (опционально)
+   * @param price цена продукта (опционально)
+   * @param minPrice минимальная цена включительно (опционально)
+   * @param maxPrice максимальная цена включительно (опционально)
+   * @return список представлений продуктов
+   */
+  public List<ProductSummary> getProductSummaries(String category, Integer price,
+                                                  Integer minPrice, Integer maxPrice) {
+    return productRepository.findSummaries(category, price, minPrice, maxPrice);
+  }
+
   /**
    * Находит продукт по идентификатору с использованием кэша.
    *
@@ -54,12 +148,16 @@ public class ProductService {
       return Optional.of(cachedProduct);
     }
 
-    // Если в кэше нет, получаем из БД
-    Optional<Product> product = productRepository.findById(id);
-
-    // Если нашли, кладем в кэш
-    product.ifPresent(productCache::put);
+    // Недавно не найденные ID отвечаем из памяти, не обращаясь к БД
+    if (negativeCache.isKnownMissing(NegativeCache.Kind.PRODUCT, id)) {
+      return Optional.empty();
+    }
 
+    // Если в кэше нет, получаем из БД; одновременные промахи делят одну загрузку
+    Optional<Product> product = productCache.load(id, productRepository::findById);
+    if (product.isEmpty()) {
+      negativeCache.markMissing(NegativeCache.Kind.PRODUCT, id);
+    }
     return product;
   }
 
@@ -70,31 +168,180 @@ public class ProductService {
    * @return сохраненный продукт
    */
   public Product saveProduct(Product product) {
+    // Прежние ключи выборок читаются до save: merge переносит новые значения
+    // на загруженную ранее сущность
+    ProductIndexEntry previous = product.getId() == null
+            ? null : productRepository.findIndexEntryById(product.getId()).orElse(null);
+    if (product.getAccount() != null && product.getAccount().getId() != null) {
+      product.setAccount(findAccount(product.getAccount().getId()));
+    }
     Product savedProduct = productRepository.save(product);
     productCache.put(savedProduct); // Обновляем кэш
+    productIndex.put(savedProduct);
+    negativeCache.invalidate(NegativeCache.Kind.PRODUCT, savedProduct.getId());
+    productQueryCache.evict(previous == null
+            ? List.of(savedProduct) : List.of(toQueryKeys(previous), savedProduct));
     return savedProduct;
   }
 
+  /**
+   * Обновляет существующий продукт и кэши.
+   *
+   * <p>Продукт читается и изменяется в контексте персистентности без merge.
+   * Если продукт параллельно изменили, обновление повторяется с новыми данными
+   * ({@link OptimisticLockRetry}); если клиент передал устаревшую версию,
+   * обновление отклоняется. Аккаунт меняется, только если он передан.
+   *
+   * @param id идентификатор продукта
+   * @param product новые данные продукта
+   * @return обновленный продукт
+   * @throws RuntimeException если продукт или аккаунт не найден
+   */
+  public Product updateProduct(Long id, Product product) {
+    // Прежние ключи выборок читаются отдельно: загруженная сущность изменяется на месте
+    ProductIndexEntry previous = productRepository.findIndexEntryById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found"));
+    Product savedProduct = optimisticLockRetry.execute("product", () -> {
+      Product existing = productRepository.findById(id)
+              .orElseThrow(() -> new RuntimeException("Product not found"));
+      optimisticLockRetry.checkVersion("product", product.getVersion(), existing.getVersion());
+
+      existing.setName(product.getName());
+      existing.setPrice(product.getPrice());
+      existing.setCategory(product.getCategory());
+      Long accountId = product.getAccount() == null ? null : product.getAccount().getId();
+      if (accountId != null && (existing.getAccount() == null
+              || !accountId.equals(existing.getAccount().getId()))) {
+        existing.setAccount(findAccount(accountId));
+      }
+      productRepository.flush();
+      return existing;
+    });
+
+    productCache.put(savedProduct);
+    productIndex.put(savedProduct);
+    productQueryCache.evict(List.of(toQueryKeys(previous), savedProduct));
+    return savedProduct;
+  }
+
+  // Продукт только с полями, по которым строятся ключи кэша выборок
+  private static Product toQueryKeys(ProductIndexEntry entry) {
+    return Product.builder()
+            .id(entry.id())
+            .category(entry.category())
+            .price(entry.price())
+            .build();
+  }
+
+  private Account findAccount(Long accountId) {
+    return accountRepository.findById(accountId)
+            .orElseThrow(() -> new RuntimeException("Account not found"));
+  }
+
+  /**
+   * Создает несколько новых продуктов массовой вставкой.
+   *
+   * <p>Аккаунты всех продуктов загружаются одним запросом до вставки и подставляются
+   * в продукты. Продукты вставляются пачками через JDBC batch, и кэш с индексами
+   * заполняются после фиксации каждой пачки, поэтому при сбое одной из пачек
+   * уже сохраненные продукты сразу видны в выборках.
+   *
+   * @param products продукты для создания
+   * @return созданные продукты с идентификаторами
+   * @throws ValidationException если какой-либо из аккаунтов не найден
+   */
+  public List<Product> saveProducts(List<Product> products) {
+    Set<Long> accountIds = new HashSet<>();
+    for (Product product : products) {
+      product.setId(null);
+      product.setVersion(null);
+      if (product.getAccount() != null && product.getAccount().getId() != null) {
+        accountIds.add(product.getAccount().getId());
+      }
+    }
+    Map<Long, Account> accounts = new HashMap<>();
+    if (!accountIds.isEmpty()) {
+      accountRepository.findAllById(accountIds)
+              .forEach(account -> accounts.put(account.getId(), account));
+      accountIds.removeAll(accounts.keySet());
+      if (!accountIds.isEmpty()) {
+        throw new ValidationException("Accounts not found: " + accountIds);
+      }
+    }
+    // В кэш попадают загруженные аккаунты, а не данные аккаунтов из запроса
+    for (Product product : products) {
+      Long accountId = product.getAccount() == null ? null : product.getAccount().getId();
+      product.setAccount(accountId == null ? null : accounts.get(accountId));
+    }
+    return productBulkRepository.insertAll(products, this::cacheInserted);
+  }
+
+  private void cacheInserted(List<Product> inserted) {
+    productCache.putAll(inserted);
+    productIndex.putAll(inserted);
+    inserted.forEach(product ->
+            negativeCache.invalidate(NegativeCache.Kind.PRODUCT, product.getId()));
+    productQueryCache.evict(inserted);
+  }
+
   /**
    * Удаляет продукт по идентификатору.
    *
-   * <p>Удаляет продукт из всех заказов, БД и кэша.
+   * <p>Удаляет продукт из всех заказов и из БД массовыми запросами без загрузки
+   * заказов, поэтому время не зависит от их количества. Кэши инвалидируются после
+   * фиксации транзакции.
    *
    * @param id идентификатор продукта для удаления
    * @throws RuntimeException если продукт не найден
    */
   @Transactional
   public void deleteProduct(Long id) {
-    Product product = productRepository.findById(id)
+    ProductIndexEntry entry = productRepository.findIndexEntryById(id)
             .orElseThrow(() -> new RuntimeException("Product not found"));
 
-    // Удаляем продукт из всех заказов
-    orderRepository.findByProductsContaining(product).forEach(order -> {
-      order.getProducts().remove(product);
-      orderRepository.save(order);
-    });
+    productRepository.deleteProductById(id);
+    evictDeleted(List.of(entry));
+  }
 
-    productRepository.delete(product);
-    productCache.remove(id);
+  /**
+   * Помечает продукт удаленным и сразу скрывает его из запросов и кэшей.
+   *
+   * <p>Связи с заказами и сама строка удаляются позже фоновой очисткой
+   * ({@link SoftDeletePurger}) небольшими пачками.
+   *
+   * @param id идентификатор продукта
+   * @throws RuntimeException если продукт не найден
+   */
+  @Transactional
+  public void softDeleteProduct(Long id) {
+    ProductIndexEntry entry = productRepository.findIndexEntryById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found"));
+
+    productRepository.softDeleteById(id);
+    evictDeleted(List.of(entry));
+  }
+
+  /**
+   * Удаляет из кэшей и индекса продукты, удаленные из БД массовыми запросами.
+   *
+   * <p>Внутри транзакции кэши очищаются только после ее фиксации.
+   *
+   * @param entries поля индексов удаленных продуктов
+   */
+  public void evictDeleted(Collection<ProductIndexEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    List<ProductIndexEntry> evicted = List.copyOf(entries);
+    AfterCommit.run(() -> {
+      List<Product> deleted = new ArrayList<>(evicted.size());
+      for (ProductIndexEntry entry : evicted) {
+        productCache.remove(entry.id());
+        productIndex.remove(entry.id());
+        negativeCache.markMissing(NegativeCache.Kind.PRODUCT, entry.id());
+        deleted.add(toQueryKeys(entry));
+      }
+      productQueryCache.evict(deleted);
+    });
   }
 }
\ No newline at end of file
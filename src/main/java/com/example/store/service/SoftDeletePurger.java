@@ -0,0 +1,123 @@
+package com.example.store.service;
+
+import com.example.store.repository.PurgeRepository;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Фоновая очистка мягко удаленных продуктов и аккаунтов.
+ *
+ * <p>Периодически находит помеченные строки и удаляет зависимые данные
+ * небольшими пачками, каждая в отдельной короткой транзакции с паузой между
+ * пачками. Сначала удаляются заказы удаленных аккаунтов, затем связи удаленных
+ * продуктов с заказами и сами продукты, в конце — опустевшие аккаунты.
+ */
+@Slf4j
+@Service
+public class SoftDeletePurger {
+
+  private final PurgeRepository purgeRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long pauseMillis;
+
+  /**
+   * Создает компонент очистки.
+   *
+   * @param purgeRepository репозиторий очистки
+   * @param transactionTemplate шаблон транзакций
+   * @param enabled включена ли фоновая очистка
+   * @param batchSize количество строк, удаляемых в одной транзакции
+   * @param pauseMillis пауза между пачками в миллисекундах
+   */
+  public SoftDeletePurger(
+          PurgeRepository purgeRepository,
+          TransactionTemplate transactionTemplate,
+          @Value("${store.purge.enabled:true}") boolean enabled,
+          @Value("${store.purge.batch-size:500}") int batchSize,
+          @Value("${store.purge.pause-ms:50}") long pauseMillis) {
+    this.purgeRepository = purgeRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.pauseMillis = pauseMillis;
+  }
+
+  /**
+   * Периодически запускает очистку.
+   */
+  @Scheduled(
+          initialDelayString = "${store.purge.interval-ms:10000}",
+          fixedDelayString = "${store.purge.interval-ms:10000}")
+  public void scheduledPurge() {
+    if (enabled) {
+      purge();
+    }
+  }
+
+  /**
+   * Физически удаляет помеченные продукты и аккаунты с их зависимыми строками.
+   *
+   * @return количество удаленных продуктов и аккаунтов
+   */
+  public int purge() {
+    long start = System.nanoTime();
+    long orders = 0;
+    long links = 0;
+    int removed = 0;
+    try {
+      List<Long> accountIds =
+              inTransaction(() -> purgeRepository.findDeletedAccountIds(batchSize));
+      for (Long accountId : accountIds) {
+        orders += drain(() -> purgeRepository.deleteAccountOrders(accountId, batchSize));
+      }
+
+      List<Long> productIds =
+              inTransaction(() -> purgeRepository.findDeletedProductIds(batchSize));
+      for (Long productId : productIds) {
+        links += drain(() -> purgeRepository.deleteProductLinks(productId, batchSize));
+        if (inTransaction(() -> purgeRepository.deleteProductIfUnreferenced(productId))) {
+          removed++;
+        }
+      }
+
+      for (Long accountId : accountIds) {
+        if (inTransaction(() -> purgeRepository.deleteAccountIfEmpty(accountId))) {
+          removed++;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Soft-delete purge interrupted");
+    }
+
+    if (removed > 0 || orders > 0 || links > 0) {
+      log.info("Purged {} products and accounts, {} orders and {} order links in {} ms",
+              removed, orders, links, (System.nanoTime() - start) / 1_000_000);
+    }
+    return removed;
+  }
+
+  private long drain(Supplier<Integer> batch) throws InterruptedException {
+    long total = 0;
+    int deleted;
+    do {
+      deleted = inTransaction(batch);
+      total += deleted;
+      if (deleted > 0 && pauseMillis > 0) {
+        Thread.sleep(pauseMillis);
+      }
+    } while (deleted >= batchSize);
+    return total;
+  }
+
+  private <T> T inTransaction(Supplier<T> action) {
+    return transactionTemplate.execute(status -> action.get());
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.store.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+  private final IdempotencyCache cache =
+          new IdempotencyCache(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+  private final AtomicInteger executions = new AtomicInteger();
+
+  private String create() {
+    return "order-" + executions.incrementAndGet();
+  }
+
+  @Test
+  void execute_shouldReturnOriginalResultForRepeats() {
+    String first = cache.execute("key", "a", this::create, result -> true);
+    String second = cache.execute("key", "a", this::create, result -> true);
+
+    assertEquals("order-1", first);
+    assertEquals(first, second);
+    assertEquals(1, executions.get());
+    assertEquals(1L, cache.stats().get("replayed"));
+  }
+
+  @Test
+  void execute_shouldRejectKeyReusedWithDifferentRequest() {
+    cache.execute("key", "a", this::create, result -> true);
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> cache.execute("key", "b", this::create, result -> true));
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void execute_shouldNotKeepFailuresOrNonCacheableResults() {
+    assertThrows(IllegalStateException.class, () -> cache.execute("key", "a", () -> {
+      throw new IllegalStateException("db down");
+    }, result -> true));
+    cache.execute("key", "a", this::create, result -> false);
+
+    assertEquals("order-2", cache.execute("key", "a", this::create, result -> true));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void execute_shouldMakeConcurrentDuplicateWaitForFirstRequest() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+            cache.execute("key", "a", () -> {
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return create();
+            }, result -> true));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+            cache.execute("key", "a", this::create, result -> true));
+    Thread.sleep(50);
+    assertFalse(duplicate.isDone());
+    release.countDown();
+
+    assertEquals("order-1", first.get(5, TimeUnit.SECONDS));
+    assertEquals("order-1", duplicate.get(5, TimeUnit.SECONDS));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void execute_shouldReturnConflictWhenFirstRequestTakesTooLong() throws Exception {
+    IdempotencyCache shortWait =
+            new IdempotencyCache(100, Duration.ofMinutes(1), Duration.ofMillis(20));
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+            shortWait.execute("key", "a", () -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return create();
+            }, result -> true));
+    while (shortWait.stats().get("executed").longValue() == 0) {
+      Thread.onSpinWait();
+    }
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> shortWait.execute("key", "a", this::create, result -> true));
+    assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    release.countDown();
+    assertEquals("order-1", first.get(5, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.store.cache;
+
+import com.example.store.model.Account;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheSnapshotTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @TempDir
+  Path tempDir;
+
+  private ProductCache createCache() {
+    return new ProductCache(productRepository, 1024 * 1024, Duration.ZERO, Duration.ZERO);
+  }
+
+  @Test
+  void saveAndRestore_shouldRoundTripProducts() {
+    Path snapshot = tempDir.resolve("products.snapshot");
+    ProductCache source = createCache();
+    Account account = Account.builder()
+            .id(7L).nickname("nick").firstName("Имя").lastName("Last").email("a@b.c").build();
+    source.put(Product.builder().id(1L).name("Товар").price(100).category("Books")
+            .account(account).build());
+    source.put(Product.builder().id(2L).name("Other").price(50).category("Toys").build());
+
+    int saved = new ProductCacheSnapshot(source, true, snapshot.toString(), 100).save();
+
+    ProductCache target = createCache();
+    int restored = new ProductCacheSnapshot(target, true, snapshot.toString(), 100).restore();
+
+    assertEquals(2, saved);
+    assertEquals(2, restored);
+    assertEquals(2, target.stats().get("unverifiedCount"));
+    Map<Long, Product> decoded = target.hottest(10).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    Product product = decoded.get(1L);
+    assertEquals("Товар", product.getName());
+    assertEquals(100, product.getPrice());
+    assertEquals("Books", product.getCategory());
+    assertEquals(7L, product.getAccount().getId());
+    assertNull(product.getAccount().getFirstName());
+    assertNull(product.getAccount().getEmail());
+    assertNull(decoded.get(2L).getAccount());
+  }
+
+  @Test
+  void get_shouldReloadRestoredEntryBeforeReturningIt() {
+    Path snapshot = tempDir.resolve("products.snapshot");
+    ProductCache source = createCache();
+    source.put(Product.builder().id(1L).name("Old").price(100).category("Books")
+            .account(Account.builder().id(7L).build()).build());
+    new ProductCacheSnapshot(source, true, snapshot.toString(), 100).save();
+    ProductCache target = createCache();
+    new ProductCacheSnapshot(target, true, snapshot.toString(), 100).restore();
+    Product fresh = Product.builder().id(1L).version(4L).name("New").price(120).category("Books")
+            .account(Account.builder().id(7L).nickname("owner").build()).build();
+    when(productRepository.findWithAssociationsById(1L)).thenReturn(Optional.of(fresh));
+
+    Product product = target.get(1L);
+
+    assertSame(fresh, product);
+    assertEquals(4L, product.getVersion());
+    assertEquals("owner", product.getAccount().getNickname());
+    assertEquals(0, target.stats().get("unverifiedCount"));
+    assertSame(fresh, target.get(1L));
+    verify(productRepository, times(1)).findWithAssociationsById(1L);
+  }
+
+  @Test
+  void get_shouldDropRestoredEntryDeletedSinceSnapshot() {
+    ProductCache target = createCache();
+    target.putUnverified(List.of(Product.builder().id(1L).name("Gone").price(1).category("c")
+            .build()));
+    when(productRepository.findWithAssociationsById(1L)).thenReturn(Optional.empty());
+
+    assertNull(target.get(1L));
+    assertEquals(0, target.size());
+  }
+
+  @Test
+  void restore_shouldIgnoreUnknownFormat() throws Exception {
+    Path snapshot = tempDir.resolve("products.snapshot");
+    Files.write(snapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+    ProductCache target = createCache();
+
+    int restored = new ProductCacheSnapshot(target, true, snapshot.toString(), 100).restore();
+
+    assertEquals(0, restored);
+    assertEquals(0, target.size());
+  }
+
+  @Test
+  void save_shouldNotWriteAccountPersonalData() throws Exception {
+    Path snapshot = tempDir.resolve("products.snapshot");
+    ProductCache source = createCache();
+    Account account = Account.builder()
+            .id(7L).nickname("nick").firstName("First").lastName("Last").email("a@b.c").build();
+    source.put(Product.builder().id(1L).name("Item").price(100).account(account).build());
+
+    new ProductCacheSnapshot(source, true, snapshot.toString(), 100).save();
+
+    String content = new String(Files.readAllBytes(snapshot), StandardCharsets.UTF_8);
+    assertTrue(content.contains("Item"));
+    assertFalse(content.contains("nick"));
+    assertFalse(content.contains("First"));
+    assertFalse(content.contains("Last"));
+    assertFalse(content.contains("a@b.c"));
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.store.cache;
+
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  private ProductCache productCache;
+
+  @BeforeEach
+  void setUp() {
+    productCache = new ProductCache(productRepository, 1024 * 1024, Duration.ZERO, Duration.ZERO);
+  }
+
+  private Product createTestProduct(Long id, String name) {
+    return Product.builder()
+            .id(id)
+            .name(name)
+            .price(100)
+            .category("Electronics")
+            .build();
+  }
+
+  @Test
+  void get_shouldReturnPutProduct() {
+    Product product = createTestProduct(1L, "Product 1");
+
+    productCache.put(product);
+
+    assertSame(product, productCache.get(1L));
+    assertEquals(1, productCache.size());
+  }
+
+  @Test
+  void put_shouldIgnoreProductWithoutId() {
+    productCache.put(createTestProduct(null, "No id"));
+
+    assertEquals(0, productCache.size());
+  }
+
+  @Test
+  void remove_shouldInvalidateEntry() {
+    productCache.put(createTestProduct(1L, "Product 1"));
+
+    productCache.remove(1L);
+
+    assertNull(productCache.get(1L));
+  }
+
+  @Test
+  void stats_shouldCountHitsAndMisses() {
+    productCache.put(createTestProduct(1L, "Product 1"));
+
+    productCache.get(1L);
+    productCache.get(2L);
+
+    Map<String, Number> stats = productCache.stats();
+    assertEquals(1L, stats.get("hitCount"));
+    assertEquals(1L, stats.get("missCount"));
+  }
+
+  @Test
+  void estimateWeight_shouldGrowWithStringLengths() {
+    int small = ProductCache.estimateWeight(createTestProduct(1L, "a"));
+    int large = ProductCache.estimateWeight(createTestProduct(1L, "a".repeat(100)));
+
+    assertTrue(large > small);
+  }
+
+  @Test
+  void load_shouldCoalesceConcurrentMisses() throws Exception {
+    Product product = createTestProduct(1L, "Product 1");
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Optional<Product>>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> productCache.load(1L, id -> {
+          loads.incrementAndGet();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return Optional.of(product);
+        })));
+      }
+      Thread.sleep(200);
+      release.countDown();
+
+      for (Future<Optional<Product>> result : results) {
+        assertSame(product, result.get(5, TimeUnit.SECONDS).orElseThrow());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, loads.get());
+    assertSame(product, productCache.get(1L));
+  }
+
+  @Test
+  void load_shouldPropagateLoaderFailure() {
+    RuntimeException failure = new IllegalStateException("db down");
+
+    RuntimeException thrown = assertThrows(RuntimeException.class,
+            () -> productCache.load(1L, id -> {
+              throw failure;
+            }));
+
+    assertSame(failure, thrown);
+    assertEquals(1L, productCache.stats().get("loadFailureCount"));
+  }
+
+  @Test
+  void load_shouldReturnDeletedProductWithoutCachingIt() {
+    Product product = createTestProduct(1L, "Deleted");
+    product.setDeleted(true);
+
+    Optional<Product> loaded = productCache.load(1L, id -> Optional.of(product));
+
+    assertSame(product, loaded.orElseThrow());
+    assertNull(productCache.get(1L));
+    assertEquals(0, productCache.size());
+  }
+
+  @Test
+  void getAllPresent_shouldSkipUnverifiedEntries() {
+    Product verified = createTestProduct(1L, "Verified");
+    productCache.put(verified);
+    productCache.putUnverified(List.of(createTestProduct(2L, "From snapshot")));
+
+    Map<Long, Product> present = productCache.getAllPresent(List.of(1L, 2L));
+
+    assertEquals(Map.of(1L, verified), present);
+  }
+}
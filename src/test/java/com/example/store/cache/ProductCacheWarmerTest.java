@@ -0,0 +1,76 @@
+package com.example.store.cache;
+
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheWarmerTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private ProductCache productCache;
+
+  private List<Product> createTestProducts(long fromId, int count) {
+    return LongStream.range(fromId, fromId + count)
+            .mapToObj(id -> Product.builder().id(id).name("P" + id).price(1).category("c").build())
+            .toList();
+  }
+
+  @Test
+  void warmUp_shouldLoadHotSetInKeysetPages() throws InterruptedException {
+    when(productRepository.findIdsBefore(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+      long before = Math.min(invocation.<Long>getArgument(0), 31L);
+      int limit = invocation.<Limit>getArgument(1).max();
+      return LongStream.iterate(before - 1, id -> id > 0, id -> id - 1).limit(limit).boxed().toList();
+    });
+    when(productRepository.findWithAssociationsByIdIn(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<Long>>getArgument(0).stream()
+                    .map(id -> createTestProducts(id, 1).get(0))
+                    .toList());
+    ProductCacheWarmer warmer = new ProductCacheWarmer(productRepository, productCache, true, 25, 10, 2);
+
+    long loaded = warmer.warmUp();
+
+    assertEquals(25, loaded);
+    verify(productRepository).findIdsBefore(Long.MAX_VALUE, Limit.of(10));
+    verify(productRepository).findIdsBefore(21L, Limit.of(10));
+    verify(productRepository).findIdsBefore(11L, Limit.of(5));
+    verify(productRepository, times(3)).findWithAssociationsByIdIn(anyCollection());
+    verify(productCache, times(3)).putAll(any(Collection.class));
+    assertEquals(25L, warmer.stats().get("loadedCount"));
+  }
+
+  @Test
+  void warmUp_shouldStopWhenTableIsExhausted() throws InterruptedException {
+    when(productRepository.findIdsBefore(Long.MAX_VALUE, Limit.of(10))).thenReturn(List.of(3L, 2L, 1L));
+    when(productRepository.findWithAssociationsByIdIn(List.of(3L, 2L, 1L)))
+            .thenReturn(createTestProducts(1, 3));
+    ProductCacheWarmer warmer = new ProductCacheWarmer(productRepository, productCache, true, 25, 10, 2);
+
+    assertEquals(3, warmer.warmUp());
+    verify(productRepository, times(1)).findIdsBefore(anyLong(), any(Limit.class));
+  }
+
+  @Test
+  void run_shouldSkipWhenDisabled() throws InterruptedException {
+    ProductCacheWarmer warmer = new ProductCacheWarmer(productRepository, productCache, false, 25, 10, 2);
+
+    warmer.run(null);
+
+    verifyNoInteractions(productRepository, productCache);
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.store.cache;
+
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.model.Product;
+import com.example.store.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  private ProductIndex productIndex;
+
+  @BeforeEach
+  void setUp() {
+    when(productRepository.findAllIndexEntries()).thenReturn(List.of(
+            new ProductIndexEntry(1L, "Books", 100),
+            new ProductIndexEntry(2L, "Books", 200),
+            new ProductIndexEntry(3L, "Toys", 100),
+            new ProductIndexEntry(4L, "Toys", 300)));
+    productIndex = new ProductIndex(productRepository, true);
+    productIndex.rebuild();
+  }
+
+  @Test
+  void rebuild_shouldMarkIndexReady() {
+    assertTrue(productIndex.isReady());
+    assertArrayEquals(new long[] {1L, 2L, 3L, 4L}, productIndex.findIds(null, null, null, null));
+  }
+
+  @Test
+  void findIds_shouldFilterByCategory() {
+    assertArrayEquals(new long[] {1L, 2L}, productIndex.findIds("Books", null, null, null));
+    assertArrayEquals(new long[0], productIndex.findIds("Unknown", null, null, null));
+  }
+
+  @Test
+  void findIds_shouldFilterByExactPriceAndRange() {
+    assertArrayEquals(new long[] {1L, 3L}, productIndex.findIds(null, 100, null, null));
+    assertArrayEquals(new long[] {2L, 4L}, productIndex.findIds(null, null, 150, null));
+    assertArrayEquals(new long[] {1L, 2L, 3L}, productIndex.findIds(null, null, null, 250));
+    assertArrayEquals(new long[0], productIndex.findIds(null, null, 250, 150));
+  }
+
+  @Test
+  void findIds_shouldCombineCategoryAndPrice() {
+    assertArrayEquals(new long[] {3L}, productIndex.findIds("Toys", 100, null, null));
+    assertArrayEquals(new long[] {4L}, productIndex.findIds("Toys", null, 150, 400));
+  }
+
+  @Test
+  void put_shouldMoveProductBetweenCategoriesAndPrices() {
+    productIndex.put(Product.builder().id(1L).category("Toys").price(500).build());
+
+    assertArrayEquals(new long[] {2L}, productIndex.findIds("Books", null, null, null));
+    assertArrayEquals(new long[] {1L}, productIndex.findIds(null, null, 400, null));
+    assertArrayEquals(new long[] {3L}, productIndex.findIds(null, 100, null, null));
+  }
+
+  @Test
+  void remove_shouldDropProductFromAllIndexes() {
+    productIndex.remove(3L);
+
+    assertArrayEquals(new long[] {4L}, productIndex.findIds("Toys", null, null, null));
+    assertArrayEquals(new long[] {1L}, productIndex.findIds(null, 100, null, null));
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.store.cache;
+
+import com.example.store.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQueryCacheTest {
+
+  private Cache cache;
+  private ProductQueryCache productQueryCache;
+
+  @BeforeEach
+  void setUp() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager(ProductQueryCache.CACHE_NAME);
+    cache = cacheManager.getCache(ProductQueryCache.CACHE_NAME);
+    productQueryCache = new ProductQueryCache(cacheManager);
+    for (ProductQueryCache.Key key : List.of(
+            ProductQueryCache.Key.of(null, null),
+            ProductQueryCache.Key.of("Books", null),
+            ProductQueryCache.Key.of("Books", 100),
+            ProductQueryCache.Key.of("Books", 200),
+            ProductQueryCache.Key.of("Toys", null),
+            ProductQueryCache.Key.of(null, 100),
+            ProductQueryCache.Key.of(null, 200))) {
+      cache.put(key, List.of());
+    }
+  }
+
+  private boolean isCached(String category, Integer price) {
+    return cache.get(ProductQueryCache.Key.of(category, price)) != null;
+  }
+
+  @Test
+  void evict_shouldRemoveOnlyAffectedQueries() {
+    Product product = Product.builder().id(1L).name("Book").price(100).category("Books").build();
+
+    productQueryCache.evict(List.of(product));
+
+    assertFalse(isCached(null, null));
+    assertFalse(isCached("Books", null));
+    assertFalse(isCached("Books", 100));
+    assertFalse(isCached(null, 100));
+    assertTrue(isCached("Books", 200));
+    assertTrue(isCached("Toys", null));
+    assertTrue(isCached(null, 200));
+  }
+
+  @Test
+  void evict_shouldRemoveRangeQueriesContainingPrice() {
+    cache.put(ProductQueryCache.Key.of(null, null, 50, 150), List.of());
+    cache.put(ProductQueryCache.Key.of(null, null, 300, null), List.of());
+    Product product = Product.builder().id(1L).name("Toy").price(120).category("Toys").build();
+
+    productQueryCache.evict(List.of(product));
+
+    assertNull(cache.get(ProductQueryCache.Key.of(null, null, 50, 150)));
+    assertNotNull(cache.get(ProductQueryCache.Key.of(null, null, 300, null)));
+  }
+
+  @Test
+  void evict_shouldIgnoreEmptyChanges() {
+    productQueryCache.evict(List.of());
+
+    assertTrue(isCached(null, null));
+  }
+}
@@ -0,0 +1,112 @@
+package com.example.store.repository;
+
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+class OptimisticLockingTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Product book;
+  private Product game;
+  private Long orderId;
+
+  @BeforeEach
+  void setUp() {
+    Account account = testEntityManager.persist(Account.builder()
+            .nickname("buyer")
+            .firstName("First")
+            .lastName("Last")
+            .email("buyer@test.com")
+            .build());
+    book = testEntityManager.persist(
+            Product.builder().name("Book").price(100).category("books").account(account).build());
+    game = testEntityManager.persist(
+            Product.builder().name("Game").price(30).category("games").account(account).build());
+    orderId = testEntityManager.persist(Order.builder()
+            .orderDate(LocalDateTime.of(2025, 1, 1, 10, 0))
+            .totalPrice(100)
+            .account(account)
+            .products(new ArrayList<>(List.of(book)))
+            .unitPrices(Map.of(book.getId(), 100))
+            .build()).getId();
+    testEntityManager.flush();
+    testEntityManager.clear();
+  }
+
+  @Test
+  void update_shouldIncrementVersion() {
+    Product product = productRepository.findById(book.getId()).orElseThrow();
+    assertEquals(0L, product.getVersion());
+
+    product.setPrice(120);
+    productRepository.flush();
+
+    assertEquals(1L, product.getVersion());
+  }
+
+  @Test
+  void update_shouldFailWhenRowChangedConcurrently() {
+    Product product = productRepository.findById(book.getId()).orElseThrow();
+    jdbcTemplate.update("UPDATE products SET version = version + 1 WHERE id = ?", book.getId());
+
+    product.setPrice(120);
+
+    assertThrows(ObjectOptimisticLockingFailureException.class, productRepository::flush);
+  }
+
+  @Test
+  void orderUpdate_shouldReplaceCollectionsWithoutLoadingThem() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    Order order = orderRepository.findById(orderId).orElseThrow();
+    order.setProducts(new ArrayList<>(List.of(productRepository.getReferenceById(game.getId()))));
+    order.setUnitPrices(Map.of(game.getId(), 30));
+    order.setTotalPrice(30);
+    orderRepository.flush();
+
+    assertEquals(0, statistics.getCollectionLoadCount());
+    assertEquals(1L, order.getVersion());
+    testEntityManager.clear();
+    Order stored = orderRepository.findById(orderId).orElseThrow();
+    assertEquals(List.of(game.getId()), stored.getProducts().stream().map(Product::getId).toList());
+    assertEquals(Map.of(game.getId(), 30), stored.getUnitPrices());
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.store.repository;
+
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "store.orders.bulk.batch-size=2"
+})
+@Import(OrderBulkRepository.class)
+class OrderBulkRepositoryTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private OrderBulkRepository orderBulkRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  private Account account;
+  private Product book;
+  private Product game;
+
+  @BeforeEach
+  void setUp() {
+    account = testEntityManager.persist(Account.builder()
+            .nickname("buyer")
+            .firstName("First")
+            .lastName("Last")
+            .email("buyer@test.com")
+            .build());
+    book = testEntityManager.persist(
+            Product.builder().name("Book").price(100).category("books").account(account).build());
+    game = testEntityManager.persist(
+            Product.builder().name("Game").price(30).category("games").account(account).build());
+    testEntityManager.flush();
+    testEntityManager.clear();
+  }
+
+  private Order order(int day, Product... products) {
+    List<Long> productIds = new ArrayList<>();
+    double total = 0;
+    for (Product product : products) {
+      productIds.add(product.getId());
+      total += product.getPrice();
+    }
+    return Order.builder()
+            .orderDate(LocalDateTime.of(2025, 1, day, 10, 0))
+            .totalPrice(total)
+            .account(Account.builder().id(account.getId()).build())
+            .productIds(productIds)
+            .unitPrices(Map.of(book.getId(), book.getPrice(), game.getId(), game.getPrice()))
+            .build();
+  }
+
+  @Test
+  void insertAll_shouldInsertOrdersWithProductsAndPricesAcrossChunks() {
+    List<Order> orders = List.of(order(1, book), order(2, book, game), order(3, game, game));
+
+    orderBulkRepository.insertAll(orders);
+    testEntityManager.clear();
+
+    assertTrue(orders.stream().allMatch(order -> order.getId() != null));
+    assertEquals(3, orders.stream().map(Order::getId).distinct().count());
+    Order stored = orderRepository.findById(orders.get(2).getId()).orElseThrow();
+    assertEquals(60.0, stored.getTotalPrice());
+    assertEquals(2, stored.getProducts().size());
+    assertEquals(game.getPrice(), stored.getUnitPrices().get(game.getId()));
+    assertEquals(List.of(account.getId()),
+            accountRepository.findExistingIds(List.of(account.getId(), 999L)));
+  }
+
+  @Test
+  void insertAll_shouldRetryFailedChunkOneByOneAndReportEachOrder() {
+    Order first = order(1, book);
+    Order orphan = order(2, game);
+    orphan.setAccount(Account.builder().id(999L).build());
+    Order last = order(3, game);
+    List<Order> committed = new ArrayList<>();
+    List<Order> failed = new ArrayList<>();
+
+    orderBulkRepository.insertAll(List.of(first, orphan, last),
+            new OrderBulkRepository.ItemListener() {
+              @Override
+              public void committed(Order order) {
+                committed.add(order);
+              }
+
+              @Override
+              public void failed(Order order, RuntimeException error) {
+                failed.add(order);
+              }
+            });
+
+    assertEquals(List.of(first, last), committed);
+    assertEquals(List.of(orphan), failed);
+    assertNull(orphan.getId());
+    assertTrue(orderRepository.findById(first.getId()).isPresent());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.store.repository;
+
+import com.example.store.model.Account;
+import com.example.store.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "store.products.bulk.batch-size=1"
+})
+@Import(ProductBulkRepository.class)
+class ProductBulkRepositoryTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private ProductBulkRepository productBulkRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Test
+  void insertAll_shouldInsertVisibleVersionedRowsAndReportEachChunk() {
+    Account account = testEntityManager.persist(Account.builder()
+            .nickname("seller")
+            .firstName("First")
+            .lastName("Last")
+            .email("seller@test.com")
+            .build());
+    testEntityManager.flush();
+    List<Product> products = List.of(
+            Product.builder().name("Book").price(100).category("books").account(account).build(),
+            Product.builder().name("Game").price(30).category("games").build());
+    List<List<Product>> chunks = new ArrayList<>();
+
+    productBulkRepository.insertAll(products, chunks::add);
+    testEntityManager.clear();
+
+    assertEquals(2, chunks.size());
+    for (Product product : products) {
+      assertNotNull(product.getId());
+      assertEquals(0L, product.getVersion());
+      Product stored = productRepository.findById(product.getId()).orElseThrow();
+      assertEquals(0L, stored.getVersion());
+      assertEquals(product.getName(), stored.getName());
+    }
+    assertEquals(account.getId(),
+            productRepository.findById(products.get(0).getId()).orElseThrow().getAccount().getId());
+  }
+}
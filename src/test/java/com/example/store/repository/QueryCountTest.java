@@ -0,0 +1,242 @@
+package com.example.store.repository;
+
+import com.example.store.dto.OrderSummary;
+import com.example.store.dto.ProductSummary;
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет количество SQL-запросов, которые выполняют списочные эндпоинты,
+ * включая ленивые загрузки во время сериализации ответа в JSON.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+class QueryCountTest {
+
+  private static final int ACCOUNTS = 4;
+  private static final int PRODUCTS_PER_ACCOUNT = 5;
+  private static final int ORDERS_PER_ACCOUNT = 3;
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private Statistics statistics;
+  private Long firstAccountId;
+
+  @BeforeEach
+  void setUp() {
+    List<Product> allProducts = new ArrayList<>();
+    for (int a = 0; a < ACCOUNTS; a++) {
+      Account account = testEntityManager.persist(Account.builder()
+              .nickname("user" + a)
+              .firstName("First" + a)
+              .lastName("Last" + a)
+              .email("user" + a + "@test.com")
+              .build());
+      if (firstAccountId == null) {
+        firstAccountId = account.getId();
+      }
+      for (int p = 0; p < PRODUCTS_PER_ACCOUNT; p++) {
+        allProducts.add(testEntityManager.persist(Product.builder()
+                .name("Product " + a + "-" + p)
+                .price(100 + p)
+                .category(p % 2 == 0 ? "books" : "games")
+                .account(account)
+                .build()));
+      }
+      for (int o = 0; o < ORDERS_PER_ACCOUNT; o++) {
+        testEntityManager.persist(Order.builder()
+                .orderDate(LocalDateTime.of(2025, 1, 1, 10, 0).plusHours(o))
+                .totalPrice(0)
+                .account(account)
+                .products(new ArrayList<>(allProducts.subList(
+                        allProducts.size() - PRODUCTS_PER_ACCOUNT + o, allProducts.size())))
+                .build());
+      }
+    }
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  private long countStatements(Supplier<List<?>> endpoint) throws Exception {
+    statistics.clear();
+    List<?> result = endpoint.get();
+    assertFalse(result.isEmpty());
+    // Сериализация вызывает ленивые загрузки так же, как при ответе контроллера
+    objectMapper.writeValueAsString(result);
+    testEntityManager.clear();
+    return statistics.getPrepareStatementCount();
+  }
+
+  @Test
+  void getAllOrders_shouldUseConstantStatements() throws Exception {
+    // Заказы с аккаунтами и продуктами + пачка цен позиций
+    assertEquals(2, countStatements(orderRepository::findAll));
+  }
+
+  @Test
+  void getOrdersByAccount_shouldUseConstantStatements() throws Exception {
+    assertEquals(2, countStatements(() -> orderRepository.findByAccountId(firstAccountId)));
+  }
+
+  @Test
+  void getOrdersByProductCategory_shouldUseConstantStatements() throws Exception {
+    assertEquals(2, countStatements(
+            () -> orderRepository.findOrdersByProductCategoryJpql("books")));
+  }
+
+  @Test
+  void getOrdersByProductPrice_shouldBatchCollectionLoads() throws Exception {
+    // Нативный запрос не поддерживает entity graph: заказы + пачки аккаунтов, продуктов и цен
+    assertEquals(4, countStatements(() -> orderRepository.findOrdersByProductPriceNative(104)));
+  }
+
+  @Test
+  void getAllAccounts_shouldBatchOrderProducts() throws Exception {
+    // Аккаунты с заказами + пачка продуктов заказов + пачка цен позиций
+    assertEquals(3, countStatements(accountRepository::findAll));
+  }
+
+  @Test
+  void getAllProducts_shouldUseSingleStatement() throws Exception {
+    assertEquals(1, countStatements(productRepository::findAll));
+  }
+
+  @Test
+  void getProductsByFilters_shouldUseSingleStatement() throws Exception {
+    assertEquals(1, countStatements(() -> productRepository.findByCategory("books")));
+    assertEquals(1, countStatements(() -> productRepository.findByPrice(100)));
+    assertEquals(1, countStatements(() -> productRepository.findByCategoryAndPrice("games", 101)));
+    assertEquals(1, countStatements(() -> productRepository.findByFilter(null, 101, 103)));
+  }
+
+  @Test
+  void exportPages_shouldUseConstantStatementsPerPage() throws Exception {
+    // Страница заказов с аккаунтами + пачка продуктов + пачка цен позиций
+    assertEquals(3, countStatements(() -> orderRepository.findExportPage(0L, Limit.of(5))));
+    // Страница продуктов с аккаунтами + пачка заказов продуктов
+    assertEquals(2, countStatements(() -> productRepository.findExportPage(0L, Limit.of(5))));
+
+    List<Order> firstPage = orderRepository.findExportPage(0L, Limit.of(5));
+    List<Order> rest = orderRepository.findExportPage(
+            firstPage.get(firstPage.size() - 1).getId(), Limit.of(100));
+    assertEquals(5, firstPage.size());
+    assertEquals(ACCOUNTS * ORDERS_PER_ACCOUNT, firstPage.size() + rest.size());
+  }
+
+  @Test
+  void warmUpPages_shouldLoadSerializedAssociationsWithoutSession() throws Exception {
+    List<Long> firstPage = productRepository.findIdsBefore(Long.MAX_VALUE, Limit.of(6));
+    List<Long> rest = productRepository.findIdsBefore(
+            firstPage.get(firstPage.size() - 1), Limit.of(100));
+    assertEquals(ACCOUNTS * PRODUCTS_PER_ACCOUNT, firstPage.size() + rest.size());
+    assertTrue(firstPage.get(0) > firstPage.get(1));
+
+    statistics.clear();
+    List<Product> products = productRepository.findWithAssociationsByIdIn(firstPage);
+    // Кэш отдает продукты вне сессии: сериализация не должна догружать связи
+    testEntityManager.clear();
+    objectMapper.writeValueAsString(products);
+
+    assertEquals(firstPage.size(), products.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void summaries_shouldUseSingleStatementWithoutLoadingEntities() throws Exception {
+    assertEquals(1, countStatements(() -> productRepository.findSummaries("books", null, 101, null)));
+    assertEquals(1, countStatements(() -> orderRepository.findSummaries(firstAccountId)));
+    assertEquals(1, countStatements(accountRepository::findSummaries));
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+
+  @Test
+  void productSummaries_shouldApplyFilters() {
+    List<ProductSummary> summaries = productRepository.findSummaries("books", null, 101, 103);
+
+    assertEquals(ACCOUNTS, summaries.size());
+    assertTrue(summaries.stream().allMatch(summary -> summary.price() == 102));
+    assertNotNull(summaries.get(0).accountId());
+  }
+
+  @Test
+  void orderSummaries_shouldFilterByAccount() {
+    List<OrderSummary> summaries = orderRepository.findSummaries(firstAccountId);
+
+    assertEquals(ORDERS_PER_ACCOUNT, summaries.size());
+    assertTrue(summaries.stream().allMatch(summary -> firstAccountId.equals(summary.accountId())));
+    assertEquals(ACCOUNTS * ORDERS_PER_ACCOUNT, orderRepository.findSummaries(null).size());
+  }
+
+  @Test
+  void deleteProduct_shouldUseConstantStatementsRegardlessOfOrders() {
+    Long productId = productRepository.findSummaries(null, 104, null, null).get(0).id();
+    statistics.clear();
+
+    int deleted = productRepository.deleteProductById(productId);
+
+    assertEquals(1, deleted);
+    // Строки таблицы order_product и сам продукт
+    assertEquals(2, statistics.getPrepareStatementCount());
+    assertTrue(productRepository.findById(productId).isEmpty());
+    assertTrue(orderRepository.findAll().stream()
+            .flatMap(order -> order.getProducts().stream())
+            .noneMatch(product -> productId.equals(product.getId())));
+  }
+
+  @Test
+  void deleteAccount_shouldUseConstantStatementsRegardlessOfOrders() {
+    statistics.clear();
+
+    int orders = orderRepository.deleteOrdersByAccountId(firstAccountId);
+    int products = productRepository.deleteProductsByAccountId(firstAccountId);
+    int accounts = accountRepository.deleteAccountById(firstAccountId);
+
+    assertEquals(ORDERS_PER_ACCOUNT, orders);
+    assertEquals(PRODUCTS_PER_ACCOUNT, products);
+    assertEquals(1, accounts);
+    // order_product, цены позиций и заказы, order_product и продукты, аккаунт
+    assertEquals(6, statistics.getPrepareStatementCount());
+    assertTrue(accountRepository.findById(firstAccountId).isEmpty());
+    assertEquals((ACCOUNTS - 1) * ORDERS_PER_ACCOUNT, orderRepository.count());
+    assertEquals((ACCOUNTS - 1) * PRODUCTS_PER_ACCOUNT, productRepository.count());
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.store.repository;
+
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import com.example.store.service.SoftDeletePurger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+@Import(PurgeRepository.class)
+class SoftDeleteTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private PurgeRepository purgeRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Account owner;
+  private Account buyer;
+  private Product product;
+  private Product otherProduct;
+
+  @BeforeEach
+  void setUp() {
+    owner = testEntityManager.persist(account("owner"));
+    buyer = testEntityManager.persist(account("buyer"));
+    product = testEntityManager.persist(product("Book", owner));
+    otherProduct = testEntityManager.persist(product("Game", buyer));
+    for (int i = 0; i < 5; i++) {
+      testEntityManager.persist(order(buyer, product, otherProduct));
+      testEntityManager.persist(order(owner, otherProduct));
+    }
+    testEntityManager.flush();
+    testEntityManager.clear();
+  }
+
+  private Account account(String nickname) {
+    return Account.builder()
+            .nickname(nickname)
+            .firstName("First")
+            .lastName("Last")
+            .email(nickname + "@test.com")
+            .build();
+  }
+
+  private Product product(String name, Account account) {
+    return Product.builder().name(name).price(100).category("books").account(account).build();
+  }
+
+  private Order order(Account account, Product... products) {
+    return Order.builder()
+            .orderDate(LocalDateTime.of(2025, 1, 1, 10, 0))
+            .totalPrice(0)
+            .account(account)
+            .products(new ArrayList<>(List.of(products)))
+            .build();
+  }
+
+  private SoftDeletePurger purger() {
+    return new SoftDeletePurger(
+            purgeRepository, new TransactionTemplate(transactionManager), true, 2, 0);
+  }
+
+  private long rows(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  @Test
+  void softDeletedProduct_shouldBeHiddenFromQueriesAndOrders() {
+    assertEquals(1, productRepository.softDeleteById(product.getId()));
+
+    assertTrue(productRepository.findById(product.getId()).isEmpty());
+    assertTrue(productRepository.findIndexEntryById(product.getId()).isEmpty());
+    assertEquals(1, productRepository.findAll().size());
+    assertEquals(1, productRepository.findSummaries(null, null, null, null).size());
+    assertTrue(orderRepository.findByAccountId(buyer.getId()).stream()
+            .allMatch(order -> order.getProducts().size() == 1));
+    assertEquals(0, productRepository.softDeleteById(product.getId()));
+  }
+
+  @Test
+  void softDeletedAccount_shouldHideAccountOrdersAndProducts() {
+    assertEquals(1, accountRepository.softDeleteById(owner.getId()));
+    assertEquals(1, productRepository.softDeleteByAccountId(owner.getId()));
+
+    assertFalse(accountRepository.existsById(owner.getId()));
+    assertEquals(1, accountRepository.findAll().size());
+    assertTrue(orderRepository.findByAccountId(owner.getId()).isEmpty());
+    assertEquals(5, orderRepository.findAll().size());
+    assertTrue(orderRepository.findOrdersByProductPriceNative(100).stream()
+            .allMatch(order -> order.getAccount().getId().equals(buyer.getId())));
+  }
+
+  @Test
+  void purge_shouldRemoveDependentRowsInBatches() {
+    productRepository.softDeleteById(product.getId());
+    accountRepository.softDeleteById(owner.getId());
+    productRepository.softDeleteByAccountId(owner.getId());
+
+    int removed = purger().purge();
+
+    // Продукт и аккаунт
+    assertEquals(2, removed);
+    assertEquals(0, rows("SELECT COUNT(*) FROM products WHERE deleted = true"));
+    assertEquals(0, rows("SELECT COUNT(*) FROM accounts WHERE deleted = true"));
+    assertEquals(5, rows("SELECT COUNT(*) FROM orders"));
+    assertEquals(5, rows("SELECT COUNT(*) FROM order_product"));
+    assertEquals(0, purger().purge());
+  }
+}
@@ -1,18 +1,25 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.exception.ValidationException;
 import com.example.store.model.Account;
-import com.example.store.model.Order;
 import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +30,21 @@ class AccountServiceTest {
   @Mock
   private AccountRepository accountRepository;
 
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private ProductService productService;
+
+  @Mock
+  private NegativeCache negativeCache;
+
+  @Mock
+  private OptimisticLockRetry optimisticLockRetry;
+
   @InjectMocks
   private AccountService accountService;
 
@@ -49,6 +71,23 @@ class AccountServiceTest {
     verify(accountRepository, times(1)).findAll();
   }
 
+  @Test
+  void getAccountsPage_shouldClampSizeAndReturnLastPage() {
+    Account account = createTestAccount(1L, "user1", "John", "Doe", "john@test.com");
+    when(accountRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(CursorPage.MAX_SIZE + 1)))
+            .thenReturn(List.of(account));
+
+    CursorPage<Account> result = accountService.getAccountsPage(null, 100_000);
+
+    assertEquals(List.of(account), result.items());
+    assertNull(result.nextCursor());
+  }
+
+  @Test
+  void getAccountsPage_shouldRejectMalformedCursor() {
+    assertThrows(ValidationException.class, () -> accountService.getAccountsPage("!!!", 10));
+  }
+
   @Test
   void getAccountById_shouldReturnAccountWhenExists() {
     Long accountId = 1L;
@@ -68,6 +107,17 @@ class AccountServiceTest {
     Optional<Account> result = accountService.getAccountById(99L);
 
     assertTrue(result.isEmpty());
+    verify(negativeCache, times(1)).markMissing(NegativeCache.Kind.ACCOUNT, 99L);
+  }
+
+  @Test
+  void getAccountById_shouldSkipDbWhenKnownMissing() {
+    when(negativeCache.isKnownMissing(NegativeCache.Kind.ACCOUNT, 99L)).thenReturn(true);
+
+    Optional<Account> result = accountService.getAccountById(99L);
+
+    assertTrue(result.isEmpty());
+    verify(accountRepository, never()).findById(any());
   }
 
   @Test
@@ -101,40 +151,81 @@ class AccountServiceTest {
 
     assertNotNull(result.getId());
     assertEquals(savedAccount.getNickname(), result.getNickname());
+    verify(negativeCache, times(1)).invalidate(NegativeCache.Kind.ACCOUNT, 1L);
   }
 
   @Test
-  void deleteAccount_shouldDeleteWhenAccountExists() {
+  void deleteAccount_shouldDeleteOrdersProductsAndAccountInBulk() {
     Long accountId = 1L;
-    Account mockAccount = createTestAccount(accountId, "test", "Test", "User", "test@test.com");
-    when(accountRepository.findById(accountId)).thenReturn(Optional.of(mockAccount));
+    List<ProductIndexEntry> products = List.of(new ProductIndexEntry(10L, "books", 100));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(productRepository.findIndexEntriesByAccountId(accountId)).thenReturn(products);
+    when(orderRepository.deleteOrdersByAccountId(accountId)).thenReturn(5000);
 
     assertDoesNotThrow(() -> accountService.deleteAccount(accountId));
-    verify(accountRepository, times(1)).delete(mockAccount);
+
+    InOrder inOrder = inOrder(orderRepository, productRepository, accountRepository);
+    inOrder.verify(orderRepository).deleteOrdersByAccountId(accountId);
+    inOrder.verify(productRepository).deleteProductsByAccountId(accountId);
+    inOrder.verify(accountRepository).deleteAccountById(accountId);
+    verify(accountRepository, never()).findById(any());
+    verify(accountRepository, never()).delete(any());
+    verify(productService).evictDeleted(products);
+    verify(negativeCache).markMissing(NegativeCache.Kind.ACCOUNT, accountId);
   }
 
   @Test
   void deleteAccount_shouldThrowExceptionWhenAccountNotExists() {
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(accountRepository.existsById(anyLong())).thenReturn(false);
 
     assertThrows(RuntimeException.class, () -> accountService.deleteAccount(99L));
-    verify(accountRepository, never()).delete(any());
+    verify(orderRepository, never()).deleteOrdersByAccountId(any());
+    verify(accountRepository, never()).deleteAccountById(any());
+    verify(productService, never()).evictDeleted(any());
   }
 
   @Test
-  void deleteAccount_shouldClearOrdersBeforeDelete() {
-    Long accountId = 2L;
-    Account mockAccount = createTestAccount(accountId, "test2", "Test2", "User2", "test2@test.com");
+  void softDeleteAccount_shouldMarkAccountAndProductsDeleted() {
+    Long accountId = 1L;
+    List<ProductIndexEntry> products = List.of(new ProductIndexEntry(10L, "books", 100));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(productRepository.findIndexEntriesByAccountId(accountId)).thenReturn(products);
+
+    accountService.softDeleteAccount(accountId);
+
+    verify(accountRepository).softDeleteById(accountId);
+    verify(productRepository).softDeleteByAccountId(accountId);
+    verify(orderRepository, never()).deleteOrdersByAccountId(any());
+    verify(accountRepository, never()).deleteAccountById(any());
+    verify(productService).evictDeleted(products);
+    verify(negativeCache).markMissing(NegativeCache.Kind.ACCOUNT, accountId);
+  }
 
-    Order mockOrder = new Order();
-    mockAccount.setOrders(new ArrayList<>(List.of(mockOrder)));
+  @Test
+  void softDeleteAccount_shouldThrowExceptionWhenAccountNotExists() {
+    when(accountRepository.existsById(anyLong())).thenReturn(false);
 
-    when(accountRepository.findById(accountId)).thenReturn(Optional.of(mockAccount));
+    assertThrows(RuntimeException.class, () -> accountService.softDeleteAccount(99L));
+    verify(accountRepository, never()).softDeleteById(any());
+  }
 
-    assertDoesNotThrow(() -> accountService.deleteAccount(accountId));
 
-    assertTrue(mockAccount.getOrders().isEmpty(), "Orders should be cleared before deletion");
-    verify(accountRepository).delete(mockAccount);
+  @Test
+  @SuppressWarnings("unchecked")
+  void updateAccount_shouldCopyFieldsAndCheckVersion() {
+    Account existing = createTestAccount(1L, "old", "Old", "User", "old@test.com");
+    existing.setVersion(2L);
+    Account update = createTestAccount(null, "new", "New", "User", "new@test.com");
+    update.setVersion(2L);
+    when(optimisticLockRetry.execute(eq("account"), any()))
+            .thenAnswer(invocation -> ((Supplier<Account>) invocation.getArgument(1)).get());
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+    Account result = accountService.updateAccount(1L, update);
+
+    assertEquals("new", result.getNickname());
+    verify(optimisticLockRetry).checkVersion("account", 2L, 2L);
+    verify(accountRepository).flush();
+    verify(accountRepository, never()).save(any());
   }
-
-}
\ No newline at end of file
+}
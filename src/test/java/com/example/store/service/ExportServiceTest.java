@@ -0,0 +1,117 @@
+package com.example.store.service;
+
+import com.example.store.exception.ValidationException;
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private ExportService exportService;
+
+  @BeforeEach
+  void setUp() {
+    exportService = new ExportService(productRepository, orderRepository, accountRepository,
+            entityManager, transactionManager, objectMapper, 2);
+  }
+
+  private Product product(Long id, String name) {
+    return Product.builder().id(id).name(name).price(10).category("books").build();
+  }
+
+  @Test
+  void exportProducts_shouldWriteJsonArrayAndDetachEntities() throws Exception {
+    Product first = product(1L, "A");
+    Product second = product(2L, "B");
+    Product third = product(3L, "C");
+    when(productRepository.findExportPage(0L, Limit.of(2))).thenReturn(List.of(first, second));
+    when(productRepository.findExportPage(2L, Limit.of(2))).thenReturn(List.of(third));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count = exportService.exportProducts(ExportService.Format.JSON, out);
+
+    assertEquals(3, count);
+    JsonNode json = objectMapper.readTree(out.toByteArray());
+    assertTrue(json.isArray());
+    assertEquals(3, json.size());
+    assertEquals("C", json.get(2).get("name").asText());
+    verify(entityManager).detach(first);
+    verify(entityManager).detach(third);
+    verify(entityManager, times(2)).clear();
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void exportAccounts_shouldWriteOneObjectPerLine() throws Exception {
+    Account account1 = Account.builder().id(1L).nickname("user1").build();
+    Account account2 = Account.builder().id(2L).nickname("user2").build();
+    when(accountRepository.findExportPage(0L, Limit.of(2)))
+            .thenReturn(List.of(account1, account2));
+    when(accountRepository.findExportPage(2L, Limit.of(2))).thenReturn(List.of());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exportService.exportAccounts(ExportService.Format.NDJSON, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("user1", objectMapper.readTree(lines[0]).get("nickname").asText());
+    assertEquals("user2", objectMapper.readTree(lines[1]).get("nickname").asText());
+  }
+
+  @Test
+  void exportOrders_shouldWriteEmptyArrayForEmptyTable() {
+    when(orderRepository.findExportPage(0L, Limit.of(2))).thenReturn(List.<Order>of());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count = exportService.exportOrders(ExportService.Format.JSON, out);
+
+    assertEquals(0, count);
+    assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    verify(orderRepository, times(1)).findExportPage(any(), any());
+  }
+
+  @Test
+  void parseFormat_shouldRejectUnknownFormat() {
+    assertEquals(ExportService.Format.NDJSON, ExportService.Format.parse("ndjson"));
+    assertThrows(ValidationException.class, () -> ExportService.Format.parse("xml"));
+    assertThrows(ValidationException.class, () -> ExportService.Format.parse(null));
+  }
+}
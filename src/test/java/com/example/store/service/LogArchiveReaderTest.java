@@ -0,0 +1,157 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogArchiveReaderTest {
+
+  private static final LocalDate MAY_16 = LocalDate.of(2025, 5, 16);
+
+  @TempDir
+  Path tempDir;
+
+  private LogFileIndex index;
+  private LogArchiveReader reader;
+
+  @BeforeEach
+  void setUp() {
+    index = new LogFileIndex(tempDir.resolve("store.log").toString(),
+            tempDir.resolve("store.log.idx").toString(), false);
+    // Один поток распаковки: остальные источники читаются в потоке слияния
+    reader = new LogArchiveReader(index, 64, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    reader.shutdown();
+  }
+
+  private static String line(String time, String message) {
+    return "2025-05-16T" + time + ".000+03:00  INFO 1 --- [store] [main] com.example.Test : "
+            + message + "\n";
+  }
+
+  private void gzip(String name, String content) throws Exception {
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempDir.resolve(name)))) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void archivesFor_shouldSelectArchivesByDateInPartOrder() throws Exception {
+    gzip("store.log.2025-05-16.10.gz", "");
+    gzip("store.log.2025-05-16.2.gz", "");
+    gzip("store.log.2025-05-15.0.gz", "");
+    gzip("other.log.2025-05-16.0.gz", "");
+
+    List<Path> archives = reader.archivesFor(MAY_16);
+
+    assertEquals(List.of(tempDir.resolve("store.log.2025-05-16.2.gz"),
+            tempDir.resolve("store.log.2025-05-16.10.gz")), archives);
+    assertTrue(reader.archivesFor(LocalDate.of(2025, 5, 17)).isEmpty());
+  }
+
+  @Test
+  void merge_shouldInterleaveSourcesByTimestampKeepingContinuations() throws Exception {
+    String trace = "java.lang.IllegalStateException: boom\n\tat com.example.Test.run(Test.java:1)\n";
+    gzip("store.log.2025-05-16.0.gz", "orphan continuation\n"
+            + line("10:00:00", "a1") + line("12:00:00", "a2") + trace
+            + "2025-05-15T23:59:59.000+03:00  INFO 1 --- [store] [main] x : other day\n");
+    gzip("store.log.2025-05-16.1.gz", line("11:00:00", "b1") + line("13:00:00", "b2"));
+    Files.writeString(tempDir.resolve("store.log"),
+            line("12:30:00", "live") + "2025-05-17T00:00:01.000+03:00  INFO tomorrow\n");
+    List<Path> archives = reader.archivesFor(MAY_16);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    AtomicLong lines = new AtomicLong();
+
+    long written = reader.merge(MAY_16, archives, index.rangesForDate(MAY_16), out, () -> { },
+            (bytes, count) -> lines.addAndGet(count));
+
+    String expected = line("10:00:00", "a1") + line("11:00:00", "b1") + line("12:00:00", "a2")
+            + trace + line("12:30:00", "live") + line("13:00:00", "b2");
+    assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    assertEquals(expected.length(), written);
+    assertEquals(7, lines.get());
+  }
+
+  @Test
+  void merge_shouldMergeMoreSourcesThanThreads() throws Exception {
+    StringBuilder expected = new StringBuilder();
+    for (int part = 0; part < 6; part++) {
+      gzip("store.log.2025-05-16." + part + ".gz", line("1" + part + ":00:00", "p" + part)
+              + line("1" + part + ":30:00", "q" + part));
+      expected.append(line("1" + part + ":00:00", "p" + part))
+              .append(line("1" + part + ":30:00", "q" + part));
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    reader.merge(MAY_16, reader.archivesFor(MAY_16), List.of(), out, () -> { },
+            (bytes, count) -> { });
+
+    assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void merge_shouldStopProducersWhenCheckpointFails() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      content.append(line(String.format("10:%02d:%02d", i / 60 % 60, i % 60), "line " + i));
+    }
+    gzip("store.log.2025-05-16.0.gz", content.toString());
+
+    assertThrows(CancellationException.class, () -> reader.merge(MAY_16,
+            reader.archivesFor(MAY_16), List.of(), OutputStream.nullOutputStream(), () -> {
+              throw new CancellationException("stop");
+            }, (bytes, count) -> { }));
+  }
+
+  @Test
+  void merge_shouldReportCorruptArchive() throws Exception {
+    Files.writeString(tempDir.resolve("store.log.2025-05-16.0.gz"), "not gzip");
+
+    assertThrows(java.io.IOException.class, () -> reader.merge(MAY_16,
+            reader.archivesFor(MAY_16), List.of(), OutputStream.nullOutputStream(), () -> { },
+            (bytes, count) -> { }));
+  }
+
+  @Test
+  void uncompressedSize_shouldReadGzipTrailer() throws Exception {
+    String content = line("10:00:00", "x".repeat(1000));
+    gzip("store.log.2025-05-16.0.gz", content);
+
+    assertEquals(content.length(), reader.uncompressedSize(reader.archivesFor(MAY_16)));
+  }
+
+  @Test
+  void recordReader_shouldSplitRecordsAcrossBufferBoundaries() throws Exception {
+    String first = line("10:00:00", "first with a rather long message") + "\tat trace\n";
+    String last = line("11:00:00", "no trailing newline");
+    LogArchiveReader.RecordReader records = new LogArchiveReader.RecordReader(
+            new ByteArrayInputStream((first + last.substring(0, last.length() - 1))
+                    .getBytes(StandardCharsets.UTF_8)), 16);
+
+    List<String> result = new ArrayList<>();
+    for (byte[] record = records.next(); record != null; record = records.next()) {
+      result.add(new String(record, StandardCharsets.UTF_8));
+    }
+
+    assertEquals(List.of(first, last), result);
+  }
+}
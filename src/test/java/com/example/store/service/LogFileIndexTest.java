@@ -0,0 +1,116 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileIndexTest {
+
+  private static final LocalDate MAY_21 = LocalDate.of(2025, 5, 21);
+  private static final LocalDate MAY_22 = LocalDate.of(2025, 5, 22);
+
+  @TempDir
+  Path tempDir;
+
+  private Path logFile() {
+    return tempDir.resolve("store.log");
+  }
+
+  private LogFileIndex createIndex() {
+    return new LogFileIndex(logFile().toString(), tempDir.resolve("store.log.idx").toString(), true);
+  }
+
+  private static String line(String timestamp, String message) {
+    return timestamp + ".605+03:00  INFO 12632 --- [store] [main] com.example.Test : "
+            + message + "\n";
+  }
+
+  private void append(String content) throws Exception {
+    Files.writeString(logFile(), content, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  private String read(LogFileIndex index, LocalDate date) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    index.copy(index.rangesForDate(date), Channels.newChannel(out));
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void rangesForDate_shouldSelectOnlyLinesOfThatDateWithContinuations() throws Exception {
+    String may21 = line("2025-05-21T23:59:58", "late")
+            + "java.lang.IllegalStateException: boom\n\tat com.example.Test.run(Test.java:1)\n";
+    String may22 = line("2025-05-22T00:00:06", "first") + line("2025-05-22T13:12:43", "second");
+    append(line("2025-05-21T10:00:00", "morning") + may21 + may22);
+
+    LogFileIndex index = createIndex();
+
+    assertEquals(may22, read(index, MAY_22));
+    assertTrue(read(index, MAY_21).endsWith(may21));
+    assertTrue(index.rangesForDate(LocalDate.of(2025, 5, 20)).isEmpty());
+    // Соседние часы склеиваются в один диапазон
+    assertEquals(1, index.rangesForDate(MAY_22).size());
+    LogFileIndex.Range afternoon = index.ranges("2025-05-22T13", "2025-05-22T14").get(0);
+    assertEquals(line("2025-05-22T13:12:43", "second").length(), afternoon.length());
+  }
+
+  @Test
+  void refresh_shouldIndexOnlyAppendedCompleteLines() throws Exception {
+    append(line("2025-05-22T00:00:06", "first"));
+    LogFileIndex index = createIndex();
+    index.refresh();
+    long indexed = (long) index.stats().get("indexedBytes");
+
+    String second = line("2025-05-22T01:00:00", "second");
+    append(second.substring(0, 20));
+
+    assertEquals(line("2025-05-22T00:00:06", "first"), read(index, MAY_22));
+    assertEquals(indexed, index.stats().get("indexedBytes"));
+
+    append(second.substring(20));
+
+    assertEquals(line("2025-05-22T00:00:06", "first") + second, read(index, MAY_22));
+    assertEquals(List.of(new LogFileIndex.Range(indexed, Files.size(logFile()))),
+            index.ranges("2025-05-22T01", "2025-05-22T02"));
+  }
+
+  @Test
+  void index_shouldBeRestoredFromSidecarFile() throws Exception {
+    append(line("2025-05-21T22:00:00", "old") + line("2025-05-22T09:00:00", "new"));
+    createIndex().refresh();
+    assertTrue(Files.exists(tempDir.resolve("store.log.idx")));
+
+    append(line("2025-05-22T10:00:00", "appended"));
+    LogFileIndex restored = createIndex();
+
+    assertEquals(line("2025-05-22T09:00:00", "new") + line("2025-05-22T10:00:00", "appended"),
+            read(restored, MAY_22));
+  }
+
+  @Test
+  void refresh_shouldRebuildAfterRotation() throws Exception {
+    append(line("2025-05-21T22:00:00", "old day ".repeat(10)));
+    LogFileIndex index = createIndex();
+    index.refresh();
+
+    Files.writeString(logFile(), line("2025-05-22T00:00:01", "after rotation"));
+
+    assertTrue(index.rangesForDate(MAY_21).isEmpty());
+    assertEquals(line("2025-05-22T00:00:01", "after rotation"), read(index, MAY_22));
+  }
+
+  @Test
+  void rangesForDate_shouldBeEmptyWhenLogFileIsMissing() throws Exception {
+    assertTrue(createIndex().rangesForDate(MAY_22).isEmpty());
+  }
+}
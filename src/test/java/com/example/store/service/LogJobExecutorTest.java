@@ -0,0 +1,132 @@
+package com.example.store.service;
+
+import com.example.store.model.LogTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogJobExecutorTest {
+
+  private LogJobExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private static LogTask task(String id) {
+    return new LogTask(id, null, "2025-05-22", LocalDateTime.now());
+  }
+
+  private static void awaitStatus(LogTask task, String status) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!status.equals(task.getStatus()) && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(status, task.getStatus());
+  }
+
+  /** Работа, которая крутится в контрольной точке, пока ее не отпустят. */
+  private static LogJobExecutor.Job blockingJob(CountDownLatch started, CountDownLatch release) {
+    return (task, checkpoint) -> {
+      started.countDown();
+      try {
+        while (!release.await(5, TimeUnit.MILLISECONDS)) {
+          checkpoint.run();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  @Test
+  void submit_shouldRunJobAndRecordProgressAndDuration() throws Exception {
+    executor = new LogJobExecutor(1, 1, Duration.ofMinutes(1));
+    LogTask task = task("1");
+
+    assertTrue(executor.submit(task, (job, checkpoint) -> job.addProgress(100, 3)));
+
+    awaitStatus(task, LogJobExecutor.COMPLETED);
+    assertEquals(100, task.getBytesScanned());
+    assertEquals(3, task.getLinesMatched());
+    assertNotNull(task.getStartedAt());
+    assertNotNull(task.getFinishedAt());
+    assertEquals(1L, executor.stats().get("completed"));
+  }
+
+  @Test
+  void submit_shouldRejectWhenQueueIsFull() throws Exception {
+    executor = new LogJobExecutor(1, 1, Duration.ofMinutes(1));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    LogTask running = task("running");
+    LogTask queued = task("queued");
+
+    assertTrue(executor.submit(running, blockingJob(started, release)));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertTrue(executor.submit(queued, (job, checkpoint) -> { }));
+
+    assertFalse(executor.submit(task("rejected"), (job, checkpoint) -> { }));
+    assertEquals(1, executor.stats().get("queueDepth"));
+    assertEquals(1L, executor.stats().get("rejected"));
+    assertEquals(LogJobExecutor.QUEUED, queued.getStatus());
+
+    release.countDown();
+    awaitStatus(queued, LogJobExecutor.COMPLETED);
+  }
+
+  @Test
+  void cancel_shouldRemoveQueuedJobAndStopRunningJob() throws Exception {
+    executor = new LogJobExecutor(1, 1, Duration.ofMinutes(1));
+    CountDownLatch started = new CountDownLatch(1);
+    LogTask running = task("running");
+    LogTask queued = task("queued");
+    executor.submit(running, blockingJob(started, new CountDownLatch(1)));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    executor.submit(queued, (job, checkpoint) -> fail("Cancelled job must not run"));
+
+    assertTrue(executor.cancel("queued"));
+    assertEquals(LogJobExecutor.CANCELLED, queued.getStatus());
+    assertEquals(0, executor.stats().get("queueDepth"));
+
+    assertTrue(executor.cancel("running"));
+    awaitStatus(running, LogJobExecutor.CANCELLED);
+    assertFalse(executor.cancel("running"));
+    assertEquals(2L, executor.stats().get("cancelled"));
+  }
+
+  @Test
+  void run_shouldStopJobAfterTimeout() throws Exception {
+    executor = new LogJobExecutor(1, 1, Duration.ofMillis(50));
+    LogTask task = task("slow");
+
+    executor.submit(task, blockingJob(new CountDownLatch(1), new CountDownLatch(1)));
+
+    awaitStatus(task, LogJobExecutor.TIMED_OUT);
+    assertNotNull(task.getErrorMessage());
+    assertEquals(1L, executor.stats().get("timedOut"));
+    assertTrue((long) executor.stats().get("maxDurationMs") >= 50);
+  }
+
+  @Test
+  void run_shouldReportFailure() throws Exception {
+    executor = new LogJobExecutor(1, 1, Duration.ofMinutes(1));
+    LogTask task = task("broken");
+
+    executor.submit(task, (job, checkpoint) -> {
+      throw new java.io.IOException("disk full");
+    });
+
+    awaitStatus(task, LogJobExecutor.FAILED);
+    assertEquals("disk full", task.getErrorMessage());
+  }
+}
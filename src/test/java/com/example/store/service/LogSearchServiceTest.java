@@ -0,0 +1,210 @@
+package com.example.store.service;
+
+import com.example.store.dto.LogEntry;
+import com.example.store.dto.LogSearchQuery;
+import com.example.store.dto.LogSearchResult;
+import com.example.store.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSearchServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private LogFileIndex index;
+  private LogSearchService searchService;
+
+  @BeforeEach
+  void setUp() {
+    index = new LogFileIndex(tempDir.resolve("store.log").toString(),
+            tempDir.resolve("store.log.idx").toString(), false);
+    // Маленькие части, чтобы строки гарантированно пересекали их границы
+    searchService = new LogSearchService(index, 4, 64, 1000, Duration.ofMillis(200));
+  }
+
+  @AfterEach
+  void tearDown() {
+    searchService.shutdown();
+  }
+
+  private static String line(String time, String level, String thread, String logger,
+          String message) {
+    return "2025-05-22T" + time + ".000+03:00 " + String.format("%5s", level)
+            + " 1 --- [store] [" + thread + "] " + logger + " : " + message + "\n";
+  }
+
+  private void write(String content) throws Exception {
+    Files.writeString(tempDir.resolve("store.log"), content, StandardCharsets.UTF_8);
+  }
+
+  private static LogSearchQuery query(String from, String to, String level, String thread,
+          String logger, String text, String regex, Integer limit) {
+    return new LogSearchQuery(from, to, level, thread, logger, text, regex, limit);
+  }
+
+  private static List<String> messages(LogSearchResult result) {
+    return result.entries().stream().map(LogEntry::message).toList();
+  }
+
+  @Test
+  void search_shouldFindEveryLineOnceAcrossChunksInFileOrder() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      content.append(line(String.format("10:%02d:%02d", i / 60, i % 60), "INFO", "main",
+              "com.example.Test", "message " + i));
+      if (i % 10 == 0) {
+        content.append("\tat com.example.Test.run(Test.java:").append(i).append(")\n");
+      }
+    }
+    write(content.toString());
+
+    LogSearchResult result = searchService.search(
+            query(null, null, null, null, null, null, null, 1000));
+
+    assertEquals(200, result.entries().size());
+    for (int i = 0; i < 200; i++) {
+      assertEquals("message " + i, result.entries().get(i).message());
+    }
+    assertFalse(result.truncated());
+    assertTrue(result.chunks() > 1);
+    LogEntry entry = result.entries().get(1);
+    assertEquals(content.indexOf("2025-05-22T10:00:01"), entry.offset());
+    assertEquals("2025-05-22T10:00:01.000+03:00", entry.timestamp());
+    assertEquals("INFO", entry.level());
+    assertEquals("main", entry.thread());
+    assertEquals("com.example.Test", entry.logger());
+  }
+
+  @Test
+  void search_shouldApplyFieldFilters() throws Exception {
+    write(line("10:00:00", "INFO", "main", "com.example.OrderService", "order created id=1")
+            + line("10:00:01", "ERROR", "http-nio-9090-exec-1", "com.example.OrderService",
+                    "order failed id=2")
+            + line("10:00:02", "ERROR", "main", "com.example.ProductService", "product failed")
+            + line("10:00:03", "WARN", "main", "com.example.OrderService", "order slow id=3"));
+
+    assertEquals(List.of("order failed id=2", "product failed"), messages(
+            searchService.search(query(null, null, "error", null, null, null, null, null))));
+    assertEquals(List.of("order failed id=2"), messages(searchService.search(
+            query(null, null, null, "http-nio-9090-exec-1", null, null, null, null))));
+    assertEquals(List.of("product failed"), messages(searchService.search(
+            query(null, null, null, null, "ProductService", null, null, null))));
+    assertEquals(List.of("order created id=1", "order slow id=3"), messages(searchService.search(
+            query(null, null, null, "main", "Order", "order", null, null))));
+    assertEquals(List.of("order failed id=2", "order slow id=3"), messages(searchService.search(
+            query(null, null, null, null, null, null, "id=[23]$", null))));
+  }
+
+  @Test
+  void search_shouldFilterByTimeRange() throws Exception {
+    write(line("09:59:59", "INFO", "main", "x", "before")
+            + line("10:00:00", "INFO", "main", "x", "first")
+            + line("10:30:00", "INFO", "main", "x", "second")
+            + line("11:00:00", "INFO", "main", "x", "after"));
+
+    assertEquals(List.of("first", "second"), messages(searchService.search(
+            query("2025-05-22T10:00", "2025-05-22T11:00", null, null, null, null, null, null))));
+    assertEquals(List.of("second", "after"), messages(searchService.search(
+            query("2025-05-22T10:15:30", null, null, null, null, null, null, null))));
+  }
+
+  @Test
+  void search_shouldStopAtLimitAndReportTruncation() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      content.append(line(String.format("10:00:%02d", i % 60), "INFO", "main", "x", "m" + i));
+    }
+    write(content.toString());
+
+    LogSearchResult result = searchService.search(
+            query(null, null, null, null, null, null, null, 5));
+
+    assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), messages(result));
+    assertTrue(result.truncated());
+  }
+
+  @Test
+  void search_shouldNotReportTruncationWhenMatchesEqualLimit() throws Exception {
+    write(line("10:00:00", "INFO", "main", "x", "m0")
+            + line("10:00:01", "ERROR", "main", "x", "m1")
+            + line("10:00:02", "INFO", "main", "x", "m2"));
+
+    LogSearchResult all = searchService.search(
+            query(null, null, null, null, null, null, null, 3));
+    LogSearchResult errors = searchService.search(
+            query(null, null, "ERROR", null, null, null, null, 1));
+
+    assertEquals(3, all.entries().size());
+    assertFalse(all.truncated());
+    assertEquals(List.of("m1"), messages(errors));
+    assertFalse(errors.truncated());
+  }
+
+  @Test
+  void search_shouldAbortCatastrophicRegexWith422() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      content.append(line("10:00:00", "INFO", "main", "x", "a".repeat(28) + "!"));
+    }
+    write(content.toString());
+
+    long start = System.nanoTime();
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> searchService.search(
+                    query(null, null, null, null, null, null, "(.*a){30}", null)));
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+  }
+
+  @Test
+  void search_shouldParseLinesWithoutApplicationName() throws Exception {
+    write("2025-05-22T10:00:00.000+03:00 DEBUG 1 --- [           main] c.e.Test     "
+            + "            : no app name\n");
+
+    LogEntry entry = searchService.search(
+            query(null, null, "DEBUG", "main", null, null, null, null)).entries().get(0);
+
+    assertEquals("c.e.Test", entry.logger());
+    assertEquals("no app name", entry.message());
+  }
+
+  @Test
+  void search_shouldReturnEmptyResultWhenLogFileIsMissing() {
+    LogSearchResult result = searchService.search(
+            query(null, null, null, null, null, null, null, null));
+
+    assertTrue(result.entries().isEmpty());
+    assertFalse(result.truncated());
+  }
+
+  @Test
+  void search_shouldRejectInvalidQuery() throws Exception {
+    write(line("10:00:00", "INFO", "main", "x", "m"));
+
+    assertThrows(ValidationException.class, () -> searchService.search(
+            query("yesterday", null, null, null, null, null, null, null)));
+    assertThrows(ValidationException.class, () -> searchService.search(
+            query("2025-05-22T11:00", "2025-05-22T10:00", null, null, null, null, null, null)));
+    assertThrows(ValidationException.class, () -> searchService.search(
+            query(null, null, "FATAL", null, null, null, null, null)));
+    assertThrows(ValidationException.class, () -> searchService.search(
+            query(null, null, null, null, null, null, "(", null)));
+    assertThrows(ValidationException.class, () -> searchService.search(
+            query(null, null, null, null, null, null, "a".repeat(257), null)));
+  }
+}
@@ -0,0 +1,217 @@
+package com.example.store.service;
+
+import com.example.store.exception.ValidationException;
+import com.example.store.model.LogTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogServiceTest {
+
+  private static final String MAY_21 = "2025-05-21T23:59:58.905+03:00  INFO 1 --- [store] [main] "
+          + "com.example.Test : late\n";
+  private static final String MAY_22 = "2025-05-22T00:00:06.605+03:00 ERROR 1 --- [store] [main] "
+          + "com.example.Test : failed\njava.lang.IllegalStateException: boom\n";
+
+  @TempDir
+  Path tempDir;
+
+  private LogJobExecutor executor;
+  private LogArchiveReader archiveReader;
+  private LogService logService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path logFile = tempDir.resolve("store.log");
+    Files.writeString(logFile, MAY_21 + MAY_22);
+    LogFileIndex index = new LogFileIndex(logFile.toString(), tempDir.resolve("idx").toString(),
+            false);
+    executor = new LogJobExecutor(1, 1, Duration.ofMinutes(1));
+    archiveReader = new LogArchiveReader(index, 4096, 2);
+    logService = new LogService(index, executor, archiveReader,
+            tempDir.resolve("generated").toString());
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+    archiveReader.shutdown();
+  }
+
+  private LogTask await(String taskId) throws InterruptedException {
+    LogTask task = logService.getTaskStatus(taskId);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (task.getFinishedAt() == null && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    return task;
+  }
+
+  @Test
+  void generateLogFile_shouldWriteOnlyLinesOfDateWithProgress() throws Exception {
+    LogTask task = await(logService.generateLogFile("2025-05-22"));
+
+    assertEquals(LogJobExecutor.COMPLETED, task.getStatus());
+    assertEquals(MAY_22, Files.readString(Path.of(task.getFilePath())));
+    assertEquals(MAY_22.length(), task.getBytesTotal());
+    assertEquals(MAY_22.length(), task.getBytesScanned());
+    assertEquals(2, task.getLinesMatched());
+  }
+
+  @Test
+  void generateLogFile_shouldRejectInvalidDateBeforeQueueing() {
+    assertThrows(ValidationException.class, () -> logService.generateLogFile("22.05.2025"));
+    assertEquals(0L, logService.getJobStats().get("submitted"));
+  }
+
+  @Test
+  void generateLogFile_shouldFailWith429WhenQueueIsFull() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit(new LogTask("busy", null, "2025-05-22", LocalDateTime.now()),
+            (task, checkpoint) -> {
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    String queued = logService.generateLogFile("2025-05-22");
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> logService.generateLogFile("2025-05-22"));
+
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatusCode());
+    release.countDown();
+    assertEquals(LogJobExecutor.COMPLETED, await(queued).getStatus());
+  }
+
+  @Test
+  void streamLogsByDate_shouldWriteIndexedRegion() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = logService.streamLogsByDate(LocalDate.of(2025, 5, 22), out);
+
+    assertEquals(MAY_22, out.toString(StandardCharsets.UTF_8));
+    assertEquals(MAY_22.length(), written);
+    assertTrue(logService.hasLogs(LocalDate.of(2025, 5, 21)));
+    assertFalse(logService.hasLogs(LocalDate.of(2025, 5, 20)));
+  }
+
+  private String completedTask() throws Exception {
+    String taskId = logService.generateLogFile("2025-05-22");
+    assertEquals(LogJobExecutor.COMPLETED, await(taskId).getStatus());
+    return taskId;
+  }
+
+  private static byte[] body(ResponseEntity<StreamingResponseBody> response) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+    return out.toByteArray();
+  }
+
+  @Test
+  void downloadLogFile_shouldServeWholeFileWithLength() throws Exception {
+    ResponseEntity<StreamingResponseBody> response =
+            logService.downloadLogFile(completedTask(), new HttpHeaders(), false);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(MAY_22.length(), response.getHeaders().getContentLength());
+    assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    assertEquals(MAY_22, new String(body(response), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void downloadLogFile_shouldServeRequestedRange() throws Exception {
+    String taskId = completedTask();
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=10-");
+
+    ResponseEntity<StreamingResponseBody> response =
+            logService.downloadLogFile(taskId, headers, false);
+
+    assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+    assertEquals("bytes 10-" + (MAY_22.length() - 1) + "/" + MAY_22.length(),
+            response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    assertEquals(MAY_22.substring(10), new String(body(response), StandardCharsets.UTF_8));
+
+    // Если файл изменился, докачка начинается заново
+    headers.set(HttpHeaders.IF_RANGE, "\"stale\"");
+    assertEquals(HttpStatus.OK, logService.downloadLogFile(taskId, headers, false).getStatusCode());
+  }
+
+  @Test
+  void downloadLogFile_shouldRejectUnsatisfiableRange() throws Exception {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=100000-");
+
+    ResponseEntity<StreamingResponseBody> response =
+            logService.downloadLogFile(completedTask(), headers, false);
+
+    assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+    assertEquals("bytes */" + MAY_22.length(),
+            response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+  }
+
+  @Test
+  void downloadLogFile_shouldCompressOnTheFly() throws Exception {
+    ResponseEntity<StreamingResponseBody> response =
+            logService.downloadLogFile(completedTask(), new HttpHeaders(), true);
+
+    assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body(response)))) {
+      assertEquals(MAY_22, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void downloadLogFile_shouldReturn404ForUnknownTask() {
+    assertEquals(HttpStatus.NOT_FOUND,
+            logService.downloadLogFile("missing", new HttpHeaders(), false).getStatusCode());
+  }
+
+  @Test
+  void logsByDate_shouldIncludeRotatedArchives() throws Exception {
+    String archived = "2025-05-16T10:00:00.000+03:00  INFO 1 --- [store] [main] "
+            + "com.example.Test : archived\n";
+    try (OutputStream out = new GZIPOutputStream(
+            Files.newOutputStream(tempDir.resolve("store.log.2025-05-16.0.gz")))) {
+      out.write(archived.getBytes(StandardCharsets.UTF_8));
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertTrue(logService.hasLogs(LocalDate.of(2025, 5, 16)));
+    logService.streamLogsByDate(LocalDate.of(2025, 5, 16), out);
+    LogTask task = await(logService.generateLogFile("2025-05-16"));
+
+    assertEquals(archived, out.toString(StandardCharsets.UTF_8));
+    assertEquals(LogJobExecutor.COMPLETED, task.getStatus());
+    assertEquals(archived, Files.readString(Path.of(task.getFilePath())));
+    assertEquals(archived.length(), task.getBytesTotal());
+    assertEquals(1, task.getLinesMatched());
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+  @Test
+  void capacity_shouldRoundUpToPowerOfTwo() {
+    assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+    assertEquals(8192, new MpscRingBuffer<Integer>(8192).capacity());
+  }
+
+  @Test
+  void offerAndPoll_shouldKeepFifoOrderAndRejectWhenFull() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer(i));
+    }
+    assertFalse(buffer.offer(4));
+    assertEquals(0, buffer.poll());
+    assertTrue(buffer.offer(4));
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(i, buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertEquals(0, buffer.size());
+  }
+
+  @Test
+  void concurrentProducers_shouldDeliverEveryElementOnce() throws InterruptedException {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+    int producers = 4;
+    int perProducer = 10_000;
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(base + i)) {
+            Thread.onSpinWait();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+
+    Set<Integer> received = new HashSet<>();
+    while (received.size() < producers * perProducer) {
+      Integer element = buffer.poll();
+      if (element != null) {
+        assertTrue(received.add(element));
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(buffer.poll());
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockRetryTest {
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  private OptimisticLockRetry retry;
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    retry = new OptimisticLockRetry(
+            transactionTemplate, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+  }
+
+  private String conflictingUpdate(int failures) {
+    if (attempts.incrementAndGet() <= failures) {
+      throw new ObjectOptimisticLockingFailureException("Order", 1L);
+    }
+    return "updated";
+  }
+
+  @Test
+  void execute_shouldRetryVersionConflictsInNewTransactions() {
+    assertEquals("updated", retry.execute("order", () -> conflictingUpdate(2)));
+
+    assertEquals(3, attempts.get());
+    verify(transactionTemplate, times(3)).execute(any());
+    assertEquals(2L, retry.stats().get("order.conflicts"));
+    assertNull(retry.stats().get("order.exhausted"));
+  }
+
+  @Test
+  void execute_shouldReturnConflictWhenRetriesAreExhausted() {
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> retry.execute("product", () -> conflictingUpdate(5)));
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    assertEquals(3, attempts.get());
+    assertEquals(3L, retry.stats().get("product.conflicts"));
+    assertEquals(1L, retry.stats().get("product.exhausted"));
+  }
+
+  @Test
+  void checkVersion_shouldRejectStaleClientVersionWithoutRetry() {
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> retry.execute("account", () -> {
+              attempts.incrementAndGet();
+              retry.checkVersion("account", 1L, 2L);
+              return "updated";
+            }));
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    assertEquals(1, attempts.get());
+    assertDoesNotThrow(() -> retry.checkVersion("account", null, 2L));
+    assertDoesNotThrow(() -> retry.checkVersion("account", 2L, 2L));
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.store.service;
+
+import com.example.store.cache.NegativeCache;
+import com.example.store.dto.OrderIngestionStatus;
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.repository.OrderBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIngestionQueueTest {
+
+  @Mock
+  private OrderBulkRepository orderBulkRepository;
+
+  @Mock
+  private NegativeCache negativeCache;
+
+  private OrderIngestionQueue queue;
+
+  private final AtomicLong ids = new AtomicLong();
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  private OrderIngestionQueue queue(int capacity, int batchSize) {
+    queue = new OrderIngestionQueue(orderBulkRepository, negativeCache, true, capacity,
+            batchSize, Duration.ofMillis(5), Duration.ofMinutes(1), 1000);
+    return queue;
+  }
+
+  private Order order() {
+    return Order.builder()
+            .orderDate(LocalDateTime.now())
+            .account(Account.builder().id(1L).build())
+            .productIds(List.of(1L))
+            .unitPrices(Map.of(1L, 10))
+            .totalPrice(10)
+            .build();
+  }
+
+  private void assignIds() {
+    when(orderBulkRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<Order> orders = invocation.getArgument(0);
+      orders.forEach(order -> order.setId(ids.incrementAndGet()));
+      return orders;
+    });
+  }
+
+  @Test
+  void drain_shouldWriteMicroBatchesAndCommitStatuses() {
+    assignIds();
+    OrderIngestionQueue queue = queue(16, 2);
+    List<String> trackingIds = List.of(
+            queue.enqueue(order()).orElseThrow().trackingId(),
+            queue.enqueue(order()).orElseThrow().trackingId(),
+            queue.enqueue(order()).orElseThrow().trackingId());
+    assertEquals(OrderIngestionStatus.State.QUEUED,
+            queue.getStatus(trackingIds.get(0)).orElseThrow().state());
+
+    assertEquals(3, queue.drain());
+
+    verify(orderBulkRepository, times(2)).insertAll(anyList());
+    assertEquals(OrderIngestionStatus.committed(trackingIds.get(2), 3L),
+            queue.getStatus(trackingIds.get(2)).orElseThrow());
+    Map<String, Number> stats = queue.stats();
+    assertEquals(0, stats.get("queueDepth"));
+    assertEquals(3L, stats.get("committed"));
+    assertEquals(2L, stats.get("batches"));
+    verify(negativeCache).invalidate(NegativeCache.Kind.ORDER, 1L);
+  }
+
+  @Test
+  void enqueue_shouldRejectWhenBufferIsFull() {
+    OrderIngestionQueue queue = queue(2, 10);
+
+    assertTrue(queue.enqueue(order()).isPresent());
+    assertTrue(queue.enqueue(order()).isPresent());
+    assertTrue(queue.enqueue(order()).isEmpty());
+
+    assertEquals(1L, queue.stats().get("rejected"));
+    assertEquals(2, queue.stats().get("queueDepth"));
+  }
+
+  @Test
+  void drain_shouldIsolateFailedOrderWhenBatchFails() {
+    Order good = order();
+    Order bad = order();
+    when(orderBulkRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<Order> orders = invocation.getArgument(0);
+      if (orders.contains(bad)) {
+        throw new IllegalStateException("Account deleted");
+      }
+      good.setId(42L);
+      return orders;
+    });
+    OrderIngestionQueue queue = queue(16, 10);
+    String goodId = queue.enqueue(good).orElseThrow().trackingId();
+    String badId = queue.enqueue(bad).orElseThrow().trackingId();
+
+    queue.drain();
+
+    assertEquals(OrderIngestionStatus.committed(goodId, 42L), queue.getStatus(goodId).orElseThrow());
+    assertEquals(OrderIngestionStatus.failed(badId, "Account deleted"),
+            queue.getStatus(badId).orElseThrow());
+    assertEquals(1L, queue.stats().get("failed"));
+  }
+
+  @Test
+  void writer_shouldCommitQueuedOrdersInBackground() throws InterruptedException {
+    assignIds();
+    OrderIngestionQueue queue = queue(64, 8);
+    queue.run(null);
+    List<String> trackingIds = IntStream.range(0, 20)
+            .mapToObj(i -> queue.enqueue(order()).orElseThrow().trackingId())
+            .toList();
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < deadline && (Long) queue.stats().get("committed") < 20) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(20L, queue.stats().get("committed"));
+    assertTrue(trackingIds.stream().allMatch(id -> queue.getStatus(id).orElseThrow().state()
+            == OrderIngestionStatus.State.COMMITTED));
+    assertThrows(IllegalStateException.class, queue::drain);
+  }
+}
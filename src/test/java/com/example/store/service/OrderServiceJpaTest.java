@@ -0,0 +1,100 @@
+package com.example.store.service;
+
+import com.example.store.cache.NegativeCache;
+import com.example.store.cache.ProductCache;
+import com.example.store.model.Account;
+import com.example.store.model.Order;
+import com.example.store.model.Product;
+import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет создание заказа на настоящем Hibernate: продукты берутся из прогретого
+ * кэша, а созданный заказ сериализуется в JSON после закрытия контекста персистентности.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class OrderServiceJpaTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private ProductCache productCache;
+  private OrderService orderService;
+  private Long accountId;
+  private Long cachedId;
+  private Long uncachedId;
+
+  @BeforeEach
+  void setUp() {
+    Account account = testEntityManager.persist(Account.builder()
+            .nickname("buyer")
+            .firstName("First")
+            .lastName("Last")
+            .email("buyer@test.com")
+            .build());
+    accountId = account.getId();
+    cachedId = testEntityManager.persist(Product.builder()
+            .name("Book").price(100).category("books").account(account).build()).getId();
+    uncachedId = testEntityManager.persist(Product.builder()
+            .name("Game").price(30).category("games").account(account).build()).getId();
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    productCache = new ProductCache(productRepository, 1024 * 1024, Duration.ZERO, Duration.ZERO);
+    productCache.put(productRepository.findById(cachedId).orElseThrow());
+    testEntityManager.clear();
+
+    orderService = new OrderService(orderRepository, productRepository, accountRepository,
+            productCache, null, null, new NegativeCache(1000, Duration.ofSeconds(30)));
+  }
+
+  @Test
+  void createOrder_shouldSerializeProductsTakenFromWarmCache() throws Exception {
+    Order order = Order.builder()
+            .orderDate(LocalDateTime.of(2025, 1, 1, 10, 0))
+            .account(Account.builder().id(accountId).build())
+            .productIds(List.of(cachedId, uncachedId))
+            .build();
+
+    Order created = orderService.createOrder(order);
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    String json = objectMapper.writeValueAsString(created);
+    assertTrue(json.contains("\"name\":\"Book\""));
+    assertTrue(json.contains("\"name\":\"Game\""));
+    assertFalse(json.contains("hibernateLazyInitializer"));
+    assertEquals(130.0, created.getTotalPrice());
+
+    Order stored = orderRepository.findById(created.getId()).orElseThrow();
+    assertEquals(List.of(cachedId, uncachedId),
+            stored.getProducts().stream().map(Product::getId).sorted().toList());
+  }
+}
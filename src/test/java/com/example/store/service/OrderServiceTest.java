@@ -1,9 +1,15 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
+import com.example.store.cache.ProductCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.OrderBatchResult;
+import com.example.store.exception.ValidationException;
 import com.example.store.model.Account;
 import com.example.store.model.Order;
 import com.example.store.model.Product;
 import com.example.store.repository.AccountRepository;
+import com.example.store.repository.OrderBulkRepository;
 import com.example.store.repository.OrderRepository;
 import com.example.store.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
@@ -11,14 +17,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +46,18 @@ class OrderServiceTest {
   @Mock
   private AccountRepository accountRepository;
 
+  @Mock
+  private ProductCache productCache;
+
+  @Mock
+  private OrderBulkRepository orderBulkRepository;
+
+  @Mock
+  private OptimisticLockRetry optimisticLockRetry;
+
+  @Mock
+  private NegativeCache negativeCache;
+
   @InjectMocks
   private OrderService orderService;
 
@@ -49,6 +72,12 @@ class OrderServiceTest {
             .build();
   }
 
+  @SuppressWarnings("unchecked")
+  private void retryPassesThrough() {
+    when(optimisticLockRetry.execute(eq("order"), any()))
+            .thenAnswer(invocation -> ((Supplier<Order>) invocation.getArgument(1)).get());
+  }
+
   private Account createTestAccount(Long id) {
     return Account.builder().id(id).build();
   }
@@ -69,6 +98,23 @@ class OrderServiceTest {
     verify(orderRepository, times(1)).findAll();
   }
 
+  @Test
+  void getOrdersPage_shouldContinueAfterOrderDateAndId() {
+    Order order1 = createTestOrder(1L, createTestAccount(1L), List.of(createTestProduct(1L)));
+    Order order2 = createTestOrder(2L, createTestAccount(1L), List.of(createTestProduct(1L)));
+    when(orderRepository.findAllByOrderByOrderDateAscIdAsc(Limit.of(2)))
+            .thenReturn(List.of(order1, order2));
+    when(orderRepository.findPageAfter(order1.getOrderDate(), 1L, Limit.of(2)))
+            .thenReturn(List.of(order2));
+
+    CursorPage<Order> first = orderService.getOrdersPage(null, 1);
+    CursorPage<Order> second = orderService.getOrdersPage(first.nextCursor(), 1);
+
+    assertEquals(List.of(order1), first.items());
+    assertEquals(List.of(order2), second.items());
+    assertNull(second.nextCursor());
+  }
+
   @Test
   void getOrderById_shouldReturnOrder_whenExists() {
     Long orderId = 1L;
@@ -89,6 +135,18 @@ class OrderServiceTest {
     ResponseStatusException exception = assertThrows(ResponseStatusException.class,
             () -> orderService.getOrderById(orderId));
     assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    verify(negativeCache, times(1)).markMissing(NegativeCache.Kind.ORDER, orderId);
+  }
+
+  @Test
+  void getOrderById_shouldSkipDb_whenKnownMissing() {
+    Long orderId = 99L;
+    when(negativeCache.isKnownMissing(NegativeCache.Kind.ORDER, orderId)).thenReturn(true);
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> orderService.getOrderById(orderId));
+    assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    verify(orderRepository, never()).findById(any());
   }
 
   @Test
@@ -140,6 +198,33 @@ class OrderServiceTest {
     verify(orderRepository, times(1)).save(newOrder);
   }
 
+  @Test
+  void createOrder_shouldPriceFromCacheAndLoadMissesInOneQuery() {
+    Account account = createTestAccount(1L);
+    Product cached = createTestProduct(1L);
+    cached.setPrice(150);
+    Product missing = createTestProduct(2L);
+    missing.setPrice(40);
+    Order newOrder = createTestOrder(null, account, List.of());
+    newOrder.setProductIds(List.of(1L, 2L, 2L));
+    newOrder.setTotalPrice(1.0);
+
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+    when(productCache.getAllPresent(anyCollection())).thenReturn(Map.of(1L, cached));
+    when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(missing));
+    when(orderRepository.save(newOrder)).thenReturn(newOrder);
+
+    Order result = orderService.createOrder(newOrder);
+
+    assertEquals(230.0, result.getTotalPrice());
+    assertEquals(Map.of(1L, 150, 2L, 40), result.getUnitPrices());
+    assertEquals(List.of(cached, missing, missing), result.getProducts());
+    assertSame(cached, result.getProducts().get(0));
+    verify(productRepository, times(1)).findAllById(any());
+    verify(productRepository, never()).getReferenceById(any());
+    verify(productCache).putAll(List.of(missing));
+  }
+
   @Test
   void createOrder_shouldThrowException_whenAccountNotFound() {
     Order newOrder = createTestOrder(null, createTestAccount(99L), List.of(createTestProduct(1L)));
@@ -175,18 +260,110 @@ class OrderServiceTest {
   }
 
   @Test
-  void updateOrder_shouldSuccess_whenValidData() {
-    Long orderId = 1L;
+  void createOrders_shouldValidateWholeBatchAndReportEachItem() {
+    Product product1 = createTestProduct(1L);
+    product1.setPrice(100);
+    Product product2 = createTestProduct(2L);
+    product2.setPrice(25);
+    Order valid = createTestOrder(null, createTestAccount(1L), List.of(product1, product2));
+    Order unknownAccount = createTestOrder(null, createTestAccount(99L), List.of(product1));
+    Order unknownProduct = createTestOrder(null, createTestAccount(1L), List.of(product1));
+    unknownProduct.setProductIds(List.of(1L, 7L));
+    Order noProducts = createTestOrder(null, createTestAccount(1L), List.of());
+
+    when(accountRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+    when(productCache.getAllPresent(anyCollection())).thenReturn(Map.of(1L, product1));
+    when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product2));
+    doAnswer(invocation -> {
+      List<Order> inserted = invocation.getArgument(0);
+      OrderBulkRepository.ItemListener listener = invocation.getArgument(1);
+      inserted.forEach(order -> {
+        order.setId(10L);
+        listener.committed(order);
+      });
+      return null;
+    }).when(orderBulkRepository).insertAll(anyList(), any());
+
+    List<OrderBatchResult> results = orderService.createOrders(
+            List.of(valid, unknownAccount, unknownProduct, noProducts));
+
+    assertEquals(OrderBatchResult.created(0, 10L), results.get(0));
+    assertEquals("Account not found with id: 99", results.get(1).error());
+    assertEquals("Products not found: [7]", results.get(2).error());
+    assertEquals("Product IDs are required", results.get(3).error());
+    assertEquals(125.0, valid.getTotalPrice());
+    assertEquals(Map.of(1L, 100, 2L, 25), valid.getUnitPrices());
+    verify(accountRepository, times(1)).findExistingIds(anyCollection());
+    verify(productRepository, times(1)).findAllById(anyIterable());
+    verify(orderBulkRepository).insertAll(eq(List.of(valid)), any());
+    verify(negativeCache).invalidate(NegativeCache.Kind.ORDER, 10L);
+  }
+
+  @Test
+  void createOrders_shouldReportItemsThatFailDuringInsert() {
     Product product = createTestProduct(1L);
-    Order existingOrder = createTestOrder(orderId, createTestAccount(1L), List.of(product));
+    product.setPrice(10);
+    Order saved = createTestOrder(null, createTestAccount(1L), List.of(product));
+    Order rejected = createTestOrder(null, createTestAccount(2L), List.of(product));
+    when(accountRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+    when(productCache.getAllPresent(anyCollection())).thenReturn(Map.of(1L, product));
+    doAnswer(invocation -> {
+      OrderBulkRepository.ItemListener listener = invocation.getArgument(1);
+      saved.setId(10L);
+      listener.committed(saved);
+      listener.failed(rejected, new IllegalStateException("account deleted"));
+      return null;
+    }).when(orderBulkRepository).insertAll(anyList(), any());
+
+    List<OrderBatchResult> results = orderService.createOrders(List.of(saved, rejected));
+
+    assertEquals(OrderBatchResult.created(0, 10L), results.get(0));
+    assertFalse(results.get(1).success());
+    assertTrue(results.get(1).error().contains("account deleted"));
+  }
 
+  @Test
+  void createOrders_shouldRejectOversizedBatch() {
+    List<Order> orders = Collections.nCopies(OrderService.MAX_BATCH_SIZE + 1,
+            createTestOrder(null, createTestAccount(1L), List.of()));
+
+    assertThrows(ValidationException.class, () -> orderService.createOrders(orders));
+    verifyNoInteractions(orderBulkRepository);
+  }
+
+  @Test
+  void updateOrder_shouldModifyLoadedOrderWithoutMerge() {
+    Long orderId = 1L;
+    Product product = createTestProduct(1L);
+    product.setPrice(70);
+    Order existingOrder = createTestOrder(orderId, createTestAccount(1L), List.of());
+    existingOrder.setVersion(3L);
+    Order update = createTestOrder(null, createTestAccount(1L), List.of(product));
+    update.setVersion(3L);
+
+    retryPassesThrough();
+    when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
     when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
-    when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
 
-    Order result = orderService.updateOrder(orderId, existingOrder);
+    Order result = orderService.updateOrder(orderId, update);
 
-    assertEquals(orderId, result.getId());
-    verify(orderRepository, times(1)).save(existingOrder);
+    assertSame(existingOrder, result);
+    assertEquals(70.0, result.getTotalPrice());
+    assertEquals(List.of(product), result.getProducts());
+    verify(optimisticLockRetry).checkVersion("order", 3L, 3L);
+    verify(orderRepository).flush();
+    verify(orderRepository, never()).save(any());
+    verify(accountRepository, never()).findById(any());
+  }
+
+  @Test
+  void updateOrder_shouldThrowException_whenOrderNotFound() {
+    retryPassesThrough();
+    when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> orderService.updateOrder(99L, new Order()));
+    assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
   }
 
   @Test
@@ -196,6 +373,39 @@ class OrderServiceTest {
 
     assertDoesNotThrow(() -> orderService.deleteOrder(orderId));
     verify(orderRepository, times(1)).deleteById(orderId);
+    verify(negativeCache).markMissing(NegativeCache.Kind.ORDER, orderId);
+  }
+
+  @Test
+  void deleteOrder_shouldMarkMissingOnlyAfterCommit() {
+    Long orderId = 1L;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      orderService.deleteOrder(orderId);
+
+      verify(negativeCache, never()).markMissing(any(), any());
+      TransactionSynchronizationManager.getSynchronizations()
+              .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(negativeCache).markMissing(NegativeCache.Kind.ORDER, orderId);
+  }
+
+  @Test
+  void deleteOrder_shouldNotMarkMissingWhenTransactionRollsBack() {
+    Long orderId = 1L;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      orderService.deleteOrder(orderId);
+      TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+              synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(negativeCache, never()).markMissing(any(), any());
   }
 
   @Test
@@ -1,18 +1,37 @@
 package com.example.store.service;
 
+import com.example.store.cache.NegativeCache;
 import com.example.store.cache.ProductCache;
+import com.example.store.cache.ProductIndex;
+import com.example.store.cache.ProductQueryCache;
+import com.example.store.dto.CursorPage;
+import com.example.store.dto.ProductIndexEntry;
+import com.example.store.exception.ValidationException;
+import com.example.store.model.Account;
 import com.example.store.model.Product;
-import com.example.store.repository.OrderRepository;
+import com.example.store.repository.AccountRepository;
+import com.example.store.repository.ProductBulkRepository;
 import com.example.store.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,10 +43,25 @@ class ProductServiceTest {
   private ProductRepository productRepository;
 
   @Mock
-  private OrderRepository orderRepository;
+  private ProductCache productCache;
 
   @Mock
-  private ProductCache productCache;
+  private NegativeCache negativeCache;
+
+  @Mock
+  private ProductQueryCache productQueryCache;
+
+  @Mock
+  private ProductIndex productIndex;
+
+  @Mock
+  private ProductBulkRepository productBulkRepository;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private OptimisticLockRetry optimisticLockRetry;
 
   @InjectMocks
   private ProductService productService;
@@ -41,13 +75,20 @@ class ProductServiceTest {
             .build();
   }
 
+  private static Answer<Optional<Product>> invokeLoader() {
+    return invocation -> {
+      Function<Long, Optional<Product>> loader = invocation.getArgument(1);
+      return loader.apply(invocation.getArgument(0));
+    };
+  }
+
   @Test
   void getProducts_shouldReturnAllProducts_whenNoFilters() {
     Product product1 = createTestProduct(1L, "Product 1", 100, "Electronics");
     Product product2 = createTestProduct(2L, "Product 2", 200, "Books");
     when(productRepository.findAll()).thenReturn(Arrays.asList(product1, product2));
 
-    List<Product> result = productService.getProducts(null, null);
+    List<Product> result = productService.getProducts(null, null, null, null);
 
     assertEquals(2, result.size());
     verify(productRepository, times(1)).findAll();
@@ -58,7 +99,7 @@ class ProductServiceTest {
     Product product = createTestProduct(1L, "Product 1", 100, "Electronics");
     when(productRepository.findByCategory("Electronics")).thenReturn(List.of(product));
 
-    List<Product> result = productService.getProducts("Electronics", null);
+    List<Product> result = productService.getProducts("Electronics", null, null, null);
 
     assertEquals(1, result.size());
     assertEquals("Electronics", result.get(0).getCategory());
@@ -69,7 +110,7 @@ class ProductServiceTest {
     Product product = createTestProduct(1L, "Product 1", 100, "Electronics");
     when(productRepository.findByPrice(100)).thenReturn(List.of(product));
 
-    List<Product> result = productService.getProducts(null, 100);
+    List<Product> result = productService.getProducts(null, 100, null, null);
 
     assertEquals(1, result.size());
     assertEquals(100, result.get(0).getPrice());
@@ -80,13 +121,87 @@ class ProductServiceTest {
     Product product = createTestProduct(1L, "Product 1", 100, "Electronics");
     when(productRepository.findByCategoryAndPrice("Electronics", 100)).thenReturn(List.of(product));
 
-    List<Product> result = productService.getProducts("Electronics", 100);
+    List<Product> result = productService.getProducts("Electronics", 100, null, null);
 
     assertEquals(1, result.size());
     assertEquals("Electronics", result.get(0).getCategory());
     assertEquals(100, result.get(0).getPrice());
   }
 
+  @Test
+  void getProducts_shouldFilterByPriceRange_whenIndexNotReady() {
+    Product product = createTestProduct(1L, "Product 1", 100, "Electronics");
+    when(productRepository.findByFilter(null, 50, 150)).thenReturn(List.of(product));
+
+    List<Product> result = productService.getProducts(null, null, 50, 150);
+
+    assertEquals(1, result.size());
+  }
+
+  @Test
+  void getProducts_shouldUseIndexAndLoadCacheMisses() {
+    Product cached = createTestProduct(1L, "Cached", 100, "Electronics");
+    Product loaded = createTestProduct(2L, "Loaded", 120, "Electronics");
+    when(productIndex.isReady()).thenReturn(true);
+    when(productIndex.findIds("Electronics", null, 50, 150)).thenReturn(new long[] {1L, 2L});
+    when(productCache.getAllPresent(List.of(1L, 2L))).thenReturn(Map.of(1L, cached));
+    when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(loaded));
+
+    List<Product> result = productService.getProducts("Electronics", null, 50, 150);
+
+    assertEquals(List.of(cached, loaded), result);
+    verify(productCache, times(1)).putAll(List.of(loaded));
+    verify(productRepository, never()).findByCategory(any());
+  }
+
+  @Test
+  void getProducts_shouldReadUnfilteredListFromRepositoryEvenWhenIndexReady() {
+    Product product = createTestProduct(1L, "Product 1", 100, "Electronics");
+    when(productRepository.findAll()).thenReturn(List.of(product));
+
+    assertEquals(List.of(product), productService.getProducts(null, null, null, null));
+    verify(productIndex, never()).findIds(any(), any(), any(), any());
+  }
+
+  @Test
+  void getProducts_shouldLoadCacheMissesInBoundedChunks() {
+    int count = ProductService.MAX_IDS_PER_QUERY + 1;
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = i + 1;
+    }
+    when(productIndex.isReady()).thenReturn(true);
+    when(productIndex.findIds("Books", null, null, null)).thenReturn(ids);
+    when(productCache.getAllPresent(anyList())).thenReturn(Map.of());
+    when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+      List<Long> chunk = invocation.getArgument(0);
+      assertTrue(chunk.size() <= ProductService.MAX_IDS_PER_QUERY);
+      return chunk.stream().map(id -> createTestProduct(id, "P", 1, "Books")).toList();
+    });
+
+    assertEquals(count, productService.getProducts("Books", null, null, null).size());
+    verify(productRepository, times(2)).findAllById(anyIterable());
+  }
+
+  @Test
+  void getProductsPage_shouldReturnNextCursor_whenMoreItemsExist() {
+    Product product1 = createTestProduct(1L, "Product 1", 100, "Electronics");
+    Product product2 = createTestProduct(2L, "Product 2", 200, "Books");
+    Product product3 = createTestProduct(3L, "Product 3", 300, "Books");
+    when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+            .thenReturn(List.of(product1, product2, product3));
+    when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3)))
+            .thenReturn(List.of(product3));
+
+    CursorPage<Product> first = productService.getProductsPage(null, 2);
+    CursorPage<Product> second = productService.getProductsPage(first.nextCursor(), 2);
+
+    assertEquals(List.of(product1, product2), first.items());
+    assertNotNull(first.nextCursor());
+    assertEquals(List.of(product3), second.items());
+    assertNull(second.nextCursor());
+  }
+
   @Test
   void getProductById_shouldReturnFromCache() {
     Long productId = 1L;
@@ -105,25 +220,42 @@ class ProductServiceTest {
     Long productId = 1L;
     Product dbProduct = createTestProduct(productId, "DB Product", 100, "Electronics");
     when(productCache.get(productId)).thenReturn(null);
+    when(productCache.load(eq(productId), any())).thenAnswer(invokeLoader());
     when(productRepository.findById(productId)).thenReturn(Optional.of(dbProduct));
 
     Optional<Product> result = productService.getProductById(productId);
 
     assertTrue(result.isPresent());
     assertEquals("DB Product", result.get().getName());
-    verify(productCache, times(1)).put(dbProduct);
+    verify(productRepository, times(1)).findById(productId);
+    verify(productCache, times(1)).load(eq(productId), any());
   }
 
   @Test
   void getProductById_shouldReturnEmpty_whenProductNotFound() {
     Long productId = 99L;
     when(productCache.get(productId)).thenReturn(null);
+    when(productCache.load(eq(productId), any())).thenAnswer(invokeLoader());
     when(productRepository.findById(productId)).thenReturn(Optional.empty());
 
     Optional<Product> result = productService.getProductById(productId);
 
     assertTrue(result.isEmpty());
     verify(productCache, never()).put(any());
+    verify(negativeCache, times(1)).markMissing(NegativeCache.Kind.PRODUCT, productId);
+  }
+
+  @Test
+  void getProductById_shouldSkipDb_whenKnownMissing() {
+    Long productId = 99L;
+    when(productCache.get(productId)).thenReturn(null);
+    when(negativeCache.isKnownMissing(NegativeCache.Kind.PRODUCT, productId)).thenReturn(true);
+
+    Optional<Product> result = productService.getProductById(productId);
+
+    assertTrue(result.isEmpty());
+    verify(productCache, never()).load(any(), any());
+    verify(productRepository, never()).findById(any());
   }
 
   @Test
@@ -136,31 +268,229 @@ class ProductServiceTest {
 
     assertNotNull(result.getId());
     verify(productCache, times(1)).put(savedProduct);
+    verify(negativeCache, times(1)).invalidate(NegativeCache.Kind.PRODUCT, 1L);
+    verify(productQueryCache, times(1)).evict(List.of(savedProduct));
+  }
+
+  @Test
+  void saveProduct_shouldEvictQueriesForOldAndNewCategory() {
+    Product updated = createTestProduct(1L, "Product", 150, "Electronics");
+    when(productRepository.findIndexEntryById(1L))
+            .thenReturn(Optional.of(new ProductIndexEntry(1L, "Books", 100)));
+    when(productRepository.save(updated)).thenReturn(updated);
+
+    productService.saveProduct(updated);
+
+    verify(productQueryCache, times(1)).evict(argThat(products -> queryKeys(products).equals(
+            Set.of("Books:100", "Electronics:150"))));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void updateProduct_shouldModifyLoadedProductAndEvictOldAndNewCategory() {
+    Product existing = createTestProduct(1L, "Product", 100, "Books");
+    existing.setAccount(Account.builder().id(7L).build());
+    Product update = createTestProduct(null, "Renamed", 150, "Electronics");
+    update.setAccount(Account.builder().id(7L).build());
+    when(productRepository.findIndexEntryById(1L))
+            .thenReturn(Optional.of(new ProductIndexEntry(1L, "Books", 100)));
+    when(optimisticLockRetry.execute(eq("product"), any()))
+            .thenAnswer(invocation -> ((Supplier<Product>) invocation.getArgument(1)).get());
+    when(productRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+    Product result = productService.updateProduct(1L, update);
+
+    assertSame(existing, result);
+    assertEquals("Renamed", result.getName());
+    assertEquals(150, result.getPrice());
+    verify(accountRepository, never()).findById(any());
+    verify(productRepository).flush();
+    verify(productRepository, never()).save(any());
+    verify(productCache).put(existing);
+    verify(productQueryCache).evict(argThat(products -> queryKeys(products).equals(
+            Set.of("Books:100", "Electronics:150"))));
+  }
+
+  private static Set<String> queryKeys(Collection<Product> products) {
+    return products.stream()
+            .map(product -> product.getCategory() + ":" + product.getPrice())
+            .collect(Collectors.toSet());
+  }
+
+  /** Вставляет продукты по одному в пачке, сообщая о каждой зафиксированной пачке. */
+  private static Answer<List<Product>> insertInChunksOfOne(long firstId) {
+    return invocation -> {
+      List<Product> products = invocation.getArgument(0);
+      Consumer<List<Product>> committed = invocation.getArgument(1);
+      long id = firstId;
+      for (Product product : products) {
+        assertNull(product.getId());
+        product.setId(id++);
+        committed.accept(List.of(product));
+      }
+      return products;
+    };
+  }
+
+  @Test
+  void saveProducts_shouldBulkInsertAndPopulateCachesPerCommittedChunk() {
+    Product first = createTestProduct(5L, "First", 100, "Books");
+    Product second = createTestProduct(null, "Second", 200, "Toys");
+    List<Product> products = List.of(first, second);
+    when(productBulkRepository.insertAll(eq(products), any())).thenAnswer(insertInChunksOfOne(1L));
+
+    List<Product> result = productService.saveProducts(products);
+
+    assertEquals(products, result);
+    assertEquals(1L, first.getId());
+    verify(productRepository, never()).save(any());
+    verify(accountRepository, never()).findAllById(any());
+    verify(productCache).putAll(List.of(first));
+    verify(productCache).putAll(List.of(second));
+    verify(productIndex).putAll(List.of(second));
+    verify(negativeCache, times(1)).invalidate(NegativeCache.Kind.PRODUCT, 2L);
+    verify(productQueryCache).evict(List.of(second));
+  }
+
+  @Test
+  void saveProducts_shouldKeepCommittedChunksVisibleWhenLaterChunkFails() {
+    Product first = createTestProduct(null, "First", 100, "Books");
+    Product second = createTestProduct(null, "Second", 200, "Toys");
+    List<Product> products = List.of(first, second);
+    when(productBulkRepository.insertAll(eq(products), any())).thenAnswer(invocation -> {
+      Consumer<List<Product>> committed = invocation.getArgument(1);
+      first.setId(1L);
+      committed.accept(List.of(first));
+      throw new IllegalStateException("deadlock");
+    });
+
+    assertThrows(IllegalStateException.class, () -> productService.saveProducts(products));
+
+    verify(productCache).putAll(List.of(first));
+    verify(productIndex).putAll(List.of(first));
+    verify(productIndex, never()).putAll(List.of(second));
+  }
+
+  @Test
+  void saveProducts_shouldCacheLoadedAccountsInsteadOfClientData() {
+    Product product = createTestProduct(null, "First", 100, "Books");
+    product.setAccount(Account.builder().id(7L).nickname("spoofed").build());
+    Account stored = Account.builder().id(7L).nickname("owner").build();
+    when(accountRepository.findAllById(Set.of(7L))).thenReturn(List.of(stored));
+    when(productBulkRepository.insertAll(eq(List.of(product)), any()))
+            .thenAnswer(insertInChunksOfOne(1L));
+
+    productService.saveProducts(List.of(product));
+
+    assertSame(stored, product.getAccount());
+    verify(productCache).putAll(argThat(cached ->
+            cached.iterator().next().getAccount() == stored));
+  }
+
+  @Test
+  void saveProducts_shouldRejectUnknownAccountsBeforeInserting() {
+    Product product = createTestProduct(null, "First", 100, "Books");
+    product.setAccount(Account.builder().id(7L).build());
+    Product other = createTestProduct(null, "Second", 200, "Toys");
+    other.setAccount(Account.builder().id(8L).build());
+    when(accountRepository.findAllById(Set.of(7L, 8L)))
+            .thenReturn(List.of(Account.builder().id(8L).build()));
+
+    ValidationException exception = assertThrows(ValidationException.class,
+            () -> productService.saveProducts(List.of(product, other)));
+
+    assertTrue(exception.getReason().contains("7"));
+    verify(productBulkRepository, never()).insertAll(any(), any());
   }
 
   @Test
   void deleteProduct_shouldRemoveFromOrdersAndDbAndCache() {
     Long productId = 1L;
-    Product product = createTestProduct(productId, "To Delete", 100, "Electronics");
-    when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+    when(productRepository.findIndexEntryById(productId))
+            .thenReturn(Optional.of(new ProductIndexEntry(productId, "Electronics", 100)));
 
     productService.deleteProduct(productId);
 
-    verify(orderRepository, atLeastOnce()).findByProductsContaining(product);
-    verify(productRepository, times(1)).delete(product);
+    verify(productRepository, times(1)).deleteProductById(productId);
     verify(productCache, times(1)).remove(productId);
+    verify(productIndex, times(1)).remove(productId);
+    verify(negativeCache).markMissing(NegativeCache.Kind.PRODUCT, productId);
+    verify(productQueryCache).evict(argThat(products -> products.stream().anyMatch(
+            product -> "Electronics".equals(product.getCategory()) && product.getPrice() == 100)));
+  }
+
+  @Test
+  void deleteProduct_shouldEvictCachesOnlyAfterCommit() {
+    Long productId = 1L;
+    when(productRepository.findIndexEntryById(productId))
+            .thenReturn(Optional.of(new ProductIndexEntry(productId, "Electronics", 100)));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      productService.deleteProduct(productId);
+
+      verify(productCache, never()).remove(any());
+      verify(productIndex, never()).remove(any());
+      TransactionSynchronizationManager.getSynchronizations()
+              .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(productCache).remove(productId);
+    verify(productIndex).remove(productId);
+  }
+
+  @Test
+  void deleteProduct_shouldKeepCachesWhenTransactionRollsBack() {
+    Long productId = 1L;
+    when(productRepository.findIndexEntryById(productId))
+            .thenReturn(Optional.of(new ProductIndexEntry(productId, "Electronics", 100)));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      productService.deleteProduct(productId);
+      TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+              synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(productIndex, never()).remove(any());
+    verify(negativeCache, never()).markMissing(any(), any());
   }
 
   @Test
   void deleteProduct_shouldThrowException_whenProductNotFound() {
     Long productId = 99L;
-    when(productRepository.findById(productId)).thenReturn(Optional.empty());
+    when(productRepository.findIndexEntryById(productId)).thenReturn(Optional.empty());
 
     RuntimeException exception = assertThrows(RuntimeException.class,
             () -> productService.deleteProduct(productId));
     assertEquals("Product not found", exception.getMessage());
 
     verify(productCache, never()).remove(any());
-    verify(orderRepository, never()).findByProductsContaining(any());
+    verify(productRepository, never()).deleteProductById(any());
+  }
+
+  @Test
+  void softDeleteProduct_shouldMarkDeletedAndEvictCaches() {
+    Long productId = 1L;
+    when(productRepository.findIndexEntryById(productId))
+            .thenReturn(Optional.of(new ProductIndexEntry(productId, "Electronics", 100)));
+
+    productService.softDeleteProduct(productId);
+
+    verify(productRepository).softDeleteById(productId);
+    verify(productRepository, never()).deleteProductById(any());
+    verify(productCache).remove(productId);
+    verify(productIndex).remove(productId);
+    verify(negativeCache).markMissing(NegativeCache.Kind.PRODUCT, productId);
+  }
+
+  @Test
+  void softDeleteProduct_shouldThrowException_whenProductNotFound() {
+    when(productRepository.findIndexEntryById(99L)).thenReturn(Optional.empty());
+
+    assertThrows(RuntimeException.class, () -> productService.softDeleteProduct(99L));
+    verify(productRepository, never()).softDeleteById(any());
   }
-}
\ No newline at end of file
+}